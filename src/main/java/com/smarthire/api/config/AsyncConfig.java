@@ -0,0 +1,28 @@
+package com.smarthire.api.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * Pool dédié aux générations IA à la demande (résumé, questions d'entretien).
+ * Les endpoints rendent la main au conteneur web pendant l'appel au LLM :
+ * les threads Tomcat ne sont plus bloqués, et le nombre de générations simultanées reste borné.
+ */
+@Configuration
+public class AsyncConfig {
+
+    @Bean(name = "aiGenerationExecutor")
+    public ThreadPoolTaskExecutor aiGenerationExecutor(@Value("${app.ai.generation.threads:8}") int threads,
+                                                       @Value("${app.ai.generation.queue-capacity:100}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("ai-generation-");
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        executor.initialize();
+        return executor;
+    }
+}
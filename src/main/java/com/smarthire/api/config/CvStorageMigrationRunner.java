@@ -0,0 +1,98 @@
+package com.smarthire.api.config;
+
+import com.smarthire.api.storage.CvStorage;
+import com.smarthire.api.storage.StoredCv;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Migration ponctuelle : déplace les anciens CV (colonne LONGBLOB "cv_data")
+ * vers le CvStorage, par lots, puis vide la colonne.
+ * Idempotente : ne traite que les lignes dont "cv_data" est encore rempli.
+ */
+@Component
+@Order(0)
+@RequiredArgsConstructor
+@Slf4j
+public class CvStorageMigrationRunner implements CommandLineRunner {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final CvStorage cvStorage;
+
+    @Value("${app.cv-storage.migration.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.cv-storage.migration.batch-size:50}")
+    private int batchSize;
+
+    @Override
+    public void run(String... args) {
+        if (!enabled) {
+            return;
+        }
+        String nullable = legacyColumnNullability();
+        if (nullable == null) {
+            return; // Colonne déjà supprimée (ou base neuve)
+        }
+
+        // Hibernate n'écrit plus "cv_data" : la colonne doit accepter NULL pour les nouvelles candidatures.
+        if ("NO".equalsIgnoreCase(nullable)) {
+            jdbcTemplate.execute("ALTER TABLE applications MODIFY cv_data LONGBLOB NULL");
+        }
+
+        log.info("Migration des CV vers le stockage externe (lots de {})...", batchSize);
+        long lastId = 0;
+        int migrated = 0;
+        int failed = 0;
+
+        while (true) {
+            // On ne charge que les ids : les blobs sont lus un par un pour borner la mémoire.
+            List<Long> ids = jdbcTemplate.queryForList(
+                    "SELECT id FROM applications WHERE cv_data IS NOT NULL AND id > ? ORDER BY id LIMIT ?",
+                    Long.class, lastId, batchSize);
+            if (ids.isEmpty()) {
+                break;
+            }
+
+            for (Long id : ids) {
+                try {
+                    byte[] data = jdbcTemplate.queryForObject(
+                            "SELECT cv_data FROM applications WHERE id = ?", byte[].class, id);
+                    StoredCv stored = cvStorage.store(data);
+                    jdbcTemplate.update(
+                            "UPDATE applications SET cv_storage_key = ?, cv_size = ?, cv_checksum = ?, cv_data = NULL WHERE id = ?",
+                            stored.key(), stored.size(), stored.checksum(), id);
+                    migrated++;
+                } catch (Exception e) {
+                    failed++;
+                    log.error("Échec de la migration du CV de la candidature {} : {}", id, e.getMessage());
+                }
+            }
+            lastId = ids.get(ids.size() - 1);
+            log.info("Migration des CV : {} migrés, {} en échec...", migrated, failed);
+        }
+
+        log.info("Migration des CV terminée : {} migrés, {} en échec. La colonne 'cv_data' peut être supprimée une fois vide.", migrated, failed);
+    }
+
+    // Retourne "YES"/"NO" selon que la colonne "cv_data" accepte NULL, ou null si elle n'existe pas.
+    private String legacyColumnNullability() {
+        try {
+            List<String> result = jdbcTemplate.queryForList(
+                    "SELECT is_nullable FROM information_schema.columns " +
+                            "WHERE table_schema = DATABASE() AND table_name = 'applications' AND column_name = 'cv_data'",
+                    String.class);
+            return result.isEmpty() ? null : result.get(0);
+        } catch (Exception e) {
+            log.warn("Impossible de vérifier la présence de la colonne 'cv_data' : {}", e.getMessage());
+            return null;
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.smarthire.api.config;
+
+import com.smarthire.api.repository.ApplicationRepository;
+import com.smarthire.api.service.CvTextService;
+import com.smarthire.api.storage.StoredCv;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Rattrapage : extrait le texte des CV existants qui n'ont pas encore de "cv_text".
+ * S'exécute après la migration des CV vers le stockage externe, dans un thread en arrière-plan :
+ * la lecture de chaque PDF ne retarde pas le démarrage. Un CV demandé avant son tour est extrait à la lecture.
+ */
+@Component
+@Order(10)
+@RequiredArgsConstructor
+@Slf4j
+public class CvTextBackfillRunner implements CommandLineRunner {
+
+    private final ApplicationRepository applicationRepository;
+    private final CvTextService cvTextService;
+
+    @Value("${app.cv-text.backfill.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.cv-text.backfill.batch-size:50}")
+    private int batchSize;
+
+    @Override
+    public void run(String... args) {
+        if (!enabled) {
+            return;
+        }
+        Thread thread = new Thread(this::backfill, "cv-text-backfill");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void backfill() {
+        String lastChecksum = "";
+        int extracted = 0;
+        int failed = 0;
+
+        while (!Thread.currentThread().isInterrupted()) {
+            List<StoredCv> batch = applicationRepository.findCvsWithoutText(lastChecksum, PageRequest.of(0, batchSize));
+            if (batch.isEmpty()) {
+                break;
+            }
+
+            for (StoredCv cv : batch) {
+                try {
+                    cvTextService.ensureExtracted(cv);
+                    extracted++;
+                } catch (Exception e) {
+                    failed++;
+                    log.error("Échec de l'extraction du texte du CV {} : {}", cv.checksum(), e.getMessage());
+                }
+            }
+            lastChecksum = batch.get(batch.size() - 1).checksum();
+        }
+
+        if (extracted > 0 || failed > 0) {
+            log.info("Rattrapage du texte des CV terminé : {} extraits, {} en échec.", extracted, failed);
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.smarthire.api.config;
+
+import com.smarthire.api.repository.ApplicationRepository;
+import com.smarthire.api.service.EmbeddingService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Rattrapage : calcule le vecteur sémantique des CV existants.
+ * Le calcul est local mais coûteux en CPU : il tourne dans un thread en arrière-plan
+ * pour ne pas retarder le démarrage de l'application.
+ */
+@Component
+@Order(20)
+@RequiredArgsConstructor
+@Slf4j
+public class EmbeddingBackfillRunner implements CommandLineRunner {
+
+    private final ApplicationRepository applicationRepository;
+    private final EmbeddingService embeddingService;
+
+    @Value("${app.embeddings.backfill.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.embeddings.backfill.batch-size:100}")
+    private int batchSize;
+
+    @Override
+    public void run(String... args) {
+        if (!enabled) {
+            return;
+        }
+        Thread thread = new Thread(this::backfill, "embedding-backfill");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void backfill() {
+        long lastId = 0;
+        int embedded = 0;
+        int failed = 0;
+
+        while (!Thread.currentThread().isInterrupted()) {
+            List<Long> batch = applicationRepository.findIdsWithoutEmbedding(lastId, PageRequest.of(0, batchSize));
+            if (batch.isEmpty()) {
+                break;
+            }
+
+            for (Long applicationId : batch) {
+                try {
+                    embeddingService.ensureEmbedded(applicationId);
+                    embedded++;
+                } catch (Exception e) {
+                    failed++;
+                    log.error("Échec du calcul de l'embedding de la candidature {} : {}", applicationId, e.getMessage());
+                }
+            }
+            lastId = batch.get(batch.size() - 1);
+        }
+
+        if (embedded > 0 || failed > 0) {
+            log.info("Rattrapage des embeddings terminé : {} calculés, {} en échec.", embedded, failed);
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.smarthire.api.config;
+
+import dev.langchain4j.model.embedding.EmbeddingModel;
+import dev.langchain4j.model.embedding.onnx.allminilml6v2.AllMiniLmL6V2EmbeddingModel;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+
+@Configuration
+public class EmbeddingConfig {
+
+    // Modèle local (ONNX, dans le processus) : aucun appel externe. Chargé à la première utilisation.
+    @Bean
+    @Lazy
+    public EmbeddingModel embeddingModel() {
+        return new AllMiniLmL6V2EmbeddingModel();
+    }
+}
@@ -1,10 +1,24 @@
 package com.smarthire.api.config;
 
+import com.smarthire.api.llm.CircuitBreaker;
+import com.smarthire.api.llm.LlmCallGuard;
+import com.smarthire.api.llm.LlmResilienceSettings;
+import com.smarthire.api.llm.RateLimitedChatLanguageModel;
+import com.smarthire.api.llm.ResilientChatLanguageModel;
+import com.smarthire.api.llm.ResilientStreamingChatLanguageModel;
+import com.smarthire.api.utils.RateLimiter;
 import dev.langchain4j.model.chat.ChatLanguageModel;
+import dev.langchain4j.model.chat.StreamingChatLanguageModel;
 import dev.langchain4j.model.googleai.GoogleAiGeminiChatModel;
+import dev.langchain4j.model.googleai.GoogleAiGeminiStreamingChatModel;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+import java.time.Duration;
 
 @Configuration
 public class GeminiConfig {
@@ -15,13 +29,168 @@ public class GeminiConfig {
     @Value("${langchain4j.google-ai-gemini.chat-model.model-name:gemini-2.5-flash}")
     private String modelName;
 
+    // Modèle rapide et économique : premier niveau de la cascade de notation (voir AIService)
+    @Value("${app.ai.scoring.cascade.cheap-model-name:gemini-2.5-flash-lite}")
+    private String cheapModelName;
+
+    @Value("${app.ai.resilience.timeout-ms:60000}")
+    private long timeoutMillis;
+
+    @Value("${app.ai.resilience.max-attempts:3}")
+    private int maxAttempts;
+
+    // Durée maximale d'un appel, tentatives et attentes comprises
+    @Value("${app.ai.resilience.total-budget-ms:90000}")
+    private long totalBudgetMillis;
+
+    @Value("${app.ai.resilience.initial-backoff-ms:1000}")
+    private long initialBackoffMillis;
+
+    @Value("${app.ai.resilience.max-backoff-ms:20000}")
+    private long maxBackoffMillis;
+
+    @Value("${app.ai.resilience.circuit.failure-threshold:5}")
+    private int failureThreshold;
+
+    @Value("${app.ai.resilience.circuit.open-seconds:30}")
+    private long openSeconds;
+
+    @Value("${app.ai.resilience.bulkhead.max-concurrent-calls:10}")
+    private int maxConcurrentCalls;
+
+    @Value("${app.ai.resilience.bulkhead.max-wait-ms:2000}")
+    private long maxQueueWaitMillis;
+
+    // Cloison de la notation en masse (worker) : les workers peuvent attendre plus longtemps une place
+    @Value("${app.ai.resilience.scoring-bulkhead.max-concurrent-calls:6}")
+    private int scoringMaxConcurrentCalls;
+
+    @Value("${app.ai.resilience.scoring-bulkhead.max-wait-ms:30000}")
+    private long scoringMaxQueueWaitMillis;
+
+    // Un appel ne doit jamais survivre à la requête HTTP qui l'attend, ni au bail qui évite les doublons
+    @Value("${spring.mvc.async.request-timeout:120s}")
+    private Duration asyncRequestTimeout;
+
+    @Value("${app.ai.generation.claim.lease-seconds:120}")
+    private long generationLeaseSeconds;
+
+    // Quota de requêtes de la notation en masse (par instance), tous modèles et modes (lot, unitaire, cascade)
+    @Value("${app.ai.scoring.requests-per-minute:60}")
+    private int scoringRequestsPerMinute;
+
+    // Marge laissée, après le budget de l'appel, pour lire le CV et enregistrer le résultat
+    private static final Duration BUDGET_MARGIN = Duration.ofSeconds(10);
+
+    // Disjoncteur du modèle principal, partagé par ses deux cloisons (une panne concerne tous les appels)
     @Bean
-    public ChatLanguageModel chatLanguageModel() {
-        return GoogleAiGeminiChatModel.builder()
+    public CircuitBreaker geminiCircuitBreaker(MeterRegistry meterRegistry) {
+        CircuitBreaker breaker = new CircuitBreaker(failureThreshold, Duration.ofSeconds(openSeconds));
+        LlmCallGuard.registerCircuitGauge(modelName, breaker, meterRegistry);
+        return breaker;
+    }
+
+    // Disjoncteur distinct : une panne du modèle rapide n'empêche pas d'appeler le modèle principal
+    @Bean
+    public CircuitBreaker cheapScoringCircuitBreaker(MeterRegistry meterRegistry) {
+        CircuitBreaker breaker = new CircuitBreaker(failureThreshold, Duration.ofSeconds(openSeconds));
+        LlmCallGuard.registerCircuitGauge(cheapModelName, breaker, meterRegistry);
+        return breaker;
+    }
+
+    // Appels interactifs (résumés, questions d'entretien, flux SSE)
+    @Bean(destroyMethod = "shutdown")
+    public LlmCallGuard geminiCallGuard(@Qualifier("geminiCircuitBreaker") CircuitBreaker geminiCircuitBreaker, MeterRegistry meterRegistry) {
+        return new LlmCallGuard(modelName, "interactive",
+                resilienceSettings(maxConcurrentCalls, maxQueueWaitMillis), geminiCircuitBreaker, meterRegistry);
+    }
+
+    // Notation en masse : ne prend jamais les places des appels interactifs
+    @Bean(destroyMethod = "shutdown")
+    public LlmCallGuard scoringCallGuard(@Qualifier("geminiCircuitBreaker") CircuitBreaker geminiCircuitBreaker, MeterRegistry meterRegistry) {
+        return new LlmCallGuard(modelName, "scoring",
+                resilienceSettings(scoringMaxConcurrentCalls, scoringMaxQueueWaitMillis), geminiCircuitBreaker, meterRegistry);
+    }
+
+    @Bean(destroyMethod = "shutdown")
+    public LlmCallGuard cheapScoringCallGuard(@Qualifier("cheapScoringCircuitBreaker") CircuitBreaker cheapScoringCircuitBreaker,
+                                              MeterRegistry meterRegistry) {
+        return new LlmCallGuard(cheapModelName, "scoring",
+                resilienceSettings(scoringMaxConcurrentCalls, scoringMaxQueueWaitMillis), cheapScoringCircuitBreaker, meterRegistry);
+    }
+
+    // Partagé par les deux modèles de notation : une notation en cascade compte deux requêtes
+    @Bean
+    public RateLimiter scoringRateLimiter() {
+        return new RateLimiter(scoringRequestsPerMinute);
+    }
+
+    @Bean
+    @Primary
+    public ChatLanguageModel chatLanguageModel(@Qualifier("geminiCallGuard") LlmCallGuard geminiCallGuard) {
+        GoogleAiGeminiChatModel gemini = GoogleAiGeminiChatModel.builder()
                 .apiKey(apiKey)
                 .modelName(modelName)
                 .temperature(0.7)
+                .timeout(Duration.ofMillis(timeoutMillis))
+                .maxRetries(1) // Les nouvelles tentatives sont gérées par LlmCallGuard
                 .logRequestsAndResponses(true) // Utile pour voir ce qui se passe
                 .build();
+        return new ResilientChatLanguageModel(gemini, geminiCallGuard);
+    }
+
+    @Bean
+    public ChatLanguageModel scoringChatModel(@Qualifier("scoringCallGuard") LlmCallGuard scoringCallGuard,
+                                              RateLimiter scoringRateLimiter) {
+        GoogleAiGeminiChatModel gemini = GoogleAiGeminiChatModel.builder()
+                .apiKey(apiKey)
+                .modelName(modelName)
+                .temperature(0.7)
+                .timeout(Duration.ofMillis(timeoutMillis))
+                .maxRetries(1)
+                .build();
+        return new RateLimitedChatLanguageModel(new ResilientChatLanguageModel(gemini, scoringCallGuard), scoringRateLimiter);
+    }
+
+    @Bean
+    public ChatLanguageModel cheapScoringModel(@Qualifier("cheapScoringCallGuard") LlmCallGuard cheapScoringCallGuard,
+                                               RateLimiter scoringRateLimiter) {
+        GoogleAiGeminiChatModel gemini = GoogleAiGeminiChatModel.builder()
+                .apiKey(apiKey)
+                .modelName(cheapModelName)
+                .temperature(0.0) // Notes reproductibles
+                .timeout(Duration.ofMillis(timeoutMillis))
+                .maxRetries(1)
+                .build();
+        return new RateLimitedChatLanguageModel(new ResilientChatLanguageModel(gemini, cheapScoringCallGuard),
+                scoringRateLimiter);
+    }
+
+    // Même modèle en streaming : les tokens sont transmis au fil de la génération (endpoints SSE)
+    @Bean
+    public StreamingChatLanguageModel streamingChatLanguageModel(@Qualifier("geminiCallGuard") LlmCallGuard geminiCallGuard) {
+        GoogleAiGeminiStreamingChatModel gemini = GoogleAiGeminiStreamingChatModel.builder()
+                .apiKey(apiKey)
+                .modelName(modelName)
+                .temperature(0.7)
+                .timeout(Duration.ofMillis(timeoutMillis))
+                .build();
+        return new ResilientStreamingChatLanguageModel(gemini, geminiCallGuard);
+    }
+
+    private LlmResilienceSettings resilienceSettings(int concurrentCalls, long queueWaitMillis) {
+        Duration totalBudget = Duration.ofMillis(totalBudgetMillis);
+        Duration limit = asyncRequestTimeout.compareTo(Duration.ofSeconds(generationLeaseSeconds)) < 0
+                ? asyncRequestTimeout : Duration.ofSeconds(generationLeaseSeconds);
+        if (totalBudget.plus(BUDGET_MARGIN).compareTo(limit) > 0) {
+            throw new IllegalStateException("app.ai.resilience.total-budget-ms (" + totalBudgetMillis + " ms) doit rester inférieur de "
+                    + BUDGET_MARGIN.toSeconds() + " s à spring.mvc.async.request-timeout et app.ai.generation.claim.lease-seconds ("
+                    + limit.toSeconds() + " s)");
+        }
+        return new LlmResilienceSettings(
+                Duration.ofMillis(timeoutMillis), maxAttempts, totalBudget,
+                Duration.ofMillis(initialBackoffMillis), Duration.ofMillis(maxBackoffMillis),
+                failureThreshold, Duration.ofSeconds(openSeconds),
+                concurrentCalls, Duration.ofMillis(queueWaitMillis));
     }
-}
\ No newline at end of file
+}
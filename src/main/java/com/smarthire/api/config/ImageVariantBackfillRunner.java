@@ -0,0 +1,118 @@
+package com.smarthire.api.config;
+
+import com.smarthire.api.service.ImageService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Rattrapage : génère les versions redimensionnées (ImageService) des images existantes
+ * - offres dont l'image n'a pas encore de versions dans "image_variants",
+ * - photos de profil dont la photo n'a pas encore de versions.
+ * S'exécute après les migrations vers "job_offer_images" et "profile_pictures".
+ */
+@Component
+@Order(10)
+@RequiredArgsConstructor
+@Slf4j
+public class ImageVariantBackfillRunner implements CommandLineRunner {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ImageService imageService;
+
+    @Value("${app.images.backfill.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.images.backfill.batch-size:50}")
+    private int batchSize;
+
+    @Override
+    public void run(String... args) {
+        if (!enabled) {
+            return;
+        }
+        backfillOffers();
+        backfillProfilePictures();
+    }
+
+    private void backfillOffers() {
+        long lastId = 0;
+        int processed = 0;
+        int failed = 0;
+
+        while (true) {
+            List<Long> ids = jdbcTemplate.queryForList(
+                    "SELECT o.id FROM job_offers o JOIN job_offer_images i ON i.offer_id = o.id " +
+                            "WHERE o.has_image = TRUE AND o.id > ? " +
+                            "AND NOT EXISTS (SELECT 1 FROM image_variants v WHERE v.source_hash = o.image_hash) " +
+                            "ORDER BY o.id LIMIT ?",
+                    Long.class, lastId, batchSize);
+            if (ids.isEmpty()) {
+                break;
+            }
+
+            for (Long id : ids) {
+                try {
+                    byte[] data = jdbcTemplate.queryForObject(
+                            "SELECT data FROM job_offer_images WHERE offer_id = ?", byte[].class, id);
+                    ImageService.ProcessedImage image = imageService.store(data);
+                    jdbcTemplate.update(
+                            "UPDATE job_offers SET image_hash = ?, image_width = ?, image_height = ? WHERE id = ?",
+                            image.sourceHash(), image.width(), image.height(), id);
+                    processed++;
+                } catch (Exception e) {
+                    failed++;
+                    log.error("Échec du traitement de l'image de l'offre {} : {}", id, e.getMessage());
+                }
+            }
+            lastId = ids.get(ids.size() - 1);
+        }
+
+        if (processed > 0 || failed > 0) {
+            log.info("Rattrapage des versions des images d'offres terminé : {} traitées, {} en échec.", processed, failed);
+        }
+    }
+
+    private void backfillProfilePictures() {
+        long lastId = 0;
+        int processed = 0;
+        int failed = 0;
+
+        while (true) {
+            List<Long> ids = jdbcTemplate.queryForList(
+                    "SELECT u.id FROM users u JOIN profile_pictures p ON p.user_id = u.id " +
+                            "WHERE u.has_profile_picture = TRUE AND u.id > ? " +
+                            "AND (u.profile_picture_hash IS NULL " +
+                            "OR NOT EXISTS (SELECT 1 FROM image_variants v WHERE v.source_hash = u.profile_picture_hash)) " +
+                            "ORDER BY u.id LIMIT ?",
+                    Long.class, lastId, batchSize);
+            if (ids.isEmpty()) {
+                break;
+            }
+
+            for (Long id : ids) {
+                try {
+                    byte[] data = jdbcTemplate.queryForObject(
+                            "SELECT data FROM profile_pictures WHERE user_id = ?", byte[].class, id);
+                    ImageService.ProcessedImage image = imageService.store(data);
+                    jdbcTemplate.update("UPDATE users SET profile_picture_hash = ? WHERE id = ?", image.sourceHash(), id);
+                    processed++;
+                } catch (Exception e) {
+                    failed++;
+                    log.error("Échec du traitement de la photo de profil de l'utilisateur {} : {}", id, e.getMessage());
+                }
+            }
+            lastId = ids.get(ids.size() - 1);
+        }
+
+        if (processed > 0 || failed > 0) {
+            log.info("Rattrapage des versions des photos de profil terminé : {} traitées, {} en échec.", processed, failed);
+        }
+    }
+}
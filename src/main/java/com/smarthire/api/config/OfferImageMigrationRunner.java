@@ -0,0 +1,106 @@
+package com.smarthire.api.config;
+
+import com.smarthire.api.utils.HashUtils;
+import com.smarthire.api.utils.ImageUtils;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Migration ponctuelle : déplace les anciennes images d'offres (colonne LONGBLOB "job_offers.image")
+ * vers la table "job_offer_images", par lots, renseigne les métadonnées de l'offre
+ * (has_image, image_hash, dimensions) puis vide la colonne.
+ * Idempotente : ne traite que les offres dont "image" est encore rempli.
+ */
+@Component
+@Order(0)
+@RequiredArgsConstructor
+@Slf4j
+public class OfferImageMigrationRunner implements CommandLineRunner {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${app.offer-images.migration.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.offer-images.migration.batch-size:50}")
+    private int batchSize;
+
+    @Override
+    public void run(String... args) {
+        if (!enabled || !legacyColumnExists()) {
+            return; // Colonne déjà supprimée (ou base neuve)
+        }
+
+        long lastId = 0;
+        int migrated = 0;
+        int failed = 0;
+
+        while (true) {
+            // On ne charge que les ids : les images sont lues une par une pour borner la mémoire.
+            List<Long> ids = jdbcTemplate.queryForList(
+                    "SELECT id FROM job_offers WHERE image IS NOT NULL AND id > ? ORDER BY id LIMIT ?",
+                    Long.class, lastId, batchSize);
+            if (ids.isEmpty()) {
+                break;
+            }
+            if (migrated == 0 && failed == 0) {
+                log.info("Migration des images d'offres vers la table job_offer_images (lots de {})...", batchSize);
+            }
+
+            for (Long id : ids) {
+                try {
+                    Map<String, Object> row = jdbcTemplate.queryForMap(
+                            "SELECT image, image_content_type FROM job_offers WHERE id = ?", id);
+                    byte[] data = (byte[]) row.get("image");
+                    String contentType = row.get("image_content_type") != null
+                            ? row.get("image_content_type").toString() : "application/octet-stream";
+                    Optional<ImageUtils.Dimensions> dimensions = ImageUtils.readDimensions(data);
+
+                    jdbcTemplate.update(
+                            "INSERT INTO job_offer_images (offer_id, content_type, data, updated_at) VALUES (?, ?, ?, NOW(6)) " +
+                                    "ON DUPLICATE KEY UPDATE content_type = VALUES(content_type), data = VALUES(data)",
+                            id, contentType, data);
+                    jdbcTemplate.update(
+                            "UPDATE job_offers SET has_image = TRUE, image_hash = ?, image_width = ?, image_height = ?, image = NULL WHERE id = ?",
+                            HashUtils.sha256Hex(data),
+                            dimensions.map(ImageUtils.Dimensions::width).orElse(null),
+                            dimensions.map(ImageUtils.Dimensions::height).orElse(null),
+                            id);
+                    migrated++;
+                } catch (Exception e) {
+                    failed++;
+                    log.error("Échec de la migration de l'image de l'offre {} : {}", id, e.getMessage());
+                }
+            }
+            lastId = ids.get(ids.size() - 1);
+            log.info("Migration des images d'offres : {} migrées, {} en échec...", migrated, failed);
+        }
+
+        if (migrated > 0 || failed > 0) {
+            log.info("Migration des images d'offres terminée : {} migrées, {} en échec. " +
+                    "Les colonnes 'image' et 'image_content_type' peuvent être supprimées une fois vides.", migrated, failed);
+        }
+    }
+
+    private boolean legacyColumnExists() {
+        try {
+            Integer count = jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM information_schema.columns " +
+                            "WHERE table_schema = DATABASE() AND table_name = 'job_offers' AND column_name = 'image'",
+                    Integer.class);
+            return count != null && count > 0;
+        } catch (Exception e) {
+            log.warn("Impossible de vérifier la présence de la colonne 'image' : {}", e.getMessage());
+            return false;
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.smarthire.api.config;
+
+import com.smarthire.api.utils.HashUtils;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Migration ponctuelle : déplace les anciennes photos de profil (colonne LONGBLOB "users.profile_picture")
+ * vers la table "profile_pictures", par lots, renseigne les métadonnées de l'utilisateur
+ * (has_profile_picture, profile_picture_hash) puis vide la colonne.
+ * Idempotente : ne traite que les utilisateurs dont "profile_picture" est encore rempli.
+ */
+@Component
+@Order(0)
+@RequiredArgsConstructor
+@Slf4j
+public class ProfilePictureMigrationRunner implements CommandLineRunner {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${app.profile-pictures.migration.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.profile-pictures.migration.batch-size:50}")
+    private int batchSize;
+
+    @Override
+    public void run(String... args) {
+        if (!enabled || !legacyColumnExists()) {
+            return; // Colonne déjà supprimée (ou base neuve)
+        }
+
+        long lastId = 0;
+        int migrated = 0;
+        int failed = 0;
+
+        while (true) {
+            // On ne charge que les ids : les photos sont lues une par une pour borner la mémoire.
+            List<Long> ids = jdbcTemplate.queryForList(
+                    "SELECT id FROM users WHERE profile_picture IS NOT NULL AND id > ? ORDER BY id LIMIT ?",
+                    Long.class, lastId, batchSize);
+            if (ids.isEmpty()) {
+                break;
+            }
+            if (migrated == 0 && failed == 0) {
+                log.info("Migration des photos de profil vers la table profile_pictures (lots de {})...", batchSize);
+            }
+
+            for (Long id : ids) {
+                try {
+                    Map<String, Object> row = jdbcTemplate.queryForMap(
+                            "SELECT profile_picture, profile_picture_type FROM users WHERE id = ?", id);
+                    byte[] data = (byte[]) row.get("profile_picture");
+                    String contentType = row.get("profile_picture_type") != null
+                            ? row.get("profile_picture_type").toString() : "application/octet-stream";
+
+                    jdbcTemplate.update(
+                            "INSERT INTO profile_pictures (user_id, content_type, data, updated_at) VALUES (?, ?, ?, NOW(6)) " +
+                                    "ON DUPLICATE KEY UPDATE content_type = VALUES(content_type), data = VALUES(data)",
+                            id, contentType, data);
+                    jdbcTemplate.update(
+                            "UPDATE users SET has_profile_picture = TRUE, profile_picture_hash = ?, profile_picture = NULL WHERE id = ?",
+                            HashUtils.sha256Hex(data), id);
+                    migrated++;
+                } catch (Exception e) {
+                    failed++;
+                    log.error("Échec de la migration de la photo de profil de l'utilisateur {} : {}", id, e.getMessage());
+                }
+            }
+            lastId = ids.get(ids.size() - 1);
+            log.info("Migration des photos de profil : {} migrées, {} en échec...", migrated, failed);
+        }
+
+        if (migrated > 0 || failed > 0) {
+            log.info("Migration des photos de profil terminée : {} migrées, {} en échec. " +
+                    "Les colonnes 'profile_picture' et 'profile_picture_type' peuvent être supprimées une fois vides.", migrated, failed);
+        }
+    }
+
+    private boolean legacyColumnExists() {
+        try {
+            Integer count = jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM information_schema.columns " +
+                            "WHERE table_schema = DATABASE() AND table_name = 'users' AND column_name = 'profile_picture'",
+                    Integer.class);
+            return count != null && count > 0;
+        } catch (Exception e) {
+            log.warn("Impossible de vérifier la présence de la colonne 'profile_picture' : {}", e.getMessage());
+            return false;
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.smarthire.api.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Active les tâches planifiées (workers de la file d'analyse IA).
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
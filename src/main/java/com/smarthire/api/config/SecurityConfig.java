@@ -2,6 +2,7 @@ package com.smarthire.api.config;
 
 import com.smarthire.api.security.CustomUserDetailsService;
 import com.smarthire.api.security.JwtFilter;
+import jakarta.servlet.DispatcherType;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
@@ -41,6 +42,9 @@ public class SecurityConfig {
                 .cors(cors -> cors.configurationSource(corsConfigurationSource())) // Activation CORS
                 .csrf(csrf -> csrf.disable())
                 .authorizeHttpRequests(auth -> auth
+                                // Reprise d'une réponse asynchrone (CompletableFuture, SSE) : la requête d'origine
+                                // a déjà été authentifiée et autorisée, le JWT n'est pas relu à ce stade
+                                .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                                 .requestMatchers("/api/auth/**").permitAll() // Routes d'authentification
                                 .requestMatchers(HttpMethod.GET, "/api/offers", "/api/offers/**").permitAll()
 
@@ -50,6 +54,8 @@ public class SecurityConfig {
                                 // Nous autorisons publiquement SEULEMENT le GET sur l'image par son ID.
                                 .requestMatchers(HttpMethod.GET, "/api/profile/*/picture").permitAll()
                                 // --- FIN DE LA CORRECTION ---
+                                // Versions des images (offres, photos de profil), adressées par empreinte
+                                .requestMatchers(HttpMethod.GET, "/api/images/**").permitAll()
                                 .requestMatchers(
                                         "/v3/api-docs/**",
                                         "/swagger-ui/**",
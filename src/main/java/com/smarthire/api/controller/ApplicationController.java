@@ -4,13 +4,16 @@ package com.smarthire.api.controller;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.smarthire.api.dto.*; // Importe tous les DTOs
-import com.smarthire.api.model.Application;
+import com.smarthire.api.llm.LlmUnavailableException;
 import com.smarthire.api.service.ApplicationService;
+import com.smarthire.api.service.ScoringJobService;
+import dev.langchain4j.model.StreamingResponseHandler;
+import dev.langchain4j.model.output.Response;
 import jakarta.persistence.EntityNotFoundException;
 import jakarta.validation.Valid; // Pour la validation des DTOs
 import lombok.RequiredArgsConstructor;
-import org.springframework.core.io.ByteArrayResource;
 import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
@@ -21,12 +24,15 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
-import com.smarthire.api.service.AIService; // Importez le nouveau service
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.io.IOException;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
 
 @RestController
 @RequestMapping("/api/applications")
@@ -34,7 +40,7 @@ import java.util.Map;
 public class ApplicationController {
 
     private final ApplicationService applicationService;
-    private final AIService aiService;
+    private final ScoringJobService scoringJobService;
 
     // ... (endpoints existants: applyToOffer, getMyApplications, getApplicationsForOffer) ...
     // >>> ASSUREZ-VOUS QUE LES ENDPOINTS EXISTANTS SONT PRÉSENTS ICI <<<
@@ -99,23 +105,60 @@ public class ApplicationController {
         }
     }
 
+    /**
+     * Candidatures d'une offre page par page, pour les offres très demandées.
+     * URL : GET /api/applications/offer/{offerId}/page?sort=score&direction=desc&status=PENDING&minScore=50&limit=50
+     * Pour la page suivante, renvoyer la même requête avec cursor = "nextCursor" de la réponse.
+     */
+    @GetMapping("/offer/{offerId}/page")
+    @PreAuthorize("hasAuthority('ROLE_RH')")
+    public ResponseEntity<?> getApplicationsPage(
+            @PathVariable Long offerId,
+            @RequestParam(defaultValue = "score") String sort,
+            @RequestParam(defaultValue = "desc") String direction,
+            @RequestParam(name = "status", required = false) List<String> statuses,
+            @RequestParam(required = false) Integer minScore,
+            @RequestParam(required = false) Integer maxScore,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String cursor) {
+        try {
+            String rhEmail = getAuthenticatedUserEmail();
+            ApplicationPageResponse page = applicationService.getApplicationsPage(offerId, rhEmail,
+                    new ApplicationPageRequest(sort, direction, statuses, minScore, maxScore, limit, cursor));
+            return ResponseEntity.ok(createSuccessResponse(page, "Candidats récupérés avec succès."));
+        } catch (IllegalArgumentException e) {
+            return createErrorResponse(HttpStatus.BAD_REQUEST, e.getMessage(), null);
+        } catch (EntityNotFoundException e) {
+            return createErrorResponse(HttpStatus.NOT_FOUND, e.getMessage(), null);
+        } catch (AccessDeniedException e) {
+            return createErrorResponse(HttpStatus.FORBIDDEN, e.getMessage(), null);
+        }
+    }
+
     /**
      * Endpoint pour un RH ou un CANDIDAT pour TÉLÉCHARGER ou AFFICHER un CV.
      * MODIFIÉ (Amélioration 2) : Changé de "attachment" à "inline"
+     * Le fichier est envoyé en flux depuis le stockage. Spring gère à partir de la Resource :
+     * - les requêtes "Range" (réponse 206 partielle, utilisée par les lecteurs PDF des navigateurs),
+     * - "If-None-Match" grâce à l'ETag (empreinte SHA-256) : réponse 304 sans corps.
      */
     @GetMapping("/{applicationId}/cv")
     @PreAuthorize("hasAnyAuthority('ROLE_RH', 'ROLE_CANDIDAT')")
     public ResponseEntity<Resource> downloadCv(@PathVariable Long applicationId) {
         try {
             String userEmail = getAuthenticatedUserEmail();
-            // Le service vérifie les droits d'accès
-            Application application = applicationService.getApplicationCv(applicationId, userEmail);
+            // Le service vérifie les droits d'accès (sans charger le fichier)
+            CvDownloadInfo cv = applicationService.getCvDownloadInfo(applicationId, userEmail);
 
             return ResponseEntity.ok()
-                    .contentType(MediaType.parseMediaType(application.getCvFileType()))
+                    .contentType(MediaType.parseMediaType(cv.fileType()))
                     // MODIFICATION : "inline" demande au navigateur d'afficher le fichier
-                    .header(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"" + application.getCvFileName() + "\"")
-                    .body(new ByteArrayResource(application.getCvData()));
+                    .header(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"" + cv.fileName() + "\"")
+                    .header(HttpHeaders.ACCEPT_RANGES, "bytes")
+                    .eTag("\"" + cv.checksum() + "\"")
+                    // Le navigateur garde le fichier mais revalide à chaque fois (droits d'accès + ETag)
+                    .cacheControl(CacheControl.noCache().cachePrivate())
+                    .body(applicationService.openCv(cv));
 
         } catch (EntityNotFoundException e) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
@@ -213,39 +256,42 @@ public class ApplicationController {
 
 
     // Endpoint pour générer un résumé du profil candidat par IA
+    // Réponse asynchrone : le thread de la requête est libéré pendant l'appel au LLM
     @PostMapping("/{id}/ai-summary")
     @PreAuthorize("hasAuthority('ROLE_RH')")
-    public ResponseEntity<?> generateAiSummary(@PathVariable Long id) {
-        try {
-            String userEmail = getAuthenticatedUserEmail();
-            // Appel à la méthode correspondante dans ApplicationService
-            String summary = applicationService.generateAiSummary(id, userEmail);
-            return ResponseEntity.ok(createSuccessResponse(summary, "Résumé généré avec succès"));
-        } catch (EntityNotFoundException e) {
-            return createErrorResponse(HttpStatus.NOT_FOUND, e.getMessage(), null);
-        } catch (AccessDeniedException e) {
-            return createErrorResponse(HttpStatus.FORBIDDEN, e.getMessage(), null);
-        } catch (Exception e) {
-            return createErrorResponse(HttpStatus.INTERNAL_SERVER_ERROR, "Erreur lors de la génération du résumé", e.getMessage());
-        }
+    public CompletableFuture<ResponseEntity<?>> generateAiSummary(@PathVariable Long id) {
+        String userEmail = getAuthenticatedUserEmail();
+        return applicationService.generateAiSummaryAsync(id, userEmail)
+                .<ResponseEntity<?>>thenApply(summary -> ResponseEntity.ok(createSuccessResponse(summary, "Résumé généré avec succès")))
+                .exceptionally(e -> aiErrorResponse(e, "Erreur lors de la génération du résumé"));
     }
 
     // Endpoint pour générer des questions d'entretien par IA
     @PostMapping("/{id}/ai-questions")
     @PreAuthorize("hasAuthority('ROLE_RH')")
-    public ResponseEntity<?> generateAiQuestions(@PathVariable Long id) {
-        try {
-            String userEmail = getAuthenticatedUserEmail();
-            // Appel à la méthode correspondante dans ApplicationService
-            String questions = applicationService.generateAiInterviewQuestions(id, userEmail);
-            return ResponseEntity.ok(createSuccessResponse(questions, "Questions générées avec succès"));
-        } catch (EntityNotFoundException e) {
-            return createErrorResponse(HttpStatus.NOT_FOUND, e.getMessage(), null);
-        } catch (AccessDeniedException e) {
-            return createErrorResponse(HttpStatus.FORBIDDEN, e.getMessage(), null);
-        } catch (Exception e) {
-            return createErrorResponse(HttpStatus.INTERNAL_SERVER_ERROR, "Erreur lors de la génération des questions", e.getMessage());
-        }
+    public CompletableFuture<ResponseEntity<?>> generateAiQuestions(@PathVariable Long id) {
+        String userEmail = getAuthenticatedUserEmail();
+        return applicationService.generateAiInterviewQuestionsAsync(id, userEmail)
+                .<ResponseEntity<?>>thenApply(questions -> ResponseEntity.ok(createSuccessResponse(questions, "Questions générées avec succès")))
+                .exceptionally(e -> aiErrorResponse(e, "Erreur lors de la génération des questions"));
+    }
+
+    // Variantes en streaming (Server-Sent Events) : événements "token" au fil de la génération,
+    // puis "done" avec le texte complet enregistré, ou "error"
+    @PostMapping(value = "/{id}/ai-summary/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @PreAuthorize("hasAuthority('ROLE_RH')")
+    public SseEmitter streamAiSummary(@PathVariable Long id) {
+        SseEmitter emitter = new SseEmitter(AI_STREAM_TIMEOUT_MS);
+        applicationService.streamAiSummary(id, getAuthenticatedUserEmail(), sseHandler(emitter));
+        return emitter;
+    }
+
+    @PostMapping(value = "/{id}/ai-questions/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @PreAuthorize("hasAuthority('ROLE_RH')")
+    public SseEmitter streamAiQuestions(@PathVariable Long id) {
+        SseEmitter emitter = new SseEmitter(AI_STREAM_TIMEOUT_MS);
+        applicationService.streamAiInterviewQuestions(id, getAuthenticatedUserEmail(), sseHandler(emitter));
+        return emitter;
     }
 
 
@@ -269,16 +315,24 @@ public class ApplicationController {
         }
     }
 
-    //endpoint pour analyser les cv
+    //endpoint pour analyser les cv ("id" = id de l'offre)
     @PostMapping("/{id}/analyze-cvs")
-    public ResponseEntity<?> analyzeAllCvs(@PathVariable Long id, Authentication authentication) {
-        // On lance l'analyse (c'est une méthode @Async, donc ça répondra tout de suite)
-        aiService.analyzeAllApplications(id, authentication.getName());
-
-        return ResponseEntity.ok(Map.of(
-                "success", true,
-                "message", "Analyse IA lancée en arrière-plan. Les résultats apparaîtront progressivement."
-        ));
+    @PreAuthorize("hasAuthority('ROLE_RH')")
+    public ResponseEntity<?> analyzeAllCvs(@PathVariable Long id,
+                                           @RequestParam(defaultValue = "false") boolean force,
+                                           Authentication authentication) {
+        try {
+            // On lance l'analyse : la réponse contient l'id du job pour suivre l'avancement
+            ScoringJobResponse job = scoringJobService.startJob(id, authentication.getName(), force);
+            Map<String, Object> response = createSuccessResponse(job,
+                    "Analyse IA lancée en arrière-plan. Les résultats apparaîtront progressivement.");
+            response.put("status", HttpStatus.ACCEPTED.value());
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(response);
+        } catch (EntityNotFoundException e) {
+            return createErrorResponse(HttpStatus.NOT_FOUND, e.getMessage(), null);
+        } catch (AccessDeniedException e) {
+            return createErrorResponse(HttpStatus.FORBIDDEN, e.getMessage(), null);
+        }
     }
 
 
@@ -347,6 +401,55 @@ public class ApplicationController {
 
     // --- Méthodes utilitaires ---
 
+    private static final long AI_STREAM_TIMEOUT_MS = 120_000;
+
+    private StreamingResponseHandler<String> sseHandler(SseEmitter emitter) {
+        return new StreamingResponseHandler<>() {
+            @Override
+            public void onNext(String token) {
+                try {
+                    emitter.send(SseEmitter.event().name("token").data(token));
+                } catch (IOException | IllegalStateException e) {
+                    // Client déconnecté : la génération se termine et le texte est tout de même enregistré
+                }
+            }
+
+            @Override
+            public void onComplete(Response<String> response) {
+                try {
+                    emitter.send(SseEmitter.event().name("done").data(response.content()));
+                    emitter.complete();
+                } catch (IOException | IllegalStateException e) {
+                    emitter.completeWithError(e);
+                }
+            }
+
+            @Override
+            public void onError(Throwable error) {
+                try {
+                    emitter.send(SseEmitter.event().name("error").data(aiErrorResponse(error, "Erreur lors de la génération").getBody()));
+                    emitter.complete();
+                } catch (IOException | IllegalStateException e) {
+                    emitter.completeWithError(e);
+                }
+            }
+        };
+    }
+
+    private ResponseEntity<Map<String, Object>> aiErrorResponse(Throwable error, String message) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        if (cause instanceof EntityNotFoundException) {
+            return createErrorResponse(HttpStatus.NOT_FOUND, cause.getMessage(), null);
+        } else if (cause instanceof AccessDeniedException) {
+            return createErrorResponse(HttpStatus.FORBIDDEN, cause.getMessage(), null);
+        } else if (cause instanceof RejectedExecutionException) {
+            return createErrorResponse(HttpStatus.SERVICE_UNAVAILABLE, "Trop de générations IA en cours, réessayez dans un instant.", null);
+        } else if (cause instanceof LlmUnavailableException) {
+            return createErrorResponse(HttpStatus.SERVICE_UNAVAILABLE, cause.getMessage(), null);
+        }
+        return createErrorResponse(HttpStatus.INTERNAL_SERVER_ERROR, message, cause.getMessage());
+    }
+
     private String getAuthenticatedUserEmail() {
         return SecurityContextHolder.getContext().getAuthentication().getName();
     }
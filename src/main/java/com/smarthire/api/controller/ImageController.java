@@ -0,0 +1,55 @@
+package com.smarthire.api.controller;
+
+import com.smarthire.api.model.enums.ImageVariantType;
+import com.smarthire.api.service.ImageService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.Duration;
+import java.util.Optional;
+
+@RestController
+@RequestMapping("/api/images")
+@RequiredArgsConstructor
+public class ImageController {
+
+    // Le contenu d'une URL /api/images/{empreinte}/{taille} ne change jamais
+    private static final CacheControl IMMUTABLE = CacheControl.maxAge(Duration.ofDays(365)).cachePublic().immutable();
+
+    private final ImageService imageService;
+
+    /**
+     * Version d'une image (offre ou photo de profil), par empreinte de l'original et taille.
+     * URL : GET /api/images/{sourceHash}/{thumbnail|card|full}
+     * - mise en cache d'un an ("immutable") : une nouvelle image a une nouvelle empreinte, donc une nouvelle URL,
+     * - "If-None-Match" : réponse 304 sans lecture en base (l'ETag se déduit de l'URL).
+     */
+    @GetMapping("/{sourceHash}/{variant}")
+    public ResponseEntity<byte[]> getImage(@PathVariable String sourceHash,
+                                           @PathVariable String variant,
+                                           @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        Optional<ImageVariantType> type = ImageVariantType.fromPathName(variant);
+        if (type.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+
+        String eTag = "\"" + sourceHash + "-" + type.get().pathName() + "\"";
+        if (ifNoneMatch != null && (ifNoneMatch.contains(eTag) || ifNoneMatch.trim().equals("*"))) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).cacheControl(IMMUTABLE).build();
+        }
+
+        return imageService.findVariant(sourceHash, type.get())
+                .map(image -> ResponseEntity.ok()
+                        .contentType(MediaType.parseMediaType(image.getContentType()))
+                        .contentLength(image.getData().length)
+                        .cacheControl(IMMUTABLE)
+                        .eTag(eTag)
+                        .body(image.getData()))
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+}
@@ -2,11 +2,15 @@ package com.smarthire.api.controller;
 
 import com.smarthire.api.dto.JobOfferRequest;
 import com.smarthire.api.dto.JobOfferResponse;
-import com.smarthire.api.service.AIService;
+import com.smarthire.api.dto.ScoringCascadeSettings;
+import com.smarthire.api.dto.ScoringJobResponse;
+import com.smarthire.api.model.enums.ImageVariantType;
 import com.smarthire.api.service.JobOfferService;
+import com.smarthire.api.service.ScoringJobService;
 import jakarta.persistence.EntityNotFoundException;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -28,7 +32,7 @@ import java.util.Map;
 public class JobOfferController {
 
     private final JobOfferService jobOfferService;
-    private final AIService aiService; // <--- Injection du service IA (OBLIGATOIRE)
+    private final ScoringJobService scoringJobService; // <--- Jobs d'analyse IA des CV
 
     // ======================================================
     // ENDPOINTS PUBLICS
@@ -154,15 +158,20 @@ public class JobOfferController {
     // --- MÉTHODE POUR L'IA (SPRINT 3) ---
     @PostMapping("/{id}/analyze-cvs")
     @PreAuthorize("hasRole('RH') or hasRole('ADMIN')")
-    public ResponseEntity<?> analyzeAllCvs(@PathVariable Long id, Authentication authentication) {
-        // On lance l'analyse
-        aiService.analyzeAllApplications(id, authentication.getName());
-
-        // Réponse JSON manuelle
-        Map<String, Object> response = new HashMap<>();
-        response.put("success", true);
-        response.put("message", "Analyse IA lancée en arrière-plan. Les résultats apparaîtront progressivement.");
-        return ResponseEntity.ok(response);
+    public ResponseEntity<?> analyzeAllCvs(@PathVariable Long id,
+                                           @RequestParam(defaultValue = "false") boolean force,
+                                           Authentication authentication) {
+        try {
+            // On lance l'analyse : retour immédiat avec l'id du job (suivi via /api/scoring-jobs/{jobId})
+            ScoringJobResponse job = scoringJobService.startJob(id, authentication.getName(), force);
+            Map<String, Object> response = createSuccessResponse(job, "Analyse IA lancée en arrière-plan. Les résultats apparaîtront progressivement.");
+            response.put("status", HttpStatus.ACCEPTED.value());
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(response);
+        } catch (EntityNotFoundException e) {
+            return createErrorResponse(HttpStatus.NOT_FOUND, e.getMessage(), null);
+        } catch (AccessDeniedException e) {
+            return createErrorResponse(HttpStatus.FORBIDDEN, e.getMessage(), null);
+        }
     }
 
 
@@ -185,24 +194,78 @@ public class JobOfferController {
         }
     }
 
-    @PutMapping(value = "/{id}/image", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
-    public ResponseEntity<Void> uploadOfferImage(@PathVariable Long id, @RequestParam("file") MultipartFile file) throws IOException, IOException {
-        jobOfferService.uploadOfferImage(id, file);
-        return ResponseEntity.ok().build();
+    // Classement instantané des candidats par proximité sémantique CV / offre
+    @GetMapping("/{id}/similar-candidates")
+    @PreAuthorize("hasAuthority('ROLE_RH')")
+    public ResponseEntity<?> getSimilarCandidates(@PathVariable Long id,
+                                                  @RequestParam(defaultValue = "50") int limit) {
+        try {
+            String hrEmail = getAuthenticatedUserEmail();
+            var results = applicationService.rankCandidatesBySimilarity(id, limit, hrEmail);
+            return ResponseEntity.ok(createSuccessResponse(results, "Candidats classés par similarité avec l'offre."));
+        } catch (EntityNotFoundException e) {
+            return createErrorResponse(HttpStatus.NOT_FOUND, e.getMessage(), null);
+        } catch (AccessDeniedException e) {
+            return createErrorResponse(HttpStatus.FORBIDDEN, e.getMessage(), null);
+        } catch (Exception e) {
+            return createErrorResponse(HttpStatus.INTERNAL_SERVER_ERROR, "Erreur", e.getMessage());
+        }
     }
 
-    @GetMapping(value = "/{id}/image", produces = {MediaType.IMAGE_JPEG_VALUE, MediaType.IMAGE_PNG_VALUE})
-    public ResponseEntity<byte[]> getOfferImage(@PathVariable Long id) {
-        byte[] imageData = jobOfferService.getOfferImage(id);
-        String contentType = jobOfferService.getOfferImageContentType(id);
+    // Réglages de la cascade de notation IA (modèle rapide, puis modèle principal pour les cas serrés)
+    @GetMapping("/{id}/scoring-cascade")
+    @PreAuthorize("hasAuthority('ROLE_RH')")
+    public ResponseEntity<?> getScoringCascade(@PathVariable Long id) {
+        try {
+            var settings = jobOfferService.getScoringCascade(id, getAuthenticatedUserEmail());
+            return ResponseEntity.ok(createSuccessResponse(settings, "Réglages de la cascade de notation."));
+        } catch (EntityNotFoundException e) {
+            return createErrorResponse(HttpStatus.NOT_FOUND, e.getMessage(), null);
+        } catch (AccessDeniedException e) {
+            return createErrorResponse(HttpStatus.FORBIDDEN, e.getMessage(), null);
+        }
+    }
+
+    @PutMapping("/{id}/scoring-cascade")
+    @PreAuthorize("hasAuthority('ROLE_RH')")
+    public ResponseEntity<?> updateScoringCascade(@PathVariable Long id, @Valid @RequestBody ScoringCascadeSettings request) {
+        try {
+            var settings = jobOfferService.updateScoringCascade(id, request, getAuthenticatedUserEmail());
+            return ResponseEntity.ok(createSuccessResponse(settings, "Réglages de la cascade de notation mis à jour."));
+        } catch (EntityNotFoundException e) {
+            return createErrorResponse(HttpStatus.NOT_FOUND, e.getMessage(), null);
+        } catch (AccessDeniedException e) {
+            return createErrorResponse(HttpStatus.FORBIDDEN, e.getMessage(), null);
+        }
+    }
 
-        if (imageData == null) {
-            return ResponseEntity.notFound().build();
+    @PutMapping(value = "/{id}/image", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<?> uploadOfferImage(@PathVariable Long id, @RequestParam("file") MultipartFile file) throws IOException, IOException {
+        try {
+            jobOfferService.uploadOfferImage(id, file);
+            return ResponseEntity.ok().build();
+        } catch (IllegalArgumentException e) {
+            return createErrorResponse(HttpStatus.BAD_REQUEST, e.getMessage(), null);
+        } catch (EntityNotFoundException e) {
+            return createErrorResponse(HttpStatus.NOT_FOUND, e.getMessage(), null);
         }
+    }
 
-        return ResponseEntity.ok()
-                .contentType(MediaType.parseMediaType(contentType))
-                .body(imageData);
+    /**
+     * Image d'une offre (version "full", ou ?size=thumbnail|card).
+     * URL stable : la réponse est revalidée à chaque fois (ETag, 304).
+     * Les listes utilisent plutôt les URLs immuables de JobOfferResponse (/api/images/...).
+     */
+    @GetMapping(value = "/{id}/image", produces = {MediaType.IMAGE_JPEG_VALUE, MediaType.IMAGE_PNG_VALUE})
+    public ResponseEntity<byte[]> getOfferImage(@PathVariable Long id, @RequestParam(defaultValue = "full") String size) {
+        return ImageVariantType.fromPathName(size)
+                .flatMap(type -> jobOfferService.getOfferImage(id, type))
+                .map(image -> ResponseEntity.ok()
+                        .contentType(MediaType.parseMediaType(image.getContentType()))
+                        .cacheControl(CacheControl.noCache())
+                        .eTag(image.getContentHash())
+                        .body(image.getData()))
+                .orElseGet(() -> ResponseEntity.notFound().build());
     }
 
     // --- Méthodes utilitaires ---
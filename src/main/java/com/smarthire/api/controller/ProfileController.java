@@ -2,12 +2,15 @@ package com.smarthire.api.controller;
 
 import com.smarthire.api.dto.ProfileUpdateDTO; // AJOUT
 import com.smarthire.api.dto.ProfileViewDTO; // AJOUT
-import com.smarthire.api.model.User;
+import com.smarthire.api.model.ProfilePicture;
+import com.smarthire.api.model.enums.ImageVariantType;
 import com.smarthire.api.service.UserService;
+import com.smarthire.api.utils.HashUtils;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
 import org.springframework.core.io.ByteArrayResource;
 import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
@@ -96,20 +99,38 @@ public class ProfileController {
     /**
      * Endpoint pour AFFICHER la photo de profil d'un utilisateur par son ID.
      * C'est un endpoint public (géré par SecurityConfig).
+     * Sert la version traitée (?size=thumbnail|card|full, "full" par défaut) avec ETag (réponse 304) ;
+     * l'original n'est envoyé que pour une photo pas encore traitée.
+     * Ni l'utilisateur ni ses rôles ne sont chargés : seules l'empreinte de la photo et ses octets sont lus.
+     * Les URLs immuables de ProfileViewDTO (/api/images/...) sont à préférer.
      */
     @GetMapping("/{userId}/picture")
-    public ResponseEntity<Resource> getProfilePicture(@PathVariable Long userId) {
+    public ResponseEntity<Resource> getProfilePicture(@PathVariable Long userId,
+                                                      @RequestParam(defaultValue = "full") String size) {
         try {
-            User user = userService.getProfilePictureForUser(userId);
-
-            if (user.getProfilePicture() == null || user.getProfilePictureType() == null) {
+            ImageVariantType type = ImageVariantType.fromPathName(size).orElse(null);
+            if (type == null) {
                 return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
             }
+            var variant = userService.getProfilePictureVariant(userId, type);
+            if (variant.isPresent()) {
+                return ResponseEntity.ok()
+                        .contentType(MediaType.parseMediaType(variant.get().getContentType()))
+                        .header(HttpHeaders.CONTENT_DISPOSITION, "inline")
+                        .cacheControl(CacheControl.noCache())
+                        .eTag(variant.get().getContentHash())
+                        .body(new ByteArrayResource(variant.get().getData()));
+            }
+
+            ProfilePicture picture = userService.getOriginalProfilePicture(userId);
 
+            // Même empreinte que User.profilePictureHash, y compris pour une photo pas encore migrée
             return ResponseEntity.ok()
-                    .contentType(MediaType.parseMediaType(user.getProfilePictureType()))
+                    .contentType(MediaType.parseMediaType(picture.getContentType()))
                     .header(HttpHeaders.CONTENT_DISPOSITION, "inline")
-                    .body(new ByteArrayResource(user.getProfilePicture()));
+                    .cacheControl(CacheControl.noCache())
+                    .eTag(HashUtils.sha256Hex(picture.getData()))
+                    .body(new ByteArrayResource(picture.getData()));
 
         } catch (EntityNotFoundException e) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
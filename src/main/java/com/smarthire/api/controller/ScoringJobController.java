@@ -0,0 +1,81 @@
+package com.smarthire.api.controller;
+
+import com.smarthire.api.dto.ScoringJobResponse;
+import com.smarthire.api.service.ScoringJobService;
+import jakarta.persistence.EntityNotFoundException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Suivi et annulation des analyses IA lancées via POST /api/offers/{id}/analyze-cvs.
+ */
+@RestController
+@RequestMapping("/api/scoring-jobs")
+@RequiredArgsConstructor
+public class ScoringJobController {
+
+    private final ScoringJobService scoringJobService;
+
+    // Avancement : traitées / en échec / restantes, estimation du temps restant
+    @GetMapping("/{jobId}")
+    @PreAuthorize("hasAuthority('ROLE_RH')")
+    public ResponseEntity<?> getJob(@PathVariable String jobId) {
+        try {
+            ScoringJobResponse job = scoringJobService.getJob(jobId, getAuthenticatedUserEmail());
+            return ResponseEntity.ok(createSuccessResponse(job, "Avancement de l'analyse récupéré."));
+        } catch (EntityNotFoundException e) {
+            return createErrorResponse(HttpStatus.NOT_FOUND, e.getMessage(), null);
+        } catch (AccessDeniedException e) {
+            return createErrorResponse(HttpStatus.FORBIDDEN, e.getMessage(), null);
+        }
+    }
+
+    @PostMapping("/{jobId}/cancel")
+    @PreAuthorize("hasAuthority('ROLE_RH')")
+    public ResponseEntity<?> cancelJob(@PathVariable String jobId) {
+        try {
+            ScoringJobResponse job = scoringJobService.cancelJob(jobId, getAuthenticatedUserEmail());
+            return ResponseEntity.ok(createSuccessResponse(job, "Analyse annulée."));
+        } catch (EntityNotFoundException e) {
+            return createErrorResponse(HttpStatus.NOT_FOUND, e.getMessage(), null);
+        } catch (AccessDeniedException e) {
+            return createErrorResponse(HttpStatus.FORBIDDEN, e.getMessage(), null);
+        }
+    }
+
+    // --- Méthodes utilitaires ---
+
+    private String getAuthenticatedUserEmail() {
+        return SecurityContextHolder.getContext().getAuthentication().getName();
+    }
+
+    private Map<String, Object> createSuccessResponse(Object data, String message) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("message", message);
+        if (data != null) {
+            response.put("data", data);
+        }
+        response.put("status", HttpStatus.OK.value());
+        return response;
+    }
+
+    private ResponseEntity<Map<String, Object>> createErrorResponse(HttpStatus status, String message, String errorDetails) {
+        Map<String, Object> errorResponse = new HashMap<>();
+        errorResponse.put("success", false);
+        errorResponse.put("message", message);
+        if (errorDetails != null && !errorDetails.isEmpty()) {
+            errorResponse.put("error", errorDetails);
+        }
+        errorResponse.put("status", status.value());
+        return new ResponseEntity<>(errorResponse, status);
+    }
+}
@@ -0,0 +1,15 @@
+package com.smarthire.api.dto;
+
+import java.util.List;
+
+// Critères de la liste paginée des candidatures d'une offre (voir ApplicationService.getApplicationsPage)
+public record ApplicationPageRequest(
+        String sort,           // "score" (défaut) ou "date"
+        String direction,      // "desc" (défaut) ou "asc"
+        List<String> statuses, // Filtre sur le statut (vide = tous)
+        Integer minScore,
+        Integer maxScore,
+        Integer limit,
+        String cursor          // Curseur retourné par la page précédente (null = première page)
+) {
+}
@@ -0,0 +1,11 @@
+package com.smarthire.api.dto;
+
+import java.util.List;
+
+// Page de candidatures : "nextCursor" est à renvoyer pour obtenir la page suivante (null s'il n'y en a plus)
+public record ApplicationPageResponse(
+        List<ApplicationResponse> items,
+        String nextCursor,
+        boolean hasMore
+) {
+}
@@ -3,6 +3,7 @@
 package com.smarthire.api.dto;
 
 import com.smarthire.api.model.Application;
+import com.smarthire.api.model.enums.ApplicationStatus;
 import java.time.Instant;
 
 public record ApplicationResponse(
@@ -20,11 +21,24 @@ public record ApplicationResponse(
 
         // Champs de la réponse précédente
         Integer cvScore,
+        Boolean cvScoreProvisional,
         String candidateMessage,
 
         // NOUVEAU CHAMP (Amélioration 3)
         String internalNotes
 ) {
+    // Projection JPQL ("SELECT new ...") : seules ces colonnes sont lues, sans charger les entités
+    public ApplicationResponse(Long id, Long jobOfferId, String jobOfferTitle,
+                               Long applicantId, String applicantFirstName, String applicantLastName,
+                               String applicantEmail, String applicantPhoneNumber, ApplicationStatus status,
+                               String cvFileName, String cvFileType, Instant appliedAt,
+                               Integer cvScore, Boolean cvScoreProvisional, String candidateMessage,
+                               String internalNotes) {
+        this(id, jobOfferId, jobOfferTitle, applicantId, applicantFirstName + " " + applicantLastName,
+                applicantEmail, applicantPhoneNumber, status.name(), cvFileName, cvFileType, appliedAt,
+                cvScore, cvScoreProvisional, candidateMessage, internalNotes);
+    }
+
     public static ApplicationResponse fromEntity(Application app) {
         if (app == null) return null;
 
@@ -56,6 +70,7 @@ public record ApplicationResponse(
 
                 // Champs de la réponse précédente
                 app.getCvScore(),
+                app.getCvScoreProvisional(),
                 app.getCandidateMessage(),
 
                 // NOUVEAU CHAMP (Amélioration 3)
@@ -0,0 +1,27 @@
+package com.smarthire.api.dto;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Bilan IA d'un candidat, généré en un seul appel : résumé du profil, justification de la note
+ * et questions d'entretien. Enregistré dans les champs aiSummary et aiInterviewQuestions de la candidature.
+ */
+public record CandidateBrief(String summary, String justification, List<String> questions) {
+
+    // Texte enregistré dans aiSummary (même contenu que l'ancien prompt de résumé : résumé puis justification)
+    public String summaryText() {
+        if (justification == null || justification.isBlank()) {
+            return summary.strip();
+        }
+        return summary.strip() + "\n\n" + justification.strip();
+    }
+
+    // Texte enregistré dans aiInterviewQuestions : liste numérotée
+    public String questionsText() {
+        return IntStream.range(0, questions.size())
+                .mapToObj(i -> (i + 1) + ". " + questions.get(i).strip())
+                .collect(Collectors.joining("\n"));
+    }
+}
@@ -0,0 +1,9 @@
+package com.smarthire.api.dto;
+
+/**
+ * Proximité sémantique entre le CV d'une candidature et l'offre (cosinus, de -1 à 1).
+ */
+public record CandidateSimilarityResponse(
+        Long applicationId,
+        double similarity
+) {}
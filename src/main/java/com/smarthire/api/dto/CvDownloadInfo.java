@@ -0,0 +1,15 @@
+package com.smarthire.api.dto;
+
+// Métadonnées nécessaires pour servir un CV (aucune donnée binaire) :
+// chargées par une seule requête de projection, sans hydrater l'entité Application.
+public record CvDownloadInfo(
+        Long applicationId,
+        Long applicantId,
+        Long recruiterId, // Créateur de l'offre
+        String storageKey,
+        String fileName,
+        String fileType,
+        Long size,
+        String checksum
+) {
+}
@@ -1,5 +1,9 @@
 package com.smarthire.api.dto;
 
+import com.smarthire.api.model.enums.ContractType;
+import com.smarthire.api.model.enums.ImageVariantType;
+import com.smarthire.api.model.enums.OfferStatus;
+
 import java.time.Instant;
 import java.time.LocalDate;
 
@@ -16,6 +20,29 @@ public record JobOfferResponse(
         String createdByFullName,
         Instant createdAt,
         Instant updatedAt,
-        boolean hasImage
+        boolean hasImage,
+        // URLs immuables des versions de l'image (null sans image), voir ImageService
+        String thumbnailUrl,
+        String cardImageUrl,
+        String fullImageUrl
 ) {
+    // Projection JPQL ("SELECT new ...") : les collections de l'offre ne sont pas chargées
+    public JobOfferResponse(Long id, String title, String description, String location, LocalDate deadline,
+                            ContractType contractType, OfferStatus status,
+                            Long createdById, String createdByFirstName, String createdByLastName,
+                            Instant createdAt, Instant updatedAt, boolean hasImage, String imageHash) {
+        this(id, title, description, location, deadline, contractType.name(), status.name(), createdById,
+                createdById != null ? createdByFirstName + " " + createdByLastName : "Inconnu",
+                createdAt, updatedAt, hasImage, imageHash);
+    }
+
+    public JobOfferResponse(Long id, String title, String description, String location, LocalDate deadline,
+                            String contractType, String status, Long createdById, String createdByFullName,
+                            Instant createdAt, Instant updatedAt, boolean hasImage, String imageHash) {
+        this(id, title, description, location, deadline, contractType, status, createdById, createdByFullName,
+                createdAt, updatedAt, hasImage,
+                ImageVariantType.THUMBNAIL.url(hasImage ? imageHash : null),
+                ImageVariantType.CARD.url(hasImage ? imageHash : null),
+                ImageVariantType.FULL.url(hasImage ? imageHash : null));
+    }
 }
\ No newline at end of file
@@ -14,4 +14,7 @@ public class ProfileViewDTO {
     private String phoneNumber;
     private String role ;
     private boolean hasProfilePicture;
+    // URLs immuables des versions de la photo (null sans photo traitée), voir ImageService
+    private String profilePictureThumbnailUrl;
+    private String profilePictureUrl;
 }
\ No newline at end of file
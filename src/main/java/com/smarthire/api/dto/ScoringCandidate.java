@@ -0,0 +1,10 @@
+package com.smarthire.api.dto;
+
+/**
+ * Candidature vue par l'analyse IA : empreinte du CV et empreinte de la dernière notation.
+ */
+public record ScoringCandidate(
+        Long applicationId,
+        String cvChecksum,
+        String scoringFingerprint
+) {}
@@ -0,0 +1,32 @@
+package com.smarthire.api.dto;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+
+/**
+ * Réglages de la cascade de notation IA d'une offre.
+ * Un CV noté par le modèle rapide est re-noté par le modèle principal si sa note est proche du seuil
+ * de décision ({@code boundaryScore} ± {@code boundaryMargin}) ou dans la tranche haute (≥ {@code topBandScore}).
+ * En écriture, un champ null reprend la valeur par défaut.
+ */
+public record ScoringCascadeSettings(
+        Boolean enabled,
+
+        @Min(value = 0, message = "Le seuil doit être compris entre 0 et 100")
+        @Max(value = 100, message = "Le seuil doit être compris entre 0 et 100")
+        Integer boundaryScore,
+
+        @Min(value = 0, message = "La marge doit être comprise entre 0 et 100")
+        @Max(value = 100, message = "La marge doit être comprise entre 0 et 100")
+        Integer boundaryMargin,
+
+        @Min(value = 0, message = "La tranche haute doit être comprise entre 0 et 100")
+        @Max(value = 100, message = "La tranche haute doit être comprise entre 0 et 100")
+        Integer topBandScore
+) {
+
+    // Le modèle principal doit-il confirmer cette note du modèle rapide ?
+    public boolean shouldEscalate(int cheapScore) {
+        return Math.abs(cheapScore - boundaryScore) <= boundaryMargin || cheapScore >= topBandScore;
+    }
+}
@@ -0,0 +1,18 @@
+package com.smarthire.api.dto;
+
+import java.time.Instant;
+
+// Avancement d'une analyse IA des CV d'une offre
+public record ScoringJobResponse(
+        String jobId,
+        Long offerId,
+        String status,
+        int total,
+        int done,
+        int failed,
+        int remaining,
+        Instant startedAt,
+        Instant finishedAt,
+        Long etaSeconds // Estimation du temps restant (null si inconnue)
+) {
+}
@@ -0,0 +1,9 @@
+package com.smarthire.api.dto;
+
+/**
+ * Résultat d'une notation IA d'un CV : note sur 100 et résumé court.
+ */
+public record ScoringResult(
+        Integer score,
+        String summary
+) {}
@@ -0,0 +1,305 @@
+package com.smarthire.api.llm;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Protections communes aux appels au LLM, dans cet ordre :
+ * 1. disjoncteur : si le service est en panne, l'appel échoue immédiatement ({@link LlmUnavailableException}),
+ * 2. cloison : nombre limité d'appels simultanés, les suivants attendent au plus {@code maxQueueWait},
+ * 3. délai maximal par tentative,
+ * 4. nouvelles tentatives pour les erreurs temporaires (429, 5xx, délai, réseau),
+ *    avec une attente exponentielle tirée au hasard pour ne pas resynchroniser les appelants,
+ *    le tout dans un budget total ({@code totalBudget}) : la dernière tentative est raccourcie, ou abandonnée,
+ *    pour que l'appel ne dépasse jamais ce budget.
+ * Plusieurs gardes d'un même modèle (ex: appels interactifs et notation en masse) peuvent partager
+ * le disjoncteur tout en ayant chacune leur cloison : une notation en masse n'occupe pas les places
+ * des résumés demandés par les recruteurs.
+ * Les erreurs définitives (ex: 400, requête invalide) sont propagées sans nouvelle tentative
+ * et ne comptent pas comme une panne du service.
+ * Métriques par modèle et cloison : llm.calls (résultat), llm.call.duration, llm.retries, llm.bulkhead.available.
+ * La jauge llm.circuit.state est enregistrée une fois par disjoncteur ({@link #registerCircuitGauge}),
+ * pas par garde : plusieurs gardes peuvent le partager.
+ */
+public class LlmCallGuard {
+
+    private static final Logger logger = LoggerFactory.getLogger(LlmCallGuard.class);
+
+    // Message des erreurs HTTP du client Gemini : "HTTP error (429): ..."
+    private static final Pattern HTTP_STATUS = Pattern.compile("HTTP error \\((\\d{3})\\)");
+
+    // En dessous, une nouvelle tentative n'a aucune chance d'aboutir dans le budget restant
+    private static final long MIN_ATTEMPT_MILLIS = 1000;
+
+    private final String name;
+    private final String pool;
+    private final LlmResilienceSettings settings;
+    private final CircuitBreaker circuitBreaker;
+    private final Semaphore bulkhead;
+    private final ExecutorService callExecutor;
+    private final MeterRegistry meterRegistry;
+
+    public LlmCallGuard(String name, LlmResilienceSettings settings, MeterRegistry meterRegistry) {
+        this(name, "default", settings, new CircuitBreaker(settings.failureThreshold(), settings.openDuration()), meterRegistry);
+        // Disjoncteur propre à cette garde
+        registerCircuitGauge(name, circuitBreaker, meterRegistry);
+    }
+
+    LlmCallGuard(String name, LlmResilienceSettings settings, CircuitBreaker circuitBreaker, MeterRegistry meterRegistry) {
+        this(name, "default", settings, circuitBreaker, meterRegistry);
+    }
+
+    /**
+     * @param pool           nom de la cloison (tag des métriques)
+     * @param circuitBreaker disjoncteur, éventuellement partagé avec les autres gardes du même modèle
+     */
+    public LlmCallGuard(String name, String pool, LlmResilienceSettings settings, CircuitBreaker circuitBreaker,
+                        MeterRegistry meterRegistry) {
+        this.name = name;
+        this.pool = pool;
+        this.settings = settings;
+        this.circuitBreaker = circuitBreaker;
+        this.bulkhead = new Semaphore(settings.maxConcurrentCalls(), true);
+        this.meterRegistry = meterRegistry;
+
+        // Les appels s'exécutent dans un thread séparé pour pouvoir les abandonner au-delà du délai
+        AtomicInteger threadCount = new AtomicInteger();
+        this.callExecutor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "llm-call-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        // --- Métriques (exposées via /actuator/metrics) ---
+        Gauge.builder("llm.bulkhead.available", bulkhead, Semaphore::availablePermits)
+                .description("Places libres pour des appels simultanés au LLM")
+                .tag("model", name)
+                .tag("pool", pool)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Expose l'état d'un disjoncteur : à appeler une seule fois par disjoncteur, là où il est créé.
+     */
+    public static void registerCircuitGauge(String model, CircuitBreaker circuitBreaker, MeterRegistry meterRegistry) {
+        Gauge.builder("llm.circuit.state", circuitBreaker, breaker -> breaker.getState().ordinal())
+                .description("État du disjoncteur : 0 fermé, 1 ouvert, 2 demi-ouvert")
+                .tag("model", model)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Exécute un appel au LLM avec toutes les protections.
+     *
+     * @throws LlmUnavailableException si l'appel est refusé ou si toutes les tentatives ont échoué temporairement.
+     */
+    public <T> T call(Supplier<T> action) {
+        long deadline = System.nanoTime() + settings.totalBudget().toNanos();
+        int attempt = 1;
+        long timeoutMillis = settings.timeout().toMillis();
+        while (true) {
+            try {
+                return attempt(action, timeoutMillis);
+            } catch (RetryableException e) {
+                if (attempt >= settings.maxAttempts()) {
+                    throw new LlmUnavailableException("Le LLM n'a pas répondu après " + attempt + " tentatives.", e.getCause());
+                }
+                long backoffMillis = backoffMillis(attempt);
+                // Temps restant pour la tentative suivante, après l'attente
+                long remainingMillis = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime()) - backoffMillis;
+                if (remainingMillis < MIN_ATTEMPT_MILLIS) {
+                    meterRegistry.counter("llm.calls", "model", name, "pool", pool, "outcome", "budget-exhausted").increment();
+                    throw new LlmUnavailableException("Le LLM n'a pas répondu dans le délai de "
+                            + settings.totalBudget().toSeconds() + " s (" + attempt + " tentatives).", e.getCause());
+                }
+                timeoutMillis = Math.min(settings.timeout().toMillis(), remainingMillis);
+                logger.warn("Appel au LLM {} en échec (tentative {}/{}), nouvel essai dans {} ms : {}",
+                        name, attempt, settings.maxAttempts(), backoffMillis, e.getCause().getMessage());
+                meterRegistry.counter("llm.retries", "model", name, "pool", pool).increment();
+                sleep(backoffMillis);
+                attempt++;
+            }
+        }
+    }
+
+    /**
+     * Réserve une place pour un appel en streaming (pas de nouvelle tentative : des tokens ont pu être transmis).
+     * Le résultat doit être signalé une seule fois via {@link StreamPermit#succeeded()} ou {@link StreamPermit#failed(Throwable)}.
+     */
+    public StreamPermit acquireStream() {
+        checkCircuit();
+        acquireBulkhead();
+        return new StreamPermit(Timer.start());
+    }
+
+    private <T> T attempt(Supplier<T> action, long timeoutMillis) {
+        checkCircuit();
+        acquireBulkhead();
+        Timer.Sample sample = Timer.start();
+        Future<T> future = null;
+        try {
+            future = callExecutor.submit(action::get);
+            T result = future.get(timeoutMillis, TimeUnit.MILLISECONDS);
+            circuitBreaker.onSuccess();
+            record(sample, "success");
+            return result;
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            circuitBreaker.onFailure();
+            record(sample, "timeout");
+            throw new RetryableException(new LlmUnavailableException(
+                    "Délai de " + timeoutMillis + " ms dépassé pour l'appel au LLM.", e));
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            circuitBreaker.onIgnored();
+            Thread.currentThread().interrupt();
+            throw new LlmUnavailableException("Appel au LLM interrompu.", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (isRetryable(cause)) {
+                circuitBreaker.onFailure();
+                record(sample, "failure");
+                throw new RetryableException(cause);
+            }
+            circuitBreaker.onIgnored();
+            record(sample, "error");
+            throw cause instanceof RuntimeException runtime ? runtime : new IllegalStateException(cause);
+        } finally {
+            bulkhead.release();
+        }
+    }
+
+    private void checkCircuit() {
+        if (!circuitBreaker.tryAcquire()) {
+            meterRegistry.counter("llm.calls", "model", name, "pool", pool, "outcome", "circuit-open").increment();
+            throw new LlmUnavailableException("Service IA momentanément indisponible, réessayez dans quelques instants.");
+        }
+    }
+
+    private void acquireBulkhead() {
+        boolean acquired;
+        try {
+            acquired = bulkhead.tryAcquire(settings.maxQueueWait().toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        if (!acquired) {
+            // La place réservée dans le disjoncteur (appel d'essai) est rendue
+            circuitBreaker.onIgnored();
+            meterRegistry.counter("llm.calls", "model", name, "pool", pool, "outcome", "bulkhead-full").increment();
+            throw new LlmUnavailableException("Trop d'appels IA en cours, réessayez dans quelques instants.");
+        }
+    }
+
+    // Attente exponentielle plafonnée, tirée entre la moitié et la totalité du plafond
+    long backoffMillis(int attempt) {
+        long base = settings.initialBackoff().toMillis() << Math.min(attempt - 1, 20);
+        long cap = Math.min(base, settings.maxBackoff().toMillis());
+        return cap / 2 + ThreadLocalRandom.current().nextLong(cap / 2 + 1);
+    }
+
+    static boolean isRetryable(Throwable error) {
+        for (Throwable current = error; current != null; current = current.getCause()) {
+            if (current instanceof IOException || current instanceof TimeoutException) {
+                return true;
+            }
+            if (current.getMessage() != null) {
+                Matcher matcher = HTTP_STATUS.matcher(current.getMessage());
+                if (matcher.find()) {
+                    int status = Integer.parseInt(matcher.group(1));
+                    return status == 408 || status == 429 || status >= 500;
+                }
+            }
+        }
+        return false;
+    }
+
+    private void record(Timer.Sample sample, String outcome) {
+        sample.stop(meterRegistry.timer("llm.call.duration", "model", name, "pool", pool, "outcome", outcome));
+        meterRegistry.counter("llm.calls", "model", name, "pool", pool, "outcome", outcome).increment();
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new LlmUnavailableException("Appel au LLM interrompu.", e);
+        }
+    }
+
+    public CircuitBreaker.State circuitState() {
+        return circuitBreaker.getState();
+    }
+
+    public void shutdown() {
+        callExecutor.shutdownNow();
+    }
+
+    /**
+     * Place réservée pour un appel en streaming.
+     */
+    public final class StreamPermit {
+
+        private final Timer.Sample sample;
+        private boolean released;
+
+        private StreamPermit(Timer.Sample sample) {
+            this.sample = sample;
+        }
+
+        public void succeeded() {
+            if (release()) {
+                circuitBreaker.onSuccess();
+                record(sample, "success");
+            }
+        }
+
+        public void failed(Throwable error) {
+            if (release()) {
+                if (isRetryable(error)) {
+                    circuitBreaker.onFailure();
+                    record(sample, "failure");
+                } else {
+                    circuitBreaker.onIgnored();
+                    record(sample, "error");
+                }
+            }
+        }
+
+        private synchronized boolean release() {
+            if (released) {
+                return false;
+            }
+            released = true;
+            bulkhead.release();
+            return true;
+        }
+    }
+
+    // Erreur temporaire : une nouvelle tentative est possible
+    private static class RetryableException extends RuntimeException {
+        RetryableException(Throwable cause) {
+            super(cause);
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.smarthire.api.llm;
+
+import java.time.Duration;
+
+/**
+ * Réglages de {@link LlmCallGuard} (voir les propriétés "app.ai.resilience.*").
+ *
+ * @param timeout            délai maximal d'une tentative
+ * @param maxAttempts        nombre de tentatives pour une erreur temporaire (429, 5xx, délai, réseau)
+ * @param totalBudget        durée maximale d'un appel, tentatives et attentes comprises (doit rester inférieure
+ *                           au délai des requêtes asynchrones et au bail des générations, voir GeminiConfig)
+ * @param initialBackoff     attente avant la 2e tentative, doublée ensuite (tirée au hasard entre la moitié et la totalité)
+ * @param maxBackoff         plafond de l'attente entre deux tentatives
+ * @param failureThreshold   échecs consécutifs qui ouvrent le circuit
+ * @param openDuration       durée pendant laquelle le circuit reste ouvert avant un appel d'essai
+ * @param maxConcurrentCalls appels simultanés au LLM (cloison / "bulkhead")
+ * @param maxQueueWait       attente maximale d'une place dans la cloison
+ */
+public record LlmResilienceSettings(Duration timeout,
+                                    int maxAttempts,
+                                    Duration totalBudget,
+                                    Duration initialBackoff,
+                                    Duration maxBackoff,
+                                    int failureThreshold,
+                                    Duration openDuration,
+                                    int maxConcurrentCalls,
+                                    Duration maxQueueWait) {
+
+    public LlmResilienceSettings {
+        if (maxAttempts < 1 || failureThreshold < 1 || maxConcurrentCalls < 1) {
+            throw new IllegalArgumentException("maxAttempts, failureThreshold et maxConcurrentCalls doivent être positifs");
+        }
+        if (totalBudget.compareTo(timeout) < 0) {
+            throw new IllegalArgumentException("totalBudget doit être au moins égal au délai d'une tentative");
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.smarthire.api.llm;
+
+/**
+ * Appel au LLM refusé ou abandonné sans résultat : circuit ouvert, trop d'appels simultanés,
+ * délai dépassé ou erreurs répétées. L'appelant peut réessayer plus tard.
+ */
+public class LlmUnavailableException extends RuntimeException {
+
+    public LlmUnavailableException(String message) {
+        super(message);
+    }
+
+    public LlmUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,47 @@
+package com.smarthire.api.llm;
+
+import com.smarthire.api.utils.RateLimiter;
+import dev.langchain4j.agent.tool.ToolSpecification;
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.model.chat.ChatLanguageModel;
+import dev.langchain4j.model.output.Response;
+
+import java.util.List;
+
+/**
+ * Décorateur d'un {@link ChatLanguageModel} : chaque appel prend une place du {@link RateLimiter}
+ * avant de partir. Placé autour du {@link ResilientChatLanguageModel}, l'attente du quota
+ * n'est pas comptée dans le délai de l'appel.
+ */
+public class RateLimitedChatLanguageModel implements ChatLanguageModel {
+
+    private final ChatLanguageModel delegate;
+    private final RateLimiter rateLimiter;
+
+    public RateLimitedChatLanguageModel(ChatLanguageModel delegate, RateLimiter rateLimiter) {
+        this.delegate = delegate;
+        this.rateLimiter = rateLimiter;
+    }
+
+    @Override
+    public Response<AiMessage> generate(List<ChatMessage> messages) {
+        acquire();
+        return delegate.generate(messages);
+    }
+
+    @Override
+    public Response<AiMessage> generate(List<ChatMessage> messages, List<ToolSpecification> toolSpecifications) {
+        acquire();
+        return delegate.generate(messages, toolSpecifications);
+    }
+
+    private void acquire() {
+        try {
+            rateLimiter.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Attente du quota d'appels au LLM interrompue.", e);
+        }
+    }
+}
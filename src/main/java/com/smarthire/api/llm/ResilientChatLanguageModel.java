@@ -0,0 +1,34 @@
+package com.smarthire.api.llm;
+
+import dev.langchain4j.agent.tool.ToolSpecification;
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.model.chat.ChatLanguageModel;
+import dev.langchain4j.model.output.Response;
+
+import java.util.List;
+
+/**
+ * Décorateur d'un {@link ChatLanguageModel} : chaque appel passe par un {@link LlmCallGuard}
+ * (délai, nouvelles tentatives, disjoncteur, cloison).
+ */
+public class ResilientChatLanguageModel implements ChatLanguageModel {
+
+    private final ChatLanguageModel delegate;
+    private final LlmCallGuard guard;
+
+    public ResilientChatLanguageModel(ChatLanguageModel delegate, LlmCallGuard guard) {
+        this.delegate = delegate;
+        this.guard = guard;
+    }
+
+    @Override
+    public Response<AiMessage> generate(List<ChatMessage> messages) {
+        return guard.call(() -> delegate.generate(messages));
+    }
+
+    @Override
+    public Response<AiMessage> generate(List<ChatMessage> messages, List<ToolSpecification> toolSpecifications) {
+        return guard.call(() -> delegate.generate(messages, toolSpecifications));
+    }
+}
@@ -0,0 +1,59 @@
+package com.smarthire.api.llm;
+
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.model.StreamingResponseHandler;
+import dev.langchain4j.model.chat.StreamingChatLanguageModel;
+import dev.langchain4j.model.output.Response;
+
+import java.util.List;
+
+/**
+ * Décorateur d'un {@link StreamingChatLanguageModel} : même disjoncteur et même cloison que
+ * les appels directs (voir {@link LlmCallGuard}), sans nouvelle tentative une fois le flux commencé.
+ */
+public class ResilientStreamingChatLanguageModel implements StreamingChatLanguageModel {
+
+    private final StreamingChatLanguageModel delegate;
+    private final LlmCallGuard guard;
+
+    public ResilientStreamingChatLanguageModel(StreamingChatLanguageModel delegate, LlmCallGuard guard) {
+        this.delegate = delegate;
+        this.guard = guard;
+    }
+
+    @Override
+    public void generate(List<ChatMessage> messages, StreamingResponseHandler<AiMessage> handler) {
+        LlmCallGuard.StreamPermit permit;
+        try {
+            permit = guard.acquireStream();
+        } catch (LlmUnavailableException e) {
+            handler.onError(e);
+            return;
+        }
+
+        try {
+            delegate.generate(messages, new StreamingResponseHandler<>() {
+                @Override
+                public void onNext(String token) {
+                    handler.onNext(token);
+                }
+
+                @Override
+                public void onComplete(Response<AiMessage> response) {
+                    permit.succeeded();
+                    handler.onComplete(response);
+                }
+
+                @Override
+                public void onError(Throwable error) {
+                    permit.failed(error);
+                    handler.onError(error);
+                }
+            });
+        } catch (RuntimeException e) {
+            permit.failed(e);
+            handler.onError(e);
+        }
+    }
+}
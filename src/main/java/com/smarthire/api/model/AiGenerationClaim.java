@@ -0,0 +1,40 @@
+package com.smarthire.api.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Réservation d'une génération IA (résumé, questions...) d'une candidature par une instance.
+ * Une seule instance à la fois appelle le LLM pour un même texte ; les autres attendent
+ * qu'il soit enregistré. La réservation expire si l'instance s'arrête en cours de génération.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "ai_generation_claims")
+public class AiGenerationClaim {
+
+    // "<applicationId>:<artefact>:<empreinte du CV>"
+    @Id
+    @Column(name = "claim_key", length = 120)
+    private String claimKey;
+
+    @Column(name = "application_id", nullable = false)
+    private Long applicationId;
+
+    @Column(nullable = false, length = 40)
+    private String artifact;
+
+    @Column(name = "owner_node", nullable = false, length = 100)
+    private String ownerNode;
+
+    @Column(name = "expires_at", nullable = false)
+    private Instant expiresAt;
+}
@@ -18,7 +18,13 @@ import java.util.Set;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "applications")
+@Table(name = "applications", indexes = {
+        // Liste paginée des candidatures d'une offre (tri par note ou par date)
+        @Index(name = "idx_applications_offer_score", columnList = "job_offer_id, cv_score, id"),
+        @Index(name = "idx_applications_offer_applied", columnList = "job_offer_id, applied_at, id"),
+        // Nettoyage des fichiers CV orphelins
+        @Index(name = "idx_applications_cv_storage_key", columnList = "cv_storage_key")
+})
 public class Application {
 
     @Id
@@ -37,9 +43,20 @@ public class Application {
     @Column(nullable = false)
     private ApplicationStatus status;
 
-    @Lob
-    @Column(nullable = false, columnDefinition = "LONGBLOB")
-    private byte[] cvData;
+    // Le fichier PDF n'est plus stocké dans la table : on ne garde que sa référence dans le CvStorage.
+    @Column(name = "cv_storage_key", nullable = true, length = 128)
+    private String cvStorageKey;
+
+    @Column(name = "cv_size", nullable = true)
+    private Long cvSize; // Taille en octets
+
+    @Column(name = "cv_checksum", nullable = true, length = 64)
+    private String cvChecksum; // SHA-256 du contenu
+
+    // Empreinte des données de la dernière notation IA (CV, contenu de l'offre, version du prompt) :
+    // tant qu'elle ne change pas, une nouvelle analyse ignore cette candidature.
+    @Column(name = "scoring_fingerprint", nullable = true, length = 64)
+    private String scoringFingerprint;
 
     @Column(nullable = false)
     private String cvFileName;
@@ -58,6 +75,10 @@ public class Application {
     @Column(nullable = true)
     private Integer cvScore; // Note sur 10, 100, etc. ou null si non noté
 
+    // Vrai si la note vient de la pré-sélection lexicale (le LLM n'a pas été appelé)
+    @Column(name = "cv_score_provisional", nullable = true)
+    private Boolean cvScoreProvisional;
+
     @Column(nullable = true, length = 255) // Message optionnel pour le candidat
     private String candidateMessage;
 
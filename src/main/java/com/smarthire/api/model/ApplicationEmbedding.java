@@ -0,0 +1,45 @@
+package com.smarthire.api.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.Instant;
+
+/**
+ * Vecteur sémantique (embedding) du CV d'une candidature, calculé localement.
+ * L'empreinte du CV permet de savoir si le vecteur est à jour après un remplacement du CV.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "application_embeddings", indexes = {
+        @Index(name = "idx_application_embeddings_offer", columnList = "offer_id")
+})
+public class ApplicationEmbedding {
+
+    @Id
+    @Column(name = "application_id")
+    private Long applicationId;
+
+    @Column(name = "offer_id", nullable = false)
+    private Long offerId;
+
+    @Column(name = "cv_checksum", nullable = false, length = 64)
+    private String cvChecksum;
+
+    @Column(nullable = false, length = 100)
+    private String modelName;
+
+    // float32 little-endian (voir VectorIndex.toBytes)
+    @Column(nullable = false, columnDefinition = "BLOB")
+    private byte[] vector;
+
+    @UpdateTimestamp
+    private Instant updatedAt;
+}
@@ -0,0 +1,38 @@
+package com.smarthire.api.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.Instant;
+
+/**
+ * Texte extrait d'un CV, calculé une seule fois par contenu.
+ * La clé est l'empreinte SHA-256 du PDF (Application.cvChecksum) :
+ * remplacer le CV change l'empreinte, donc la version du texte.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "cv_texts")
+public class CvText {
+
+    @Id
+    @Column(name = "content_hash", length = 64)
+    private String contentHash;
+
+    @Lob
+    @Column(nullable = false, columnDefinition = "LONGTEXT")
+    private String text;
+
+    @Column(nullable = false)
+    private int charCount;
+
+    @CreationTimestamp
+    private Instant extractedAt;
+}
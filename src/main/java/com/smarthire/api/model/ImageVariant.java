@@ -0,0 +1,57 @@
+package com.smarthire.api.model;
+
+import com.smarthire.api.model.enums.ImageVariantType;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.Instant;
+
+/**
+ * Version redimensionnée et ré-encodée (sans métadonnées) d'une image envoyée.
+ * Rangée sous l'empreinte SHA-256 de l'image d'origine ("source_hash") : une même image
+ * n'est traitée qu'une fois, et l'URL /api/images/{source_hash}/{variant} ne change jamais de contenu.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "image_variants", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_image_variants_source", columnNames = {"source_hash", "variant"})
+})
+public class ImageVariant {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "source_hash", nullable = false, length = 64)
+    private String sourceHash;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private ImageVariantType variant;
+
+    @Column(name = "content_hash", nullable = false, length = 64)
+    private String contentHash; // SHA-256 des octets servis (ETag)
+
+    @Column(nullable = false, length = 50)
+    private String contentType;
+
+    @Column(nullable = false)
+    private int width;
+
+    @Column(nullable = false)
+    private int height;
+
+    @Lob
+    @Column(nullable = false, columnDefinition = "LONGBLOB")
+    private byte[] data;
+
+    @CreationTimestamp
+    private Instant createdAt;
+}
@@ -71,12 +71,21 @@ public class JobOffer {
     @UpdateTimestamp
     private Instant updatedAt;
 
-
-    // Getters et Setters (si vous n'utilisez pas Lombok, sinon @Data s'en occupe)
-    @Lob
-    @Column(length = 10000000) // Pour permettre des images de grande taille
-    private byte[] image;
-
-    private String imageContentType;
+    // Cascade de notation IA : réglages propres à l'offre (null = valeur par défaut, voir ScoringCascadePolicy)
+    private Boolean scoringCascadeEnabled;
+    private Integer cascadeBoundaryScore;
+    private Integer cascadeBoundaryMargin;
+    private Integer cascadeTopBandScore;
+
+    // Image de l'offre : les octets sont dans "job_offer_images" (JobOfferImage),
+    // l'offre ne garde que ces métadonnées, lues par les listes sans toucher à l'image.
+    @Column(name = "has_image", nullable = false)
+    private boolean hasImage;
+
+    @Column(name = "image_hash", length = 64)
+    private String imageHash; // SHA-256 de l'original, clé des versions redimensionnées (voir ImageService)
+
+    private Integer imageWidth;
+    private Integer imageHeight;
 
 }
\ No newline at end of file
@@ -0,0 +1,37 @@
+package com.smarthire.api.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.Instant;
+
+/**
+ * Image d'une offre, dans sa propre table : les listes d'offres ne lisent jamais ces octets.
+ * L'offre ne garde que ses métadonnées (JobOffer.hasImage, imageHash, imageWidth, imageHeight).
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "job_offer_images")
+public class JobOfferImage {
+
+    @Id
+    @Column(name = "offer_id")
+    private Long offerId;
+
+    @Column(nullable = false, length = 100)
+    private String contentType;
+
+    @Lob
+    @Column(nullable = false, columnDefinition = "LONGBLOB")
+    private byte[] data;
+
+    @UpdateTimestamp
+    private Instant updatedAt;
+}
@@ -0,0 +1,44 @@
+package com.smarthire.api.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.Instant;
+
+/**
+ * Résultat d'une notation IA, conservé par contenu du prompt.
+ * La clé est l'empreinte SHA-256 du modèle, de la version du prompt et des données envoyées
+ * (offre + texte du CV) : un prompt identique n'est jamais renvoyé au LLM.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "llm_score_cache", indexes = {
+        @Index(name = "idx_llm_score_cache_created", columnList = "createdAt")
+})
+public class LlmScoreCache {
+
+    @Id
+    @Column(name = "cache_key", length = 64)
+    private String cacheKey;
+
+    private Integer score;
+
+    @Column(columnDefinition = "TEXT")
+    private String summary;
+
+    @Column(nullable = false, length = 100)
+    private String modelName;
+
+    @Column(nullable = false, length = 20)
+    private String promptVersion;
+
+    @CreationTimestamp
+    private Instant createdAt;
+}
@@ -0,0 +1,37 @@
+package com.smarthire.api.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.Instant;
+
+/**
+ * Photo de profil d'un utilisateur, dans sa propre table : charger un utilisateur ne lit jamais ces octets.
+ * L'utilisateur ne garde que ses métadonnées (User.hasProfilePicture, profilePictureHash).
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "profile_pictures")
+public class ProfilePicture {
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(nullable = false, length = 100)
+    private String contentType;
+
+    @Lob
+    @Column(nullable = false, columnDefinition = "LONGBLOB")
+    private byte[] data;
+
+    @UpdateTimestamp
+    private Instant updatedAt;
+}
@@ -0,0 +1,69 @@
+package com.smarthire.api.model;
+
+import com.smarthire.api.model.enums.ScoringItemStatus;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.Instant;
+
+/**
+ * Élément de travail d'une analyse IA : une candidature à noter.
+ * Les éléments d'un même lancement partagent le même "jobId".
+ * Ils sont réservés par les workers de n'importe quelle instance (SELECT ... FOR UPDATE SKIP LOCKED)
+ * avec un bail : si l'instance s'arrête, l'élément redevient disponible à l'expiration du bail.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "scoring_jobs", indexes = {
+        @Index(name = "idx_scoring_jobs_job", columnList = "job_id"),
+        @Index(name = "idx_scoring_jobs_claim", columnList = "status, available_at"),
+        @Index(name = "idx_scoring_jobs_offer", columnList = "offer_id, status")
+})
+public class ScoringJob {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "job_id", nullable = false, length = 36)
+    private String jobId;
+
+    @Column(name = "offer_id", nullable = false)
+    private Long offerId;
+
+    @Column(name = "application_id", nullable = false)
+    private Long applicationId;
+
+    @Column(nullable = false)
+    private String requestedBy; // Email du RH qui a lancé l'analyse
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private ScoringItemStatus status;
+
+    @Column(nullable = false)
+    private int attempts;
+
+    @Column(name = "available_at", nullable = false)
+    private Instant availableAt; // Pas de traitement avant cette date (délai entre deux tentatives)
+
+    @Column(length = 100)
+    private String leaseOwner; // Instance qui traite l'élément
+
+    private Instant leaseExpiresAt;
+
+    @Column(length = 500)
+    private String lastError;
+
+    @CreationTimestamp
+    private Instant createdAt;
+
+    private Instant finishedAt;
+}
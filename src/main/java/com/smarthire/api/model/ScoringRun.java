@@ -0,0 +1,64 @@
+package com.smarthire.api.model;
+
+import com.smarthire.api.model.enums.ScoringRunStatus;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.Instant;
+
+/**
+ * En-tête d'un lancement d'analyse IA (un par "jobId"), enregistré même quand aucune candidature
+ * n'est à noter : l'avancement et l'annulation restent disponibles pour tout identifiant retourné.
+ * Les éléments de travail sont dans "scoring_jobs" (ScoringJob) ; ils sont créés en arrière-plan
+ * par {@link com.smarthire.api.service.ScoringRunPreparer}, qui réserve l'en-tête avec un bail
+ * (même principe que les éléments) pendant la pré-sélection.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "scoring_runs", indexes = {
+        @Index(name = "idx_scoring_runs_offer", columnList = "offer_id, status"),
+        @Index(name = "idx_scoring_runs_status", columnList = "status, lease_expires_at")
+})
+public class ScoringRun {
+
+    @Id
+    @Column(name = "job_id", length = 36)
+    private String jobId;
+
+    @Column(name = "offer_id", nullable = false)
+    private Long offerId;
+
+    @Column(nullable = false)
+    private String requestedBy; // Email du RH qui a lancé l'analyse
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private ScoringRunStatus status;
+
+    @Column(nullable = false)
+    private boolean force; // Re-noter aussi les candidatures inchangées
+
+    @Column(nullable = false)
+    private int attempts;
+
+    @Column(length = 100)
+    private String leaseOwner; // Instance qui prépare le lancement
+
+    @Column(name = "lease_expires_at")
+    private Instant leaseExpiresAt;
+
+    @Column(length = 500)
+    private String lastError;
+
+    @CreationTimestamp
+    private Instant createdAt;
+
+    private Instant finishedAt; // Renseignée seulement pour un lancement sans élément (ou annulé / en échec)
+}
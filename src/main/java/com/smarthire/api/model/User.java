@@ -10,9 +10,6 @@ import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 
-// NOUVEL IMPORT NÉCESSAIRE POUR FetchType.LAZY
-import jakarta.persistence.FetchType;
-
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.Set;
@@ -41,27 +38,16 @@ public class User implements UserDetails {
     @Column(nullable = true)
     private String phoneNumber;
 
-    // --- SECTION PHOTO DE PROFIL (MODIFIÉE ET CORRIGÉE) ---
-
-    /**
-     * Les données binaires de l'image.
-     * @Lob - Indique que c'est un Large Object.
-     * @Basic(fetch = FetchType.LAZY) - TRÈS IMPORTANT: Pour la performance.
-     * Ne charge pas l'image de la BDD sauf si on appelle user.getProfilePicture().
-     * @Column(...) - Identique à votre configuration pour les CV.
-     * Doit être 'nullable' car un utilisateur peut ne pas avoir de photo.
-     */
-    @Lob
-    @Basic(fetch = FetchType.LAZY)
-    @Column(nullable = true, columnDefinition = "LONGBLOB")
-    private byte[] profilePicture; // Nom corrigé
-
-    /**
-     * Le type MIME de l'image (ex: "image/jpeg" ou "image/png").
-     * Nécessaire pour que le navigateur sache comment afficher l'image.
-     */
-    @Column(nullable = true)
-    private String profilePictureType; // Nom corrigé
+    // --- SECTION PHOTO DE PROFIL ---
+
+    // Les octets de la photo sont dans "profile_pictures" (ProfilePicture) :
+    // l'utilisateur ne garde que ces métadonnées, lues sans jamais toucher à l'image.
+    @Column(name = "has_profile_picture", nullable = false)
+    private boolean hasProfilePicture;
+
+    // Empreinte SHA-256 de la photo : sert de version et de clé à ses versions redimensionnées (voir ImageService)
+    @Column(name = "profile_picture_hash", nullable = true, length = 64)
+    private String profilePictureHash;
 
     // --- FIN SECTION PHOTO DE PROFIL ---
 
@@ -0,0 +1,35 @@
+package com.smarthire.api.model.enums;
+
+import java.util.Arrays;
+import java.util.Optional;
+
+// Tailles générées pour chaque image envoyée (plus grand côté, en pixels ; jamais agrandie)
+public enum ImageVariantType {
+    THUMBNAIL(160), // Listes (offres, avatars)
+    CARD(480),      // Cartes et fiches
+    FULL(1600);     // Affichage plein écran
+
+    private final int maxEdge;
+
+    ImageVariantType(int maxEdge) {
+        this.maxEdge = maxEdge;
+    }
+
+    public int maxEdge() {
+        return maxEdge;
+    }
+
+    // Nom utilisé dans les URLs (ex: /api/images/{hash}/thumbnail)
+    public String pathName() {
+        return name().toLowerCase();
+    }
+
+    // URL publique et immuable de cette version d'une image (null si pas d'image), voir ImageService
+    public String url(String sourceHash) {
+        return sourceHash == null ? null : "/api/images/" + sourceHash + "/" + pathName();
+    }
+
+    public static Optional<ImageVariantType> fromPathName(String pathName) {
+        return Arrays.stream(values()).filter(type -> type.pathName().equals(pathName)).findFirst();
+    }
+}
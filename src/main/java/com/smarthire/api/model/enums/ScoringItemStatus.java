@@ -0,0 +1,9 @@
+package com.smarthire.api.model.enums;
+
+public enum ScoringItemStatus {
+    PENDING,    // En attente d'un worker (ou d'une nouvelle tentative)
+    RUNNING,    // Réservée par un worker (bail en cours)
+    DONE,       // Notée
+    FAILED,     // Échec après le nombre maximal de tentatives
+    CANCELLED   // Job annulé avant traitement
+}
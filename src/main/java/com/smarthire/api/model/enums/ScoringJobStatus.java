@@ -0,0 +1,8 @@
+package com.smarthire.api.model.enums;
+
+public enum ScoringJobStatus {
+    RUNNING,    // Analyse en cours
+    COMPLETED,  // Toutes les candidatures ont été traitées
+    CANCELLED,  // Annulée par le RH
+    FAILED      // La sélection des candidatures à noter a échoué
+}
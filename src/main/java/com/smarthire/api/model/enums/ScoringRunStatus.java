@@ -0,0 +1,8 @@
+package com.smarthire.api.model.enums;
+
+public enum ScoringRunStatus {
+    PREPARING,  // Sélection des candidatures à noter (pré-sélection lexicale) en attente ou en cours
+    QUEUED,     // Éléments de travail créés dans "scoring_jobs"
+    CANCELLED,  // Annulé pendant la préparation
+    FAILED      // Préparation en échec après le nombre maximal de tentatives
+}
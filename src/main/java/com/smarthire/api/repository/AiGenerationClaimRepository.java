@@ -0,0 +1,49 @@
+package com.smarthire.api.repository;
+
+import com.smarthire.api.model.AiGenerationClaim;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+
+@Repository
+public interface AiGenerationClaimRepository extends JpaRepository<AiGenerationClaim, String> {
+
+    // Échoue (clé dupliquée) si une autre instance détient déjà la réservation
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO ai_generation_claims (claim_key, application_id, artifact, owner_node, expires_at) " +
+            "VALUES (:claimKey, :applicationId, :artifact, :owner, :expiresAt)", nativeQuery = true)
+    int insertClaim(@Param("claimKey") String claimKey,
+                    @Param("applicationId") Long applicationId,
+                    @Param("artifact") String artifact,
+                    @Param("owner") String owner,
+                    @Param("expiresAt") Instant expiresAt);
+
+    // Reprise d'une réservation expirée (instance arrêtée pendant la génération)
+    @Modifying
+    @Transactional
+    @Query("UPDATE AiGenerationClaim c SET c.ownerNode = :owner, c.expiresAt = :expiresAt " +
+            "WHERE c.claimKey = :claimKey AND c.expiresAt < :now")
+    int takeOverExpired(@Param("claimKey") String claimKey,
+                        @Param("owner") String owner,
+                        @Param("expiresAt") Instant expiresAt,
+                        @Param("now") Instant now);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM AiGenerationClaim c WHERE c.claimKey = :claimKey AND c.ownerNode = :owner")
+    int release(@Param("claimKey") String claimKey, @Param("owner") String owner);
+
+    @Query("SELECT COUNT(c) > 0 FROM AiGenerationClaim c WHERE c.claimKey = :claimKey AND c.expiresAt >= :now")
+    boolean isActive(@Param("claimKey") String claimKey, @Param("now") Instant now);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM AiGenerationClaim c WHERE c.expiresAt < :before")
+    int deleteExpiredBefore(@Param("before") Instant before);
+}
@@ -0,0 +1,27 @@
+package com.smarthire.api.repository;
+
+import com.smarthire.api.model.ApplicationEmbedding;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface ApplicationEmbeddingRepository extends JpaRepository<ApplicationEmbedding, Long> {
+
+    // [applicationId, vecteur] de toutes les candidatures d'une offre (construction de l'index)
+    @Query("SELECT e.applicationId, e.vector FROM ApplicationEmbedding e WHERE e.offerId = :offerId AND e.modelName = :modelName")
+    List<Object[]> findVectorsByOfferId(@Param("offerId") Long offerId, @Param("modelName") String modelName);
+
+    // Version des vecteurs d'une offre : [nombre, dernière mise à jour] (détecte un index périmé)
+    @Query("SELECT COUNT(e), MAX(e.updatedAt) FROM ApplicationEmbedding e WHERE e.offerId = :offerId")
+    List<Object[]> findVersionByOfferId(@Param("offerId") Long offerId);
+
+    // Pas de clé étrangère vers les candidatures : les vecteurs sont supprimés avec leur offre
+    @Modifying
+    @Query("DELETE FROM ApplicationEmbedding e WHERE e.offerId = :offerId")
+    int deleteByOfferId(@Param("offerId") Long offerId);
+}
@@ -1,12 +1,21 @@
 package com.smarthire.api.repository;
 
+import com.smarthire.api.dto.ApplicationResponse;
+import com.smarthire.api.dto.CvDownloadInfo;
+import com.smarthire.api.dto.ScoringCandidate;
 import com.smarthire.api.model.Application;
 import com.smarthire.api.model.enums.ApplicationStatus;
+import com.smarthire.api.storage.StoredCv;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -14,9 +23,33 @@ import java.util.Optional;
 public interface ApplicationRepository extends JpaRepository<Application, Long> {
 
     Optional<Application> findByApplicantIdAndJobOfferId(Long applicantId, Long jobOfferId);
-    List<Application> findByApplicantId(Long applicantId);
     List<Application> findByJobOfferId(Long jobOfferId);
 
+    // Clés de stockage encore référencées parmi celles données (nettoyage des fichiers CV orphelins)
+    @Query("SELECT DISTINCT a.cvStorageKey FROM Application a WHERE a.cvStorageKey IN :keys")
+    List<String> findReferencedCvStorageKeys(@Param("keys") Collection<String> keys);
+
+    // --- Listes de candidatures : projection directe vers ApplicationResponse (une requête par liste ou page) ---
+
+    String APPLICATION_RESPONSE = "SELECT new com.smarthire.api.dto.ApplicationResponse(a.id, o.id, o.title, " +
+            "u.id, u.firstName, u.lastName, u.email, u.phoneNumber, a.status, a.cvFileName, a.cvFileType, " +
+            "a.appliedAt, a.cvScore, a.cvScoreProvisional, a.candidateMessage, a.internalNotes) " +
+            "FROM Application a JOIN a.applicant u JOIN a.jobOffer o ";
+
+    @Query(APPLICATION_RESPONSE + "WHERE o.id = :offerId")
+    List<ApplicationResponse> findResponsesByJobOfferId(@Param("offerId") Long offerId);
+
+    @Query(APPLICATION_RESPONSE + "WHERE u.id = :applicantId")
+    List<ApplicationResponse> findResponsesByApplicantId(@Param("applicantId") Long applicantId);
+
+    // Candidature + offre en une requête (utilisable hors transaction, ex: threads d'analyse IA)
+    @Query("SELECT a FROM Application a JOIN FETCH a.jobOffer WHERE a.id = :applicationId")
+    Optional<Application> findWithJobOfferById(@Param("applicationId") Long applicationId);
+
+    // Candidatures + offres en une requête (utilisable hors transaction, ex: pipeline d'analyse IA)
+    @Query("SELECT a FROM Application a JOIN FETCH a.jobOffer WHERE a.id IN :applicationIds")
+    List<Application> findAllWithJobOfferByIdIn(@Param("applicationIds") Collection<Long> applicationIds);
+
     // Stats Globales (Pour RH/Admin)
     long countByStatus(ApplicationStatus status);
 
@@ -27,6 +60,146 @@ public interface ApplicationRepository extends JpaRepository<Application, Long>
     // Compter MES candidatures par statut (ex: combien sont en attente ?)
     long countByApplicantIdAndStatus(Long applicantId, ApplicationStatus status);
 
+    // Métadonnées du CV + ids nécessaires au contrôle d'accès, en une seule requête
+    @Query("SELECT new com.smarthire.api.dto.CvDownloadInfo(a.id, a.applicant.id, o.createdBy.id, " +
+            "a.cvStorageKey, a.cvFileName, a.cvFileType, a.cvSize, a.cvChecksum) " +
+            "FROM Application a JOIN a.jobOffer o WHERE a.id = :applicationId")
+    Optional<CvDownloadInfo> findCvDownloadInfo(@Param("applicationId") Long applicationId);
+
+    @Query("SELECT new com.smarthire.api.storage.StoredCv(a.cvStorageKey, a.cvSize, a.cvChecksum) " +
+            "FROM Application a WHERE a.id = :applicationId AND a.cvChecksum IS NOT NULL")
+    Optional<StoredCv> findStoredCvById(@Param("applicationId") Long applicationId);
+
+    // CV dont le texte n'a pas encore été extrait (parcours par empreinte croissante, pour le rattrapage)
+    @Query("SELECT DISTINCT new com.smarthire.api.storage.StoredCv(a.cvStorageKey, a.cvSize, a.cvChecksum) " +
+            "FROM Application a WHERE a.cvChecksum IS NOT NULL AND a.cvChecksum > :afterChecksum " +
+            "AND NOT EXISTS (SELECT t.contentHash FROM CvText t WHERE t.contentHash = a.cvChecksum) " +
+            "ORDER BY a.cvChecksum")
+    List<StoredCv> findCvsWithoutText(@Param("afterChecksum") String afterChecksum, PageRequest pageable);
+
+    // Candidatures dont le CV n'a pas encore de vecteur sémantique (parcours par id croissant)
+    @Query("SELECT a.id FROM Application a WHERE a.cvChecksum IS NOT NULL AND a.id > :afterId " +
+            "AND NOT EXISTS (SELECT e.applicationId FROM ApplicationEmbedding e WHERE e.applicationId = a.id) " +
+            "ORDER BY a.id")
+    List<Long> findIdsWithoutEmbedding(@Param("afterId") Long afterId, PageRequest pageable);
+
+    // Données nécessaires pour décider quelles candidatures doivent être (re)notées
+    @Query("SELECT new com.smarthire.api.dto.ScoringCandidate(a.id, a.cvChecksum, a.scoringFingerprint) " +
+            "FROM Application a WHERE a.jobOffer.id = :offerId")
+    List<ScoringCandidate> findScoringCandidates(@Param("offerId") Long offerId);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE Application a SET a.scoringFingerprint = :fingerprint WHERE a.id = :applicationId")
+    int updateScoringFingerprint(@Param("applicationId") Long applicationId, @Param("fingerprint") String fingerprint);
+
+    // Écritures conditionnelles des textes IA : la première génération enregistrée l'emporte
+    @Modifying
+    @Transactional
+    @Query("UPDATE Application a SET a.aiSummary = :summary " +
+            "WHERE a.id = :applicationId AND (a.aiSummary IS NULL OR a.aiSummary = '')")
+    int setAiSummaryIfAbsent(@Param("applicationId") Long applicationId, @Param("summary") String summary);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE Application a SET a.aiInterviewQuestions = :questions " +
+            "WHERE a.id = :applicationId AND (a.aiInterviewQuestions IS NULL OR a.aiInterviewQuestions = '')")
+    int setAiInterviewQuestionsIfAbsent(@Param("applicationId") Long applicationId, @Param("questions") String questions);
+
+    // Bilan IA complet : les deux textes en une seule écriture, sans remplacer un texte déjà enregistré
+    @Modifying
+    @Transactional
+    @Query("UPDATE Application a SET " +
+            "a.aiSummary = CASE WHEN a.aiSummary IS NULL OR a.aiSummary = '' THEN :summary ELSE a.aiSummary END, " +
+            "a.aiInterviewQuestions = CASE WHEN a.aiInterviewQuestions IS NULL OR a.aiInterviewQuestions = '' " +
+            "THEN :questions ELSE a.aiInterviewQuestions END " +
+            "WHERE a.id = :applicationId AND (a.aiSummary IS NULL OR a.aiSummary = '' " +
+            "OR a.aiInterviewQuestions IS NULL OR a.aiInterviewQuestions = '')")
+    int setAiBriefIfAbsent(@Param("applicationId") Long applicationId,
+                           @Param("summary") String summary,
+                           @Param("questions") String questions);
+
+    @Query("SELECT a.aiSummary FROM Application a WHERE a.id = :applicationId")
+    Optional<String> findAiSummaryById(@Param("applicationId") Long applicationId);
+
+    @Query("SELECT a.aiInterviewQuestions FROM Application a WHERE a.id = :applicationId")
+    Optional<String> findAiInterviewQuestionsById(@Param("applicationId") Long applicationId);
+
+    // --- Liste paginée par clé des candidatures d'une offre (voir ApplicationPageCursor) ---
+    // Chaque page reprend après (clé de tri, id) de la précédente, en suivant les index
+    // idx_applications_offer_score / idx_applications_offer_applied.
+
+    @Query(APPLICATION_RESPONSE +
+            "WHERE o.id = :offerId AND a.status IN :statuses " +
+            "AND a.cvScore BETWEEN :minScore AND :maxScore " +
+            "AND (a.cvScore < :afterScore OR (a.cvScore = :afterScore AND a.id < :afterId)) " +
+            "ORDER BY a.cvScore DESC, a.id DESC")
+    List<ApplicationResponse> findScoredPageDesc(@Param("offerId") Long offerId,
+                                                 @Param("statuses") Collection<ApplicationStatus> statuses,
+                                                 @Param("minScore") int minScore,
+                                                 @Param("maxScore") int maxScore,
+                                                 @Param("afterScore") int afterScore,
+                                                 @Param("afterId") long afterId,
+                                                 PageRequest pageable);
+
+    @Query(APPLICATION_RESPONSE +
+            "WHERE o.id = :offerId AND a.status IN :statuses " +
+            "AND a.cvScore BETWEEN :minScore AND :maxScore " +
+            "AND (a.cvScore > :afterScore OR (a.cvScore = :afterScore AND a.id > :afterId)) " +
+            "ORDER BY a.cvScore ASC, a.id ASC")
+    List<ApplicationResponse> findScoredPageAsc(@Param("offerId") Long offerId,
+                                                @Param("statuses") Collection<ApplicationStatus> statuses,
+                                                @Param("minScore") int minScore,
+                                                @Param("maxScore") int maxScore,
+                                                @Param("afterScore") int afterScore,
+                                                @Param("afterId") long afterId,
+                                                PageRequest pageable);
+
+    // Candidatures non notées : en fin de liste pour le tri par note, quel que soit le sens
+    @Query(APPLICATION_RESPONSE +
+            "WHERE o.id = :offerId AND a.status IN :statuses AND a.cvScore IS NULL AND a.id < :afterId " +
+            "ORDER BY a.id DESC")
+    List<ApplicationResponse> findUnscoredPageDesc(@Param("offerId") Long offerId,
+                                                   @Param("statuses") Collection<ApplicationStatus> statuses,
+                                                   @Param("afterId") long afterId,
+                                                   PageRequest pageable);
+
+    @Query(APPLICATION_RESPONSE +
+            "WHERE o.id = :offerId AND a.status IN :statuses AND a.cvScore IS NULL AND a.id > :afterId " +
+            "ORDER BY a.id ASC")
+    List<ApplicationResponse> findUnscoredPageAsc(@Param("offerId") Long offerId,
+                                                  @Param("statuses") Collection<ApplicationStatus> statuses,
+                                                  @Param("afterId") long afterId,
+                                                  PageRequest pageable);
+
+    @Query(APPLICATION_RESPONSE +
+            "WHERE o.id = :offerId AND a.status IN :statuses " +
+            "AND (:anyScore = true OR a.cvScore BETWEEN :minScore AND :maxScore) " +
+            "AND (a.appliedAt < :afterAppliedAt OR (a.appliedAt = :afterAppliedAt AND a.id < :afterId)) " +
+            "ORDER BY a.appliedAt DESC, a.id DESC")
+    List<ApplicationResponse> findByDatePageDesc(@Param("offerId") Long offerId,
+                                                 @Param("statuses") Collection<ApplicationStatus> statuses,
+                                                 @Param("anyScore") boolean anyScore,
+                                                 @Param("minScore") int minScore,
+                                                 @Param("maxScore") int maxScore,
+                                                 @Param("afterAppliedAt") Instant afterAppliedAt,
+                                                 @Param("afterId") long afterId,
+                                                 PageRequest pageable);
+
+    @Query(APPLICATION_RESPONSE +
+            "WHERE o.id = :offerId AND a.status IN :statuses " +
+            "AND (:anyScore = true OR a.cvScore BETWEEN :minScore AND :maxScore) " +
+            "AND (a.appliedAt > :afterAppliedAt OR (a.appliedAt = :afterAppliedAt AND a.id > :afterId)) " +
+            "ORDER BY a.appliedAt ASC, a.id ASC")
+    List<ApplicationResponse> findByDatePageAsc(@Param("offerId") Long offerId,
+                                                @Param("statuses") Collection<ApplicationStatus> statuses,
+                                                @Param("anyScore") boolean anyScore,
+                                                @Param("minScore") int minScore,
+                                                @Param("maxScore") int maxScore,
+                                                @Param("afterAppliedAt") Instant afterAppliedAt,
+                                                @Param("afterId") long afterId,
+                                                PageRequest pageable);
+
     @Query("SELECT a FROM Application a WHERE a.jobOffer.id = :offerId ORDER BY a.cvScore DESC NULLS LAST")
     List<Application> findTopByOfferIdOrderByCvScoreDesc(Long offerId, PageRequest pageable);
 }
\ No newline at end of file
@@ -0,0 +1,23 @@
+package com.smarthire.api.repository;
+
+import com.smarthire.api.model.ImageVariant;
+import com.smarthire.api.model.enums.ImageVariantType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface ImageVariantRepository extends JpaRepository<ImageVariant, Long> {
+
+    Optional<ImageVariant> findBySourceHashAndVariant(String sourceHash, ImageVariantType variant);
+
+    boolean existsBySourceHash(String sourceHash);
+
+    @Modifying
+    @Query("DELETE FROM ImageVariant v WHERE v.sourceHash = :sourceHash")
+    int deleteBySourceHash(@Param("sourceHash") String sourceHash);
+}
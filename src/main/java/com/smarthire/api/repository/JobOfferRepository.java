@@ -1,5 +1,6 @@
 package com.smarthire.api.repository;
 
+import com.smarthire.api.dto.JobOfferResponse;
 import com.smarthire.api.model.JobOffer;
 import com.smarthire.api.model.enums.OfferStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -8,26 +9,44 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface JobOfferRepository extends JpaRepository<JobOffer, Long> {
 
-    // Trouver toutes les offres par statut
-    List<JobOffer> findByStatus(OfferStatus status);
+    // --- Listes d'offres : projection directe vers JobOfferResponse (une requête) ---
 
-    // Trouver toutes les offres créées par un utilisateur
-    List<JobOffer> findByCreatedById(Long userId);
+    String OFFER_RESPONSE = "SELECT new com.smarthire.api.dto.JobOfferResponse(o.id, o.title, o.description, " +
+            "o.location, o.deadline, o.contractType, o.status, u.id, u.firstName, u.lastName, " +
+            "o.createdAt, o.updatedAt, o.hasImage, o.imageHash) " +
+            "FROM JobOffer o LEFT JOIN o.createdBy u ";
+
+    @Query(OFFER_RESPONSE + "WHERE o.status = :status")
+    List<JobOfferResponse> findResponsesByStatus(@Param("status") OfferStatus status);
 
     // Recherche avancée
-    @Query("SELECT o FROM JobOffer o WHERE o.status = :status AND " +
+    @Query(OFFER_RESPONSE + "WHERE o.status = :status AND " +
             "(LOWER(o.title) LIKE :processedSearchTerm OR " +
             "o.description LIKE :processedSearchTerm OR " +
             "LOWER(o.location) LIKE :processedSearchTerm)")
-    List<JobOffer> findPublishedOffersBySearchTerm(
+    List<JobOfferResponse> findPublishedResponsesBySearchTerm(
             @Param("status") OfferStatus status,
             @Param("processedSearchTerm") String processedSearchTerm
     );
 
+    @Query(OFFER_RESPONSE + "WHERE u.id = :userId")
+    List<JobOfferResponse> findResponsesByCreatedById(@Param("userId") Long userId);
+
+    // Image de l'offre (empreinte de l'original, clé des versions dans image_variants)
+    @Query("SELECT o.imageHash FROM JobOffer o WHERE o.id = :offerId AND o.hasImage = true")
+    Optional<String> findImageHashById(@Param("offerId") Long offerId);
+
+    boolean existsByImageHash(String imageHash);
+
+    // Email du propriétaire de l'offre, pour les contrôles d'accès (sans charger l'offre)
+    @Query("SELECT o.createdBy.email FROM JobOffer o WHERE o.id = :offerId")
+    Optional<String> findOwnerEmailById(@Param("offerId") Long offerId);
+
     // --- POUR LE DASHBOARD ---
     long countByStatus(OfferStatus status);
 }
\ No newline at end of file
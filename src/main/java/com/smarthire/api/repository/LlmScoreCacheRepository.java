@@ -0,0 +1,20 @@
+package com.smarthire.api.repository;
+
+import com.smarthire.api.model.LlmScoreCache;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+
+@Repository
+public interface LlmScoreCacheRepository extends JpaRepository<LlmScoreCache, String> {
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM LlmScoreCache c WHERE c.createdAt < :before")
+    int deleteCreatedBefore(@Param("before") Instant before);
+}
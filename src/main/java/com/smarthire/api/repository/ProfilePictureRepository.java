@@ -0,0 +1,9 @@
+package com.smarthire.api.repository;
+
+import com.smarthire.api.model.ProfilePicture;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ProfilePictureRepository extends JpaRepository<ProfilePicture, Long> {
+}
@@ -0,0 +1,81 @@
+package com.smarthire.api.repository;
+
+import com.smarthire.api.model.ScoringJob;
+import com.smarthire.api.model.enums.ScoringItemStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ScoringJobRepository extends JpaRepository<ScoringJob, Long> {
+
+    Optional<ScoringJob> findFirstByOfferIdAndStatusIn(Long offerId, Collection<ScoringItemStatus> statuses);
+
+    // Compteurs par statut pour un lancement : [statut, nombre]
+    @Query("SELECT s.status, COUNT(s) FROM ScoringJob s WHERE s.jobId = :jobId GROUP BY s.status")
+    List<Object[]> countByStatusForJob(@Param("jobId") String jobId);
+
+    @Query("SELECT MIN(s.createdAt), MAX(s.finishedAt) FROM ScoringJob s WHERE s.jobId = :jobId")
+    List<Object[]> findTimingsForJob(@Param("jobId") String jobId);
+
+    /**
+     * Verrouille les éléments disponibles : en attente, ou en cours avec un bail expiré (instance arrêtée).
+     * SKIP LOCKED : les lignes déjà verrouillées par une autre instance sont ignorées au lieu d'attendre.
+     * Doit être appelée dans une transaction, suivie de {@link #claim}.
+     */
+    @Query(value = "SELECT id FROM scoring_jobs " +
+            "WHERE ((status = 'PENDING' AND available_at <= :now) OR (status = 'RUNNING' AND lease_expires_at < :now)) " +
+            "AND attempts < :maxAttempts " +
+            "ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<Long> lockClaimableIds(@Param("now") Instant now,
+                                @Param("maxAttempts") int maxAttempts,
+                                @Param("limit") int limit);
+
+    @Modifying
+    @Query("UPDATE ScoringJob s SET s.status = :running, s.leaseOwner = :owner, s.leaseExpiresAt = :leaseExpiresAt, " +
+            "s.attempts = s.attempts + 1 WHERE s.id IN :ids")
+    int claim(@Param("ids") Collection<Long> ids,
+              @Param("owner") String owner,
+              @Param("leaseExpiresAt") Instant leaseExpiresAt,
+              @Param("running") ScoringItemStatus running);
+
+    // Mise à jour conditionnée au bail : ignorée si un autre worker a repris l'élément entre-temps
+    @Modifying
+    @Query("UPDATE ScoringJob s SET s.status = :status, s.lastError = :error, s.availableAt = :availableAt, " +
+            "s.finishedAt = :finishedAt, s.leaseOwner = null, s.leaseExpiresAt = null " +
+            "WHERE s.id = :id AND s.leaseOwner = :owner")
+    int release(@Param("id") Long id,
+                @Param("owner") String owner,
+                @Param("status") ScoringItemStatus status,
+                @Param("error") String error,
+                @Param("availableAt") Instant availableAt,
+                @Param("finishedAt") Instant finishedAt);
+
+    @Modifying
+    @Query("UPDATE ScoringJob s SET s.status = :cancelled, s.finishedAt = :now " +
+            "WHERE s.jobId = :jobId AND s.status = :pending")
+    int cancelPending(@Param("jobId") String jobId,
+                      @Param("now") Instant now,
+                      @Param("cancelled") ScoringItemStatus cancelled,
+                      @Param("pending") ScoringItemStatus pending);
+
+    // Éléments dont le bail a expiré alors que toutes les tentatives sont épuisées
+    @Modifying
+    @Query("UPDATE ScoringJob s SET s.status = :failed, s.finishedAt = :now, s.lastError = 'Bail expiré' " +
+            "WHERE s.status = :running AND s.leaseExpiresAt < :now AND s.attempts >= :maxAttempts")
+    int failExpired(@Param("now") Instant now,
+                    @Param("maxAttempts") int maxAttempts,
+                    @Param("running") ScoringItemStatus running,
+                    @Param("failed") ScoringItemStatus failed);
+
+    @Modifying
+    @Query("DELETE FROM ScoringJob s WHERE s.finishedAt < :before")
+    int deleteFinishedBefore(@Param("before") Instant before);
+}
@@ -0,0 +1,86 @@
+package com.smarthire.api.repository;
+
+import com.smarthire.api.model.ScoringRun;
+import com.smarthire.api.model.enums.ScoringRunStatus;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ScoringRunRepository extends JpaRepository<ScoringRun, String> {
+
+    Optional<ScoringRun> findFirstByOfferIdAndStatus(Long offerId, ScoringRunStatus status);
+
+    // Lancements à préparer : jamais réservés, ou dont le bail a expiré (instance arrêtée, nouvelle tentative)
+    @Query("SELECT r.jobId FROM ScoringRun r WHERE r.status = :preparing " +
+            "AND (r.leaseExpiresAt IS NULL OR r.leaseExpiresAt < :now) AND r.attempts < :maxAttempts ORDER BY r.createdAt")
+    List<String> findClaimable(@Param("now") Instant now,
+                               @Param("maxAttempts") int maxAttempts,
+                               @Param("preparing") ScoringRunStatus preparing,
+                               Pageable pageable);
+
+    // Réservation atomique : une seule instance obtient le bail
+    @Modifying
+    @Query("UPDATE ScoringRun r SET r.leaseOwner = :owner, r.leaseExpiresAt = :leaseExpiresAt, r.attempts = r.attempts + 1 " +
+            "WHERE r.jobId = :jobId AND r.status = :preparing " +
+            "AND (r.leaseExpiresAt IS NULL OR r.leaseExpiresAt < :now) AND r.attempts < :maxAttempts")
+    int claim(@Param("jobId") String jobId,
+              @Param("owner") String owner,
+              @Param("now") Instant now,
+              @Param("leaseExpiresAt") Instant leaseExpiresAt,
+              @Param("maxAttempts") int maxAttempts,
+              @Param("preparing") ScoringRunStatus preparing);
+
+    // Fin de la préparation, conditionnée au bail : ignorée si le lancement a été annulé ou repris entre-temps
+    @Modifying
+    @Query("UPDATE ScoringRun r SET r.status = :status, r.finishedAt = :finishedAt, r.lastError = :error, " +
+            "r.leaseOwner = null, r.leaseExpiresAt = null " +
+            "WHERE r.jobId = :jobId AND r.leaseOwner = :owner AND r.status = :preparing")
+    int finish(@Param("jobId") String jobId,
+               @Param("owner") String owner,
+               @Param("status") ScoringRunStatus status,
+               @Param("finishedAt") Instant finishedAt,
+               @Param("error") String error,
+               @Param("preparing") ScoringRunStatus preparing);
+
+    // Échec d'une tentative : le bail est prolongé jusqu'à la prochaine tentative
+    @Modifying
+    @Query("UPDATE ScoringRun r SET r.lastError = :error, r.leaseExpiresAt = :retryAt " +
+            "WHERE r.jobId = :jobId AND r.leaseOwner = :owner AND r.status = :preparing")
+    int retryLater(@Param("jobId") String jobId,
+                   @Param("owner") String owner,
+                   @Param("error") String error,
+                   @Param("retryAt") Instant retryAt,
+                   @Param("preparing") ScoringRunStatus preparing);
+
+    // Vide le contexte de persistance : l'en-tête relu ensuite doit refléter l'annulation
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE ScoringRun r SET r.status = :cancelled, r.finishedAt = :now WHERE r.jobId = :jobId AND r.status = :preparing")
+    int cancelPreparing(@Param("jobId") String jobId,
+                        @Param("now") Instant now,
+                        @Param("cancelled") ScoringRunStatus cancelled,
+                        @Param("preparing") ScoringRunStatus preparing);
+
+    // Lancements dont le bail a expiré alors que toutes les tentatives sont épuisées
+    @Modifying
+    @Query("UPDATE ScoringRun r SET r.status = :failed, r.finishedAt = :now, r.leaseOwner = null " +
+            "WHERE r.status = :preparing AND r.leaseExpiresAt < :now AND r.attempts >= :maxAttempts")
+    int failExhausted(@Param("now") Instant now,
+                      @Param("maxAttempts") int maxAttempts,
+                      @Param("preparing") ScoringRunStatus preparing,
+                      @Param("failed") ScoringRunStatus failed);
+
+    // En-têtes anciens dont les éléments ont déjà été supprimés (voir ScoringJobRepository.deleteFinishedBefore)
+    @Modifying
+    @Query("DELETE FROM ScoringRun r WHERE r.createdAt < :before AND r.status <> :preparing " +
+            "AND NOT EXISTS (SELECT 1 FROM ScoringJob s WHERE s.jobId = r.jobId)")
+    int deleteWithoutItemsBefore(@Param("before") Instant before,
+                                 @Param("preparing") ScoringRunStatus preparing);
+}
@@ -2,6 +2,8 @@ package com.smarthire.api.repository;
 
 import com.smarthire.api.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
@@ -14,4 +16,13 @@ public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByEmail(String email);
     // Spring Data JPA comprend aussi celle-ci pour vérifier si un email existe
     Boolean existsByEmail(String email);
+
+    boolean existsByProfilePictureHash(String profilePictureHash);
+
+    @Query("SELECT u.profilePictureHash FROM User u WHERE u.id = :userId")
+    Optional<String> findProfilePictureHashById(@Param("userId") Long userId);
+
+    // Seulement l'id : évite de charger l'utilisateur et ses rôles (EAGER) pour un simple contrôle d'accès
+    @Query("SELECT u.id FROM User u WHERE u.email = :email")
+    Optional<Long> findIdByEmail(@Param("email") String email);
 }
\ No newline at end of file
@@ -1,20 +1,32 @@
 package com.smarthire.api.service;
 
-import com.smarthire.api.dto.ApplicationResponse;
-import com.smarthire.api.dto.UpdateCvScoreRequest;
-import com.smarthire.api.dto.UpdateInternalNotesRequest;
+import com.smarthire.api.dto.CandidateBrief;
+import com.smarthire.api.dto.ScoringCascadeSettings;
+import com.smarthire.api.dto.ScoringResult;
 import com.smarthire.api.model.Application;
 import com.smarthire.api.model.JobOffer;
-import com.smarthire.api.utils.PdfUtils;
+import com.smarthire.api.utils.HashUtils;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.model.StreamingResponseHandler;
 import dev.langchain4j.model.chat.ChatLanguageModel;
+import dev.langchain4j.model.chat.StreamingChatLanguageModel;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.scheduling.annotation.Async;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -24,78 +36,271 @@ public class AIService {
 
     private static final Logger logger = LoggerFactory.getLogger(AIService.class);
 
-    private ApplicationService applicationService;
+    // À incrémenter à chaque modification du prompt de notation (invalide le cache des résultats)
+    static final String SCORING_PROMPT_VERSION = "v2"; // v2 : CV condensé (CvTextCondenser)
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
 
     private final ChatLanguageModel chatLanguageModel; // Injecté automatiquement par LangChain4j
+    private final StreamingChatLanguageModel streamingChatLanguageModel;
+    private final CvTextCondenser cvTextCondenser;
+    private final ScoringResultCache scoringResultCache;
+    private final ScoringCascadePolicy scoringCascadePolicy;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${langchain4j.google-ai-gemini.chat-model.model-name:gemini-2.5-flash}")
+    private String modelName;
 
+    // Modèle principal, pour la notation en masse : cloison distincte de celle des appels interactifs (voir GeminiConfig)
     @Autowired
-    public void setApplicationService(ApplicationService applicationService) {
-        this.applicationService = applicationService;
-    }
+    @Qualifier("scoringChatModel")
+    private ChatLanguageModel scoringChatModel;
+
+    // Premier niveau de la cascade de notation (voir score)
+    @Autowired
+    @Qualifier("cheapScoringModel")
+    private ChatLanguageModel cheapScoringModel;
+
+    @Value("${app.ai.scoring.cascade.cheap-model-name:gemini-2.5-flash-lite}")
+    private String cheapModelName;
+
+    // Budget (en tokens estimés) d'un prompt regroupant plusieurs CV
+    @Value("${app.ai.scoring.batch.token-budget:30000}")
+    private int batchTokenBudget;
 
     /**
-     * Analyse toutes les candidatures pour une offre donnée de manière asynchrone.
+     * Candidature prête à être notée : texte du CV condensé et prompt construits (étape de préparation
+     * du pipeline d'analyse, voir ScoringPipeline).
+     *
+     * Le cache n'est consulté qu'une fois, ici : la notation ({@link #scorePrepared}) ne le relit pas.
+     *
+     * @param cachedResult      résultat final déjà connu (cache), aucun appel au LLM n'est nécessaire ; null sinon
+     * @param cheapToConfirm    en cascade, note du modèle rapide déjà connue (cache ou lot) mais à confirmer
+     *                          par le modèle principal ; null sinon
+     * @param emptyCv           CV vide ou illisible : seule l'empreinte est enregistrée, inutile de réessayer
+     *                          tant que le CV ne change pas
      */
-    @Async
-    public void analyzeAllApplications(Long offerId, String userEmail) {
-        logger.info("Démarrage de l'analyse IA pour l'offre {}", offerId);
-
-        // 1. Récupérer les candidatures
-        List<ApplicationResponse> applications = applicationService.getApplicationsForOffer(offerId, userEmail);
-
-        // 2. Traiter chaque candidature
-        for (ApplicationResponse appResp : applications) {
-            try {
-                // On récupère l'entité complète pour avoir le fichier PDF (byte[])
-                Application app = applicationService.getApplicationCv(appResp.id(), userEmail);
-                scoreApplication(app, userEmail);
-            } catch (Exception e) {
-                logger.error("Erreur lors de l'analyse du candidat {}: {}", appResp.id(), e.getMessage());
-            }
+    public record PreparedScoring(Long applicationId, JobOffer offer, String condensedCvText, String prompt,
+                                  String fingerprint, ScoringResult cachedResult, ScoringResult cheapToConfirm,
+                                  boolean emptyCv) {
+
+        public boolean needsLlm() {
+            return cachedResult == null && !emptyCv;
+        }
+
+        public PreparedScoring withCheapToConfirm(ScoringResult cheap) {
+            return new PreparedScoring(applicationId, offer, condensedCvText, prompt, fingerprint, cachedResult, cheap, emptyCv);
         }
-        logger.info("Fin de l'analyse IA pour l'offre {}", offerId);
     }
 
     /**
-     * Analyse une candidature unique : Extrait le CV -> Appelle Gemini -> Sauvegarde le résultat.
+     * Résultat d'une notation par lot.
+     *
+     * @param results   résultats définitifs, par candidature
+     * @param toConfirm notes du modèle rapide à confirmer par le modèle principal (cascade), par candidature
      */
-    private void scoreApplication(Application application, String rhEmail) {
-        JobOffer offer = application.getJobOffer();
+    public record BatchScoring(Map<Long, ScoringResult> results, Map<Long, ScoringResult> toConfirm) {}
 
-        // 1. Extraire le texte du PDF
-        String cvText = PdfUtils.extractTextFromPdf(application.getCvData());
+    /**
+     * Prépare la notation d'une candidature (l'offre doit être chargée) à partir du texte extrait de son CV.
+     */
+    public PreparedScoring prepareScoring(Application application, String cvText) {
+        JobOffer offer = application.getJobOffer();
+        String fingerprint = scoringFingerprint(offer, application.getCvChecksum());
         if (cvText == null || cvText.isEmpty()) {
             logger.warn("CV vide ou illisible pour la candidature {}", application.getId());
-            return;
+            return new PreparedScoring(application.getId(), offer, null, null, fingerprint, null, null, true);
         }
 
-        // 2. Construire le Prompt
-        String prompt = buildScoringPrompt(offer, cvText);
+        // Prompt (CV condensé dans le budget de tokens), puis résultat déjà calculé pour ce prompt
+        String condensedCvText = cvTextCondenser.condenseForScoring(cvText).text();
+        String prompt = buildScoringPrompt(offer, condensedCvText);
+        PreparedScoring prepared = new PreparedScoring(application.getId(), offer, condensedCvText, prompt,
+                fingerprint, null, null, false);
+        return withCachedResults(prepared);
+    }
 
-        // 3. Appeler Gemini
-        String aiResponse = chatLanguageModel.generate(prompt);
+    /**
+     * Résultats en cache : celui du modèle principal, ou en cascade celui du modèle rapide
+     * (final s'il n'est pas à confirmer, sinon conservé pour ne pas rappeler le modèle rapide).
+     */
+    private PreparedScoring withCachedResults(PreparedScoring prepared) {
+        String prompt = prepared.prompt();
+        var strong = scoringResultCache.get(ScoringResultCache.key(modelName, SCORING_PROMPT_VERSION, prompt));
+        if (strong.isPresent()) {
+            return new PreparedScoring(prepared.applicationId(), prepared.offer(), prepared.condensedCvText(), prompt,
+                    prepared.fingerprint(), strong.get(), null, false);
+        }
+        ScoringCascadeSettings cascade = scoringCascadePolicy.resolve(prepared.offer());
+        if (!cascade.enabled()) {
+            return prepared;
+        }
+        var cheap = scoringResultCache.get(ScoringResultCache.key(cheapModelName, SCORING_PROMPT_VERSION, prompt));
+        if (cheap.isEmpty()) {
+            return prepared;
+        }
+        if (needsEscalation(cascade, cheap.get())) {
+            return prepared.withCheapToConfirm(cheap.get());
+        }
+        recordCascadeDecision(cascade, false);
+        return new PreparedScoring(prepared.applicationId(), prepared.offer(), prepared.condensedCvText(), prompt,
+                prepared.fingerprint(), cheap.get(), null, false);
+    }
+
+    /**
+     * Note une candidature préparée, en cascade si elle est activée pour l'offre : le modèle rapide note
+     * d'abord ; seules les notes proches du seuil de décision ou dans la tranche haute (ou illisibles)
+     * sont confirmées par le modèle principal.
+     * Le cache a été consulté à la préparation : seuls les appels au LLM restants sont faits ici.
+     * Métriques : ai.scoring.cascade (décision), ai.scoring.llm.duration (par niveau).
+     */
+    public ScoringResult scorePrepared(PreparedScoring prepared) {
+        if (prepared.cachedResult() != null) {
+            return prepared.cachedResult();
+        }
+        ScoringCascadeSettings cascade = scoringCascadePolicy.resolve(prepared.offer());
+        if (!cascade.enabled()) {
+            return callScoringModel(scoringChatModel, modelName, "strong", prepared.prompt());
+        }
+
+        ScoringResult cheap = prepared.cheapToConfirm() != null
+                ? prepared.cheapToConfirm()
+                : callScoringModel(cheapScoringModel, cheapModelName, "cheap", prepared.prompt());
+        boolean escalate = needsEscalation(cascade, cheap);
+        recordCascadeDecision(cascade, escalate);
+        if (!escalate) {
+            return cheap;
+        }
+        return callScoringModel(scoringChatModel, modelName, "strong", prepared.prompt());
+    }
+
+    /**
+     * Découpe les candidatures d'une même offre en lots envoyés en un seul appel au LLM :
+     * au plus {@code maxSize} CV, tant que le budget de tokens du prompt le permet.
+     */
+    public List<List<PreparedScoring>> planBatches(JobOffer offer, List<PreparedScoring> toScore, int maxSize) {
+        int offerTokens = estimateTokens(offer.getTitle()) + estimateTokens(offer.getDescription()) + 500;
+        List<List<PreparedScoring>> batches = new ArrayList<>();
+        List<PreparedScoring> current = new ArrayList<>();
+        int usedTokens = offerTokens;
+        for (PreparedScoring entry : toScore) {
+            int tokens = estimateTokens(entry.condensedCvText());
+            if (!current.isEmpty() && (current.size() >= maxSize || usedTokens + tokens > batchTokenBudget)) {
+                batches.add(current);
+                current = new ArrayList<>();
+                usedTokens = offerTokens;
+            }
+            current.add(entry);
+            usedTokens += tokens;
+        }
+        if (!current.isEmpty()) {
+            batches.add(current);
+        }
+        return batches;
+    }
+
+    /**
+     * Note plusieurs candidatures d'une même offre en un seul appel au LLM :
+     * le contexte de l'offre n'est envoyé qu'une fois, suivi des CV condensés.
+     * La réponse attendue est un tableau JSON {applicationId, score, resume}.
+     * En mode cascade, le lot est noté par le modèle rapide.
+     *
+     * @return les résultats définitifs ; les candidatures absentes (réponse incomplète, note à confirmer
+     * par le modèle principal, fournie dans {@code toConfirm}) doivent être notées une par une.
+     * @throws Exception si l'appel échoue ou si la réponse est illisible.
+     */
+    public BatchScoring scorePreparedBatch(JobOffer offer, List<PreparedScoring> batch) throws Exception {
+        ScoringCascadeSettings cascade = scoringCascadePolicy.resolve(offer);
+        String tierModelName = cascade.enabled() ? cheapModelName : modelName;
+        ChatLanguageModel tierModel = cascade.enabled() ? cheapScoringModel : scoringChatModel;
+
+        Map<Long, ScoringResult> results;
+        try {
+            Timer.Sample sample = Timer.start();
+            String aiResponse = tierModel.generate(buildBatchScoringPrompt(offer, batch));
+            sample.stop(meterRegistry.timer("ai.scoring.llm.duration", "mode", "batch", "tier", tierName(cascade)));
+            logger.debug("Réponse IA brute (lot) : {}", aiResponse);
+            results = parseBatchResults(aiResponse);
+        } catch (Exception e) {
+            meterRegistry.counter("ai.scoring.batch.fallback").increment();
+            throw e;
+        }
+        meterRegistry.summary("ai.scoring.batch.size").record(batch.size());
+
+        Map<Long, ScoringResult> finalResults = new HashMap<>();
+        Map<Long, ScoringResult> toConfirm = new HashMap<>();
+        for (PreparedScoring entry : batch) {
+            ScoringResult result = results.get(entry.applicationId());
+            if (result == null || result.score() == null) {
+                continue; // Absent de la réponse : notation unitaire
+            }
+            // Même clé de cache que la notation unitaire : le résultat est réutilisable dans les deux modes
+            scoringResultCache.put(ScoringResultCache.key(tierModelName, SCORING_PROMPT_VERSION, entry.prompt()),
+                    tierModelName, SCORING_PROMPT_VERSION, result);
+            if (needsEscalation(cascade, result)) {
+                // Note du modèle rapide à confirmer : notation unitaire par le modèle principal
+                toConfirm.put(entry.applicationId(), result);
+                continue;
+            }
+            recordCascadeDecision(cascade, false);
+            finalResults.put(entry.applicationId(), result);
+        }
+        return new BatchScoring(finalResults, toConfirm);
+    }
+
+    /**
+     * Empreinte de tout ce qui influence la note : modèle, version du prompt, contenu de l'offre et CV.
+     * Si elle est identique à celle de la dernière notation, la candidature n'a pas besoin d'être re-notée.
+     */
+    public String scoringFingerprint(JobOffer offer, String cvChecksum) {
+        return HashUtils.sha256Hex(String.join("\n", modelName, SCORING_PROMPT_VERSION,
+                HashUtils.sha256Hex(offer.getTitle() + "\n" + offer.getDescription()),
+                String.valueOf(cvChecksum)));
+    }
+
+    /**
+     * Note un prompt avec un modèle (appel au LLM) et met le résultat en cache.
+     * Seules les réponses dont la note a pu être lue sont mises en cache.
+     */
+    private ScoringResult callScoringModel(ChatLanguageModel model, String name, String tier, String prompt) {
+        String cacheKey = ScoringResultCache.key(name, SCORING_PROMPT_VERSION, prompt);
+        Timer.Sample sample = Timer.start();
+        String aiResponse = model.generate(prompt);
+        sample.stop(meterRegistry.timer("ai.scoring.llm.duration", "mode", "single", "tier", tier));
         logger.debug("Réponse IA brute : {}", aiResponse);
 
-        // 4. Parser la réponse (JSON)
-        Integer score = parseScore(aiResponse);
-        String summary = parseSummary(aiResponse);
+        // Parser la réponse (JSON)
+        ScoringResult result = new ScoringResult(parseScore(aiResponse), parseSummary(aiResponse));
+        if (result.score() != null) {
+            scoringResultCache.put(cacheKey, name, SCORING_PROMPT_VERSION, result);
+        }
+        return result;
+    }
 
-        // 5. Sauvegarder les résultats via les services existants
-        if (score != null) {
-            applicationService.updateCvScore(application.getId(), new UpdateCvScoreRequest(score), rhEmail);
+    // Décision de la cascade pour une note du modèle rapide (toujours false hors cascade)
+    private static boolean needsEscalation(ScoringCascadeSettings cascade, ScoringResult cheap) {
+        if (cascade == null || !cascade.enabled()) {
+            return false;
         }
-        if (summary != null && !summary.isEmpty()) {
-            applicationService.updateInternalNotes(application.getId(), new UpdateInternalNotesRequest(summary), rhEmail);
+        return cheap.score() == null || cascade.shouldEscalate(cheap.score());
+    }
+
+    // Comptée une fois par candidature notée (les escalades du lot sont comptées lors de la notation unitaire)
+    private void recordCascadeDecision(ScoringCascadeSettings cascade, boolean escalated) {
+        if (cascade != null && cascade.enabled()) {
+            meterRegistry.counter("ai.scoring.cascade", "decision", escalated ? "escalated" : "kept").increment();
         }
     }
 
+    private static String tierName(ScoringCascadeSettings cascade) {
+        return cascade != null && cascade.enabled() ? "cheap" : "strong";
+    }
+
     /**
      * Construit le prompt envoyé à l'IA avec les instructions anti-biais.
+     * Le texte du CV est déjà condensé (voir CvTextCondenser).
      */
-    private String buildScoringPrompt(JobOffer offer, String cvText) {
-        // Limite la taille du texte pour éviter de dépasser les tokens (sécurité basique)
-        String safeCvText = cvText.length() > 20000 ? cvText.substring(0, 20000) : cvText;
-
+    private String buildScoringPrompt(JobOffer offer, String condensedCvText) {
         return String.format("""
             Tu es un expert en recrutement impartial.
             
@@ -123,20 +328,129 @@ public class AIService {
             """,
                 offer.getTitle(),
                 offer.getDescription(),
-                safeCvText
+                condensedCvText
+        );
+    }
+
+
+    /**
+     * Prompt de notation par lot : mêmes règles que la notation unitaire, offre envoyée une seule fois.
+     */
+    private String buildBatchScoringPrompt(JobOffer offer, List<PreparedScoring> batch) {
+        StringBuilder cvs = new StringBuilder();
+        for (PreparedScoring entry : batch) {
+            cvs.append("--- CV applicationId=").append(entry.applicationId()).append(" ---\n")
+                    .append(entry.condensedCvText()).append("\n\n");
+        }
+
+        return String.format("""
+            Tu es un expert en recrutement impartial.
+            
+            MISSION :
+            Analyse la pertinence de CHACUN des %d CV ci-dessous par rapport à l'offre d'emploi.
+            Chaque CV est évalué indépendamment des autres.
+            
+            RÈGLES STRICTES (ANTI-DISCRIMINATION) :
+            1. IGNORE totalement : nom, prénom, genre, origine, âge, photo, adresse, situation familiale.
+            2. BASE-TOI UNIQUEMENT sur : compétences techniques, expérience, soft skills en lien avec le poste.
+            3. Sois factuel.
+            
+            --- OFFRE ---
+            Titre : %s
+            Description : %s
+            
+            %s
+            --- FORMAT DE RÉPONSE ATTENDU (JSON) ---
+            Réponds UNIQUEMENT avec un tableau JSON contenant un objet par CV, rien d'autre :
+            [
+              {"applicationId": <id du CV>, "score": <nombre entier entre 0 et 100>, "resume": "<analyse objective en 2 phrases maximum>"}
+            ]
+            """,
+                batch.size(),
+                offer.getTitle(),
+                offer.getDescription(),
+                cvs
         );
     }
 
+    /**
+     * Génère en un seul appel le bilan complet d'un candidat (résumé, justification, questions d'entretien) :
+     * l'offre et le CV ne sont envoyés qu'une fois au lieu d'une fois par texte.
+     *
+     * @return vide si la réponse n'est pas un objet JSON exploitable (l'appelant revient aux prompts séparés).
+     */
+    public Optional<CandidateBrief> generateCandidateBrief(JobOffer offer, String cvText) {
+        String aiResponse = chatLanguageModel.generate(buildCandidateBriefPrompt(offer, cvText));
+        try {
+            return Optional.of(parseCandidateBrief(aiResponse));
+        } catch (Exception e) {
+            meterRegistry.counter("ai.generation.brief.unparsable").increment();
+            logger.warn("Bilan IA illisible, repli sur les prompts séparés : {}", e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    private String buildCandidateBriefPrompt(JobOffer offer, String cvText) {
+        String safeCvText = cvTextCondenser.condenseForGeneration(cvText).text();
+
+        return String.format("""
+            Agis comme un expert RH préparant l'entretien d'un candidat.
+            OFFRE : %s
+            DESCRIPTION OFFRE : %s
+            CANDIDAT (CV) : %s
+            
+            Tâches :
+            1. Rédige un résumé professionnel du profil du candidat (3-4 lignes).
+            2. Justifie précisément l'adéquation (points forts/faibles) par rapport à l'offre.
+            3. Propose 5 questions d'entretien techniques et comportementales PERTINENTES et CIBLÉES sur les zones d'ombre ou les points forts de ce CV spécifique.
+            
+            FORMAT DE RÉPONSE (JSON uniquement, sans texte autour) :
+            {"summary": "...", "justification": "...", "questions": ["...", "...", "...", "...", "..."]}
+            """, offer.getTitle(), offer.getDescription(), safeCvText);
+    }
+
+    private CandidateBrief parseCandidateBrief(String text) throws Exception {
+        int start = text.indexOf('{');
+        int end = text.lastIndexOf('}');
+        if (start < 0 || end <= start) {
+            throw new IllegalArgumentException("Aucun objet JSON dans la réponse.");
+        }
+        JsonNode node = objectMapper.readTree(text.substring(start, end + 1));
+
+        String summary = node.path("summary").asText("");
+        List<String> questions = new ArrayList<>();
+        for (JsonNode question : node.path("questions")) {
+            if (!question.asText("").isBlank()) {
+                questions.add(question.asText());
+            }
+        }
+        if (summary.isBlank() || questions.isEmpty()) {
+            throw new IllegalArgumentException("Résumé ou questions manquants dans la réponse.");
+        }
+        return new CandidateBrief(summary, node.path("justification").asText(""), questions);
+    }
 
     /**
      * Génère un résumé détaillé et une justification de la note.
      * CORRECTION : Prend maintenant JobOffer et String en entrée. Ne fait plus d'appels DB.
      */
     public String generateCandidateSummary(JobOffer offer, String cvText) {
-        // Précautions sur la taille du texte
-        String safeCvText = cvText != null ? cvText.substring(0, Math.min(cvText.length(), 15000)) : "";
+        // Retourne simplement la chaîne générée. La sauvegarde est gérée par ApplicationService.
+        return chatLanguageModel.generate(buildSummaryPrompt(offer, cvText));
+    }
+
+    /**
+     * Même résumé, diffusé au fil de la génération (le texte complet est transmis à onComplete).
+     */
+    public void streamCandidateSummary(JobOffer offer, String cvText, StreamingResponseHandler<AiMessage> handler) {
+        streamingChatLanguageModel.generate(buildSummaryPrompt(offer, cvText), handler);
+    }
+
+    private String buildSummaryPrompt(JobOffer offer, String cvText) {
+        // Texte condensé : sections utiles dans le budget de tokens, sans données personnelles
+        String safeCvText = cvTextCondenser.condenseForGeneration(cvText).text();
 
-        String prompt = String.format("""
+        return String.format("""
             Agis comme un expert RH.
             OFFRE : %s
             DESCRIPTION OFFRE : %s
@@ -145,9 +459,6 @@ public class AIService {
             Tâche : Rédige un résumé professionnel du profil du candidat (3-4 lignes) et justifie précisément la note (points forts/faibles) par rapport à l'offre.
             Format : Texte brut, professionnel, prêt à être lu par un recruteur.
             """, offer.getTitle(), offer.getDescription(), safeCvText);
-
-        // Retourne simplement la chaîne générée. La sauvegarde est gérée par ApplicationService.
-        return chatLanguageModel.generate(prompt);
     }
 
     /**
@@ -155,9 +466,17 @@ public class AIService {
      * CORRECTION : Prend maintenant JobOffer et String en entrée. Ne fait plus d'appels DB.
      */
     public String generateInterviewQuestions(JobOffer offer, String cvText) {
-        String safeCvText = cvText != null ? cvText.substring(0, Math.min(cvText.length(), 15000)) : "";
+        return chatLanguageModel.generate(buildInterviewQuestionsPrompt(offer, cvText));
+    }
 
-        String prompt = String.format("""
+    public void streamInterviewQuestions(JobOffer offer, String cvText, StreamingResponseHandler<AiMessage> handler) {
+        streamingChatLanguageModel.generate(buildInterviewQuestionsPrompt(offer, cvText), handler);
+    }
+
+    private String buildInterviewQuestionsPrompt(JobOffer offer, String cvText) {
+        String safeCvText = cvTextCondenser.condenseForGeneration(cvText).text();
+
+        return String.format("""
             Agis comme un expert RH préparant un entretien.
             OFFRE : %s
             CANDIDAT (CV) : %s
@@ -165,8 +484,6 @@ public class AIService {
             Tâche : Propose 5 questions d'entretien techniques et comportementales PERTINENTES et CIBLÉES sur les zones d'ombre ou les points forts de ce CV spécifique.
             Format : Liste numérotée.
             """, offer.getTitle(), safeCvText);
-
-        return chatLanguageModel.generate(prompt);
     }
 
     // --- Méthodes utilitaires pour extraire les infos du JSON (Regex simple pour éviter une lib en plus) ---
@@ -185,6 +502,31 @@ public class AIService {
         return null;
     }
 
+    // Lit le tableau JSON d'une notation par lot (éventuellement entouré de texte ou d'un bloc ```json)
+    private Map<Long, ScoringResult> parseBatchResults(String text) throws Exception {
+        int start = text.indexOf('[');
+        int end = text.lastIndexOf(']');
+        if (start < 0 || end <= start) {
+            throw new IllegalArgumentException("Aucun tableau JSON dans la réponse.");
+        }
+        JsonNode array = objectMapper.readTree(text.substring(start, end + 1));
+
+        Map<Long, ScoringResult> results = new HashMap<>();
+        for (JsonNode node : array) {
+            if (!node.hasNonNull("applicationId") || !node.path("score").canConvertToInt()) {
+                continue;
+            }
+            String summary = node.path("resume").asText("");
+            results.put(node.get("applicationId").asLong(), new ScoringResult(node.get("score").asInt(),
+                    summary.isEmpty() ? "Analyse effectuée (détails non parsés)." : summary));
+        }
+        return results;
+    }
+
+    private int estimateTokens(String text) {
+        return CvTextCondenser.estimateTokens(text);
+    }
+
     private String parseSummary(String text) {
         try {
             // Cherche "resume": "..."
@@ -0,0 +1,217 @@
+package com.smarthire.api.service;
+
+import com.smarthire.api.llm.LlmUnavailableException;
+import com.smarthire.api.repository.AiGenerationClaimRepository;
+import com.smarthire.api.utils.SingleFlight;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Une seule génération IA par texte (candidature, artefact, CV), quel que soit le nombre
+ * de recruteurs ou d'onglets qui la demandent en même temps :
+ * - dans une instance, les appels concurrents attendent le même résultat ({@link SingleFlight}),
+ * - entre instances, une réservation en base ("ai_generation_claims") désigne l'instance qui appelle le LLM ;
+ *   les autres relisent le texte enregistré jusqu'à ce qu'il apparaisse ou que la réservation expire.
+ */
+@Service
+public class AiGenerationCoordinator {
+
+    private static final Logger logger = LoggerFactory.getLogger(AiGenerationCoordinator.class);
+
+    /**
+     * Identifie un texte IA : candidature, type de texte et empreinte du CV utilisé.
+     */
+    public record Key(Long applicationId, String artifact, String cvChecksum) {
+        String claimKey() {
+            return applicationId + ":" + artifact + ":" + cvChecksum;
+        }
+    }
+
+    private final AiGenerationClaimRepository claimRepository;
+    private final SingleFlight<Key, String> flights = new SingleFlight<>();
+    private final String nodeId;
+    private final Duration leaseDuration;
+    private final Duration joinTimeout;
+    private final long pollIntervalMillis;
+
+    private final Counter leaderCounter;
+    private final Counter joinedCounter;
+    private final Counter remoteCounter;
+
+    public AiGenerationCoordinator(AiGenerationClaimRepository claimRepository,
+                                   MeterRegistry meterRegistry,
+                                   NodeIdentity nodeIdentity,
+                                   @Value("${app.ai.generation.claim.lease-seconds:120}") long leaseSeconds,
+                                   @Value("${app.ai.generation.claim.poll-interval-ms:500}") long pollIntervalMillis) {
+        this.claimRepository = claimRepository;
+        this.leaseDuration = Duration.ofSeconds(leaseSeconds);
+        // Le leader peut attendre l'expiration d'une réservation d'une autre instance, puis générer lui-même
+        this.joinTimeout = leaseDuration.multipliedBy(2);
+        this.pollIntervalMillis = pollIntervalMillis;
+        this.nodeId = nodeIdentity.id();
+
+        // --- Métriques (exposées via /actuator/metrics) ---
+        this.leaderCounter = meterRegistry.counter("ai.generation.dedup", "result", "leader");
+        this.joinedCounter = meterRegistry.counter("ai.generation.dedup", "result", "joined");
+        this.remoteCounter = meterRegistry.counter("ai.generation.dedup", "result", "remote");
+        Gauge.builder("ai.generation.in-flight", flights, SingleFlight::inFlightCount)
+                .description("Générations IA en cours sur cette instance")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Exécute {@code generate} (appel au LLM et enregistrement, retourne le texte enregistré)
+     * au plus une fois pour la clé ; les appelants concurrents reçoivent le même texte.
+     *
+     * @param storedText relit le texte enregistré (pour attendre une génération d'une autre instance).
+     */
+    public String generateOnce(Key key, Supplier<String> generate, Supplier<Optional<String>> storedText) {
+        SingleFlight<Key, String>.Flight flight = flights.begin(key);
+        if (!flight.isLeader()) {
+            joinedCounter.increment();
+            return awaitResult(join(flight));
+        }
+        try {
+            String text = runClaimed(key, generate, storedText);
+            flight.complete(text);
+            return text;
+        } catch (Throwable e) {
+            // Y compris les Error : sinon la clé reste occupée et les appelants suivants attendent en vain
+            flight.fail(e);
+            throw e;
+        }
+    }
+
+    /**
+     * Résultat d'une génération menée par un autre appelant de l'instance, borné par la durée de la réservation
+     * (le leader a pu disparaître sans publier de résultat).
+     */
+    public CompletableFuture<String> join(SingleFlight<Key, String>.Flight flight) {
+        return flight.future().copy()
+                .orTimeout(joinTimeout.toMillis(), TimeUnit.MILLISECONDS)
+                .exceptionallyCompose(error -> {
+                    Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+                    return CompletableFuture.failedFuture(cause instanceof TimeoutException
+                            ? new LlmUnavailableException("La génération IA en cours n'a pas abouti dans le délai, réessayez.")
+                            : cause);
+                });
+    }
+
+    /**
+     * Pour le streaming : rejoint la génération en cours dans l'instance, ou en devient le leader.
+     * Le leader doit publier le résultat (complete / fail) et libérer la réservation en base s'il l'a obtenue.
+     */
+    public SingleFlight<Key, String>.Flight begin(Key key) {
+        SingleFlight<Key, String>.Flight flight = flights.begin(key);
+        if (!flight.isLeader()) {
+            joinedCounter.increment();
+        }
+        return flight;
+    }
+
+    /**
+     * Même garantie que {@link #generateOnce} pour un leader déjà désigné par {@link #begin}.
+     */
+    public String runClaimed(Key key, Supplier<String> generate, Supplier<Optional<String>> storedText) {
+        while (true) {
+            if (tryClaim(key)) {
+                try {
+                    // Une autre instance a pu terminer juste avant de libérer sa réservation
+                    Optional<String> stored = storedText.get().filter(text -> !text.isEmpty());
+                    return stored.orElseGet(generate);
+                } finally {
+                    release(key);
+                }
+            }
+            remoteCounter.increment();
+            Optional<String> generatedElsewhere = awaitOtherNode(key, storedText);
+            if (generatedElsewhere.isPresent()) {
+                return generatedElsewhere.get();
+            }
+            // Réservation expirée sans résultat : on retente de la prendre
+        }
+    }
+
+    /**
+     * Réserve la génération en base. Retourne false si une autre instance la détient (bail non expiré).
+     */
+    public boolean tryClaim(Key key) {
+        Instant now = Instant.now();
+        try {
+            claimRepository.insertClaim(key.claimKey(), key.applicationId(), key.artifact(), nodeId, now.plus(leaseDuration));
+            leaderCounter.increment();
+            return true;
+        } catch (DataIntegrityViolationException e) {
+            if (claimRepository.takeOverExpired(key.claimKey(), nodeId, now.plus(leaseDuration), now) == 1) {
+                logger.warn("Réservation expirée reprise pour la génération IA {}", key.claimKey());
+                leaderCounter.increment();
+                return true;
+            }
+            return false;
+        }
+    }
+
+    public void release(Key key) {
+        try {
+            claimRepository.release(key.claimKey(), nodeId);
+        } catch (Exception e) {
+            // La réservation expirera d'elle-même
+            logger.warn("Impossible de libérer la réservation {} : {}", key.claimKey(), e.getMessage());
+        }
+    }
+
+    // Attend le texte généré par l'instance qui détient la réservation ; vide si elle a expiré sans résultat
+    private Optional<String> awaitOtherNode(Key key, Supplier<Optional<String>> storedText) {
+        while (true) {
+            try {
+                Thread.sleep(pollIntervalMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Attente de la génération IA interrompue.", e);
+            }
+            Optional<String> stored = storedText.get().filter(text -> !text.isEmpty());
+            if (stored.isPresent()) {
+                return stored;
+            }
+            if (!claimRepository.isActive(key.claimKey(), Instant.now())) {
+                return storedText.get().filter(text -> !text.isEmpty());
+            }
+        }
+    }
+
+    // Réservations abandonnées (instance arrêtée) : elles sont reprises à l'expiration, puis purgées
+    @Scheduled(fixedDelayString = "${app.ai.generation.claim.purge-interval-ms:3600000}")
+    public void purgeExpiredClaims() {
+        int deleted = claimRepository.deleteExpiredBefore(Instant.now().minus(leaseDuration));
+        if (deleted > 0) {
+            logger.info("{} réservations de génération IA expirées supprimées", deleted);
+        }
+    }
+
+    private static String awaitResult(CompletableFuture<String> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
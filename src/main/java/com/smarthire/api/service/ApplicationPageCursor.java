@@ -0,0 +1,45 @@
+package com.smarthire.api.service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Position dans la liste paginée des candidatures d'une offre : clé de tri de la dernière
+ * candidature retournée et son id (départage des égalités).
+ * La page suivante reprend juste après cette position (pagination par clé, sans OFFSET) :
+ * le coût d'une page ne dépend pas du nombre de candidatures déjà parcourues.
+ * Transmis au client sous forme opaque (Base64 URL), par ex. "score|desc|87|1234".
+ * Pour le tri par note, {@code score} null désigne les candidatures non notées (toujours en fin de liste).
+ */
+record ApplicationPageCursor(String sort, String direction, Integer score, Instant appliedAt, long id) {
+
+    private static final String SEPARATOR = "|";
+
+    String encode() {
+        String key = "score".equals(sort)
+                ? (score != null ? score.toString() : "")
+                : appliedAt.toString();
+        String raw = String.join(SEPARATOR, sort, direction, key, Long.toString(id));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static ApplicationPageCursor decode(String cursor, String expectedSort, String expectedDirection) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|", -1);
+            if (parts.length != 4 || !parts[0].equals(expectedSort) || !parts[1].equals(expectedDirection)) {
+                throw new IllegalArgumentException("Curseur invalide pour ce tri.");
+            }
+            long id = Long.parseLong(parts[3]);
+            if ("score".equals(parts[0])) {
+                return new ApplicationPageCursor(parts[0], parts[1],
+                        parts[2].isEmpty() ? null : Integer.valueOf(parts[2]), null, id);
+            }
+            return new ApplicationPageCursor(parts[0], parts[1], null, Instant.parse(parts[2]), id);
+        } catch (NumberFormatException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Curseur invalide.");
+        }
+    }
+}
@@ -4,9 +4,14 @@ import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.smarthire.api.dto.ApplicationCustomDataResponse;
+import com.smarthire.api.dto.ApplicationPageRequest;
+import com.smarthire.api.dto.ApplicationPageResponse;
 import com.smarthire.api.dto.ApplicationRequestData;
 import com.smarthire.api.dto.ApplicationResponse;
 import com.smarthire.api.dto.BulkActionRequest;
+import com.smarthire.api.dto.CandidateBrief;
+import com.smarthire.api.dto.CandidateSimilarityResponse;
+import com.smarthire.api.dto.CvDownloadInfo;
 import com.smarthire.api.dto.UpdateApplicationStatusRequest;
 import com.smarthire.api.dto.UpdateCvScoreRequest;
 import com.smarthire.api.dto.UpdateInternalNotesRequest;
@@ -22,42 +27,86 @@ import com.smarthire.api.repository.ApplicationRepository;
 import com.smarthire.api.repository.CustomFormFieldRepository;
 import com.smarthire.api.repository.JobOfferRepository;
 import com.smarthire.api.repository.UserRepository;
-import com.smarthire.api.utils.PdfUtils;
+import com.smarthire.api.storage.CvStorage;
+import com.smarthire.api.storage.StoredCv;
 // Import manquant ajouté
 import com.smarthire.api.service.N8nService;
 import com.smarthire.api.service.AIService;
 
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.model.StreamingResponseHandler;
+import dev.langchain4j.model.output.Response;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.context.annotation.Lazy;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.util.StringUtils;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.NoSuchFileException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class ApplicationService {
 
+    private static final Logger logger = LoggerFactory.getLogger(ApplicationService.class);
+
     private final ApplicationRepository applicationRepository;
     private final UserRepository userRepository;
     private final JobOfferRepository jobOfferRepository;
     private final ApplicationCustomDataRepository applicationCustomDataRepository;
     private final CustomFormFieldRepository customFormFieldRepository;
     private final ObjectMapper objectMapper;
+    private final CvStorage cvStorage;
+    private final CvTextService cvTextService;
+    private final CvTextExtractionQueue cvTextExtractionQueue;
+    private final CandidateSimilarityService candidateSimilarityService;
+    private final PlatformTransactionManager transactionManager;
+    private final AiGenerationCoordinator aiGenerationCoordinator;
+    private final MeterRegistry meterRegistry;
+    private final AIService aiService;
 
     @Autowired
-    @Lazy
-    private AIService aiService;
+    @Qualifier("aiGenerationExecutor")
+    private Executor aiGenerationExecutor;
+
+    // Taille des pages de la liste des candidatures d'une offre
+    @Value("${app.applications.page.default-size:50}")
+    private int defaultPageSize;
+
+    @Value("${app.applications.page.max-size:200}")
+    private int maxPageSize;
 
     private final long MAX_CV_SIZE = 5 * 1024 * 1024; // 5 MB
     private final N8nService n8nService;
@@ -96,17 +145,22 @@ public class ApplicationService {
 
         // --- Création de l'entité Application (Etape 1) ---
         String fileName = StringUtils.cleanPath(Objects.requireNonNull(cvFile.getOriginalFilename()));
+        StoredCv storedCv = storeCvFile(cvFile);
 
         Application application = Application.builder()
                 .applicant(candidate)
                 .jobOffer(jobOffer)
                 .status(ApplicationStatus.PENDING)
-                .cvData(cvFile.getBytes())
+                .cvStorageKey(storedCv.key())
+                .cvSize(storedCv.size())
+                .cvChecksum(storedCv.checksum())
                 .cvFileName(fileName)
                 .cvFileType(cvFile.getContentType())
                 .build();
 
         Application savedApplication = applicationRepository.save(application);
+        // Extraction du texte du CV en arrière-plan (ne ralentit pas la soumission)
+        cvTextExtractionQueue.enqueueAfterCommit(savedApplication.getId());
 
         // --- Sauvegarde des données personnalisées (Etape 2) ---
         if (customDataJson != null && !customDataJson.isEmpty()) {
@@ -151,31 +205,119 @@ public class ApplicationService {
     // 2. VOIR LES CANDIDATURES POUR UN CANDIDAT (Tableau de bord Candidat)
     @Transactional(readOnly = true)
     public List<ApplicationResponse> getApplicationsForCandidate(String candidateEmail) {
-        User candidate = userRepository.findByEmail(candidateEmail)
+        Long candidateId = userRepository.findIdByEmail(candidateEmail)
                 .orElseThrow(() -> new EntityNotFoundException("Candidat non trouvé."));
 
-        return applicationRepository.findByApplicantId(candidate.getId()).stream()
-                .map(ApplicationResponse::fromEntity)
-                .collect(Collectors.toList());
+        // Projection : candidatures, offres et candidat lus en une seule requête
+        return applicationRepository.findResponsesByApplicantId(candidateId);
     }
 
     // 3. VOIR LES CANDIDATURES POUR UNE OFFRE (Tableau de bord RH)
     @Transactional(readOnly = true)
     public List<ApplicationResponse> getApplicationsForOffer(Long offerId, String rhEmail) {
-        User rhUser = userRepository.findByEmail(rhEmail)
-                .orElseThrow(() -> new EntityNotFoundException("Recruteur non trouvé."));
+        checkOfferOwner(offerId, rhEmail);
+        // Projection : candidatures, offre et candidats lus en une seule requête
+        return applicationRepository.findResponsesByJobOfferId(offerId);
+    }
 
-        JobOffer jobOffer = jobOfferRepository.findById(offerId)
+    // Sécurité : Vérifier que le RH est bien le propriétaire de l'offre (sans charger l'offre)
+    private void checkOfferOwner(Long offerId, String rhEmail) {
+        String ownerEmail = jobOfferRepository.findOwnerEmailById(offerId)
                 .orElseThrow(() -> new EntityNotFoundException("Offre non trouvée."));
-
-        // Sécurité : Vérifier que le RH est bien le propriétaire de l'offre
-        if (!jobOffer.getCreatedBy().equals(rhUser)) {
+        if (!ownerEmail.equals(rhEmail)) {
             throw new AccessDeniedException("Vous n'êtes pas autorisé à voir les candidatures de cette offre.");
         }
+    }
 
-        return applicationRepository.findByJobOfferId(jobOffer.getId()).stream()
-                .map(ApplicationResponse::fromEntity)
-                .collect(Collectors.toList());
+    // Bornes utilisées pour la première page (aucune candidature ne les atteint)
+    private static final Instant FIRST_PAGE_LATEST = Instant.parse("9999-12-31T00:00:00Z");
+    private static final Instant FIRST_PAGE_EARLIEST = Instant.EPOCH;
+
+    /**
+     * 3 bis. Candidatures d'une offre, page par page (pagination par clé, voir ApplicationPageCursor).
+     * Tri par note ("score", non notées en fin de liste) ou par date de candidature ("date"),
+     * filtres sur le statut et la plage de notes. Chaque page lit au plus {@code limit + 1} lignes
+     * en suivant un index, directement sous forme d'ApplicationResponse :
+     * le temps de réponse ne dépend pas du nombre de candidatures de l'offre.
+     */
+    @Transactional(readOnly = true)
+    public ApplicationPageResponse getApplicationsPage(Long offerId, String rhEmail, ApplicationPageRequest request) {
+        checkOfferOwner(offerId, rhEmail);
+
+        String sort = request.sort() == null ? "score" : request.sort().toLowerCase();
+        if (!sort.equals("score") && !sort.equals("date")) {
+            throw new IllegalArgumentException("Tri inconnu : " + request.sort() + " (valeurs possibles : score, date).");
+        }
+        String direction = request.direction() == null ? "desc" : request.direction().toLowerCase();
+        if (!direction.equals("desc") && !direction.equals("asc")) {
+            throw new IllegalArgumentException("Sens de tri inconnu : " + request.direction() + " (valeurs possibles : asc, desc).");
+        }
+        boolean desc = direction.equals("desc");
+        List<ApplicationStatus> statuses = parseStatuses(request.statuses());
+        boolean anyScore = request.minScore() == null && request.maxScore() == null;
+        int minScore = request.minScore() != null ? request.minScore() : Integer.MIN_VALUE;
+        int maxScore = request.maxScore() != null ? request.maxScore() : Integer.MAX_VALUE;
+        if (minScore > maxScore) {
+            throw new IllegalArgumentException("La note minimale doit être inférieure ou égale à la note maximale.");
+        }
+        int limit = request.limit() == null ? defaultPageSize : request.limit();
+        if (limit < 1 || limit > maxPageSize) {
+            throw new IllegalArgumentException("La taille de page doit être comprise entre 1 et " + maxPageSize + ".");
+        }
+        ApplicationPageCursor cursor = request.cursor() == null || request.cursor().isBlank()
+                ? null : ApplicationPageCursor.decode(request.cursor(), sort, direction);
+
+        // Une ligne de plus que la page : indique s'il reste des candidatures
+        int fetch = limit + 1;
+        long firstId = desc ? Long.MAX_VALUE : Long.MIN_VALUE;
+        List<ApplicationResponse> rows = new ArrayList<>(fetch);
+        if (sort.equals("score")) {
+            // Candidatures notées, puis non notées (sauf filtre sur la note)
+            if (cursor == null || cursor.score() != null) {
+                int afterScore = cursor != null ? cursor.score() : (desc ? Integer.MAX_VALUE : Integer.MIN_VALUE);
+                long afterId = cursor != null ? cursor.id() : firstId;
+                rows.addAll(desc
+                        ? applicationRepository.findScoredPageDesc(offerId, statuses, minScore, maxScore, afterScore, afterId, PageRequest.of(0, fetch))
+                        : applicationRepository.findScoredPageAsc(offerId, statuses, minScore, maxScore, afterScore, afterId, PageRequest.of(0, fetch)));
+            }
+            if (rows.size() < fetch && anyScore) {
+                long afterId = cursor != null && cursor.score() == null ? cursor.id() : firstId;
+                PageRequest remaining = PageRequest.of(0, fetch - rows.size());
+                rows.addAll(desc
+                        ? applicationRepository.findUnscoredPageDesc(offerId, statuses, afterId, remaining)
+                        : applicationRepository.findUnscoredPageAsc(offerId, statuses, afterId, remaining));
+            }
+        } else {
+            Instant afterAppliedAt = cursor != null ? cursor.appliedAt() : (desc ? FIRST_PAGE_LATEST : FIRST_PAGE_EARLIEST);
+            long afterId = cursor != null ? cursor.id() : firstId;
+            rows.addAll(desc
+                    ? applicationRepository.findByDatePageDesc(offerId, statuses, anyScore, minScore, maxScore, afterAppliedAt, afterId, PageRequest.of(0, fetch))
+                    : applicationRepository.findByDatePageAsc(offerId, statuses, anyScore, minScore, maxScore, afterAppliedAt, afterId, PageRequest.of(0, fetch)));
+        }
+
+        boolean hasMore = rows.size() > limit;
+        List<ApplicationResponse> page = hasMore ? List.copyOf(rows.subList(0, limit)) : rows;
+        String nextCursor = null;
+        if (hasMore) {
+            ApplicationResponse last = page.get(page.size() - 1);
+            nextCursor = new ApplicationPageCursor(sort, direction, last.cvScore(), last.appliedAt(), last.id()).encode();
+        }
+        return new ApplicationPageResponse(page, nextCursor, hasMore);
+    }
+
+    private List<ApplicationStatus> parseStatuses(List<String> statuses) {
+        if (statuses == null || statuses.isEmpty()) {
+            return Arrays.asList(ApplicationStatus.values());
+        }
+        List<ApplicationStatus> parsed = new ArrayList<>();
+        for (String status : statuses) {
+            try {
+                parsed.add(ApplicationStatus.valueOf(status.trim().toUpperCase()));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Statut inconnu : " + status);
+            }
+        }
+        return parsed;
     }
 
     // 4. RÉCUPÉRER UN CV SPÉCIFIQUE (Pour téléchargement)
@@ -198,6 +340,42 @@ public class ApplicationService {
         return application;
     }
 
+    // 4 bis. MÉTADONNÉES D'UN CV POUR LE TÉLÉCHARGEMENT (même contrôle d'accès, sans charger l'entité ni le fichier)
+    @Transactional(readOnly = true)
+    public CvDownloadInfo getCvDownloadInfo(Long applicationId, String userEmail) {
+        Long userId = userRepository.findIdByEmail(userEmail)
+                .orElseThrow(() -> new EntityNotFoundException("Utilisateur non trouvé."));
+
+        CvDownloadInfo cv = applicationRepository.findCvDownloadInfo(applicationId)
+                .orElseThrow(() -> new EntityNotFoundException("Candidature non trouvée."));
+
+        // Sécurité : L'utilisateur doit être soit le candidat, soit le RH propriétaire de l'offre
+        boolean isApplicant = userId.equals(cv.applicantId());
+        boolean isRecruiter = userId.equals(cv.recruiterId());
+
+        if (!isApplicant && !isRecruiter) {
+            throw new AccessDeniedException("Vous n'êtes pas autorisé à accéder à ce CV.");
+        }
+        if (cv.storageKey() == null) {
+            throw new EntityNotFoundException("Aucun fichier CV pour la candidature " + applicationId);
+        }
+
+        return cv;
+    }
+
+    /**
+     * Ouvre le fichier d'un CV en flux (aucune lecture complète en mémoire).
+     */
+    public Resource openCv(CvDownloadInfo cv) {
+        try {
+            return cvStorage.load(cv.storageKey());
+        } catch (NoSuchFileException e) {
+            throw new EntityNotFoundException("Fichier CV introuvable pour la candidature " + cv.applicationId());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Impossible de lire le fichier CV.", e);
+        }
+    }
+
     // 5. METTRE À JOUR LE CV D'UNE CANDIDATURE
     @Transactional
     public ApplicationResponse updateApplicationCv(Long applicationId, MultipartFile cvFile, String candidateEmail) throws IOException {
@@ -223,15 +401,22 @@ public class ApplicationService {
         }
 
         String fileName = StringUtils.cleanPath(Objects.requireNonNull(cvFile.getOriginalFilename()));
+        // L'ancien fichier n'est pas supprimé ici : il peut être partagé avec un autre upload en cours
+        // du même contenu ; CvOrphanSweeper le supprime une fois qu'il n'est plus référencé.
+        StoredCv storedCv = storeCvFile(cvFile);
 
-        application.setCvData(cvFile.getBytes());
+        application.setCvStorageKey(storedCv.key());
+        application.setCvSize(storedCv.size());
+        application.setCvChecksum(storedCv.checksum());
         application.setCvFileName(fileName);
         application.setCvFileType(cvFile.getContentType());
 
         Application savedApplication = applicationRepository.save(application);
+        cvTextExtractionQueue.enqueueAfterCommit(savedApplication.getId());
         return ApplicationResponse.fromEntity(savedApplication);
     }
 
+
     // 6. RÉCUPÉRER LES RÉPONSES PERSONNALISÉES D'UNE CANDIDATURE
     @Transactional(readOnly = true)
     public List<ApplicationCustomDataResponse> getApplicationCustomData(Long applicationId, String userEmail) {
@@ -277,6 +462,7 @@ public class ApplicationService {
         Application application = findApplicationAndVerifyOwnership(applicationId, rhEmail);
 
         application.setCvScore(request.score());
+        application.setCvScoreProvisional(false);
 
         Application updatedApplication = applicationRepository.save(application);
         return ApplicationResponse.fromEntity(updatedApplication);
@@ -311,9 +497,14 @@ public class ApplicationService {
         // 2. Récupérer tous les candidats de l'offre
         List<Application> allApps = applicationRepository.findByJobOfferId(offerId);
 
-        // 3. Trier par score décroissant (les nulls à la fin)
+        // 3. Trier par score décroissant (les candidats non notés à la fin),
+        //    puis par proximité sémantique CV / offre (départage, et classement des non notés)
+        Map<Long, Double> similarity = allApps.stream().anyMatch(app -> app.getCvScore() == null)
+                ? similaritiesOrEmpty(offer)
+                : Map.of();
         List<Application> sortedApps = allApps.stream()
-                .sorted(Comparator.comparing(Application::getCvScore, Comparator.nullsLast(Comparator.naturalOrder())).reversed())
+                .sorted(Comparator.comparing(Application::getCvScore, Comparator.nullsLast(Comparator.<Integer>reverseOrder()))
+                        .thenComparing(app -> similarity.getOrDefault(app.getId(), -1.0), Comparator.reverseOrder()))
                 .collect(Collectors.toList());
 
         // 4. Appliquer la logique "Top N Acceptés" + Notification n8n
@@ -354,6 +545,36 @@ public class ApplicationService {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Classe les candidatures d'une offre par proximité sémantique entre leur CV et l'offre.
+     */
+    @Transactional(readOnly = true)
+    public List<CandidateSimilarityResponse> rankCandidatesBySimilarity(Long offerId, int limit, String rhEmail) {
+        User rhUser = userRepository.findByEmail(rhEmail)
+                .orElseThrow(() -> new EntityNotFoundException("Recruteur non trouvé."));
+
+        JobOffer offer = jobOfferRepository.findById(offerId)
+                .orElseThrow(() -> new EntityNotFoundException("Offre non trouvée."));
+
+        if (!offer.getCreatedBy().equals(rhUser)) {
+            throw new AccessDeniedException("Vous n'êtes pas autorisé à voir les candidatures de cette offre.");
+        }
+
+        return candidateSimilarityService.rank(offer, Math.max(1, Math.min(limit, 1000))).stream()
+                .map(match -> new CandidateSimilarityResponse(match.id(), match.score()))
+                .collect(Collectors.toList());
+    }
+
+    // Le classement sémantique n'est qu'un signal d'appoint : une erreur du modèle ne bloque pas la sélection
+    private Map<Long, Double> similaritiesOrEmpty(JobOffer offer) {
+        try {
+            return candidateSimilarityService.similarities(offer);
+        } catch (Exception e) {
+            logger.warn("Classement sémantique indisponible pour l'offre {} : {}", offer.getId(), e.getMessage());
+            return Map.of();
+        }
+    }
+
     @Transactional
     public void inviteCandidate(Long applicationId, String message, String date, String rhEmail) {
         // On vérifie que le RH a le droit
@@ -374,38 +595,282 @@ public class ApplicationService {
         );
     }
 
-    @Transactional
+    // Pas de @Transactional : aucune connexion n'est gardée pendant l'appel au LLM (voir generateAiText)
     public String generateAiSummary(Long applicationId, String userEmail) {
-        Application app = getApplicationCv(applicationId, userEmail);
+        return generateAiText(summaryText(), applicationId, userEmail);
+    }
+
+    public String generateAiInterviewQuestions(Long applicationId, String userEmail) {
+        return generateAiText(interviewQuestionsText(), applicationId, userEmail);
+    }
 
-        // Si déjà généré, on retourne directement
-        if (app.getAiSummary() != null && !app.getAiSummary().isEmpty()) {
-            return app.getAiSummary();
+    // Variantes asynchrones : la génération s'exécute dans le pool "aiGenerationExecutor"
+    public CompletableFuture<String> generateAiSummaryAsync(Long applicationId, String userEmail) {
+        return supplyAsync(() -> generateAiSummary(applicationId, userEmail));
+    }
+
+    public CompletableFuture<String> generateAiInterviewQuestionsAsync(Long applicationId, String userEmail) {
+        return supplyAsync(() -> generateAiInterviewQuestions(applicationId, userEmail));
+    }
+
+    // Variantes en streaming : les tokens sont transmis au fil de l'eau, le texte complet (enregistré) à la fin
+    public void streamAiSummary(Long applicationId, String userEmail, StreamingResponseHandler<String> handler) {
+        streamAiText(summaryText(), applicationId, userEmail, handler);
+    }
+
+    public void streamAiInterviewQuestions(Long applicationId, String userEmail, StreamingResponseHandler<String> handler) {
+        streamAiText(interviewQuestionsText(), applicationId, userEmail, handler);
+    }
+
+    /**
+     * Description d'un texte IA d'une candidature : lecture, génération (directe ou en streaming) et écriture.
+     */
+    private record AiText(String artifact,
+                          Function<Application, String> existingText,
+                          BiFunction<JobOffer, String, String> generator,
+                          StreamingGenerator streamingGenerator,
+                          BiFunction<Long, String, Integer> conditionalWrite,
+                          Function<Long, Optional<String>> reread) {}
+
+    @FunctionalInterface
+    private interface StreamingGenerator {
+        void generate(JobOffer offer, String cvText, StreamingResponseHandler<AiMessage> handler);
+    }
+
+    private AiText summaryText() {
+        return new AiText("summary", Application::getAiSummary,
+                aiService::generateCandidateSummary, aiService::streamCandidateSummary,
+                applicationRepository::setAiSummaryIfAbsent, applicationRepository::findAiSummaryById);
+    }
+
+    private AiText interviewQuestionsText() {
+        return new AiText("interview-questions", Application::getAiInterviewQuestions,
+                aiService::generateInterviewQuestions, aiService::streamInterviewQuestions,
+                applicationRepository::setAiInterviewQuestionsIfAbsent, applicationRepository::findAiInterviewQuestionsById);
+    }
+
+    // Entrées du LLM (ou texte déjà généré) lues pendant la phase 1
+    private record AiTextInput(Application application, String existing, String cvText) {}
+
+    /**
+     * Génération IA en trois temps, pour ne pas bloquer une connexion du pool pendant l'appel au LLM :
+     * 1. lecture courte (transaction en lecture seule) : contrôle d'accès et texte déjà généré,
+     * 2. appel au LLM, sans transaction ouverte : le bilan complet (résumé et questions) est généré
+     *    en un seul appel, la deuxième demande du recruteur est donc servie sans nouvel appel,
+     * 3. écriture courte et conditionnelle des deux textes : un texte n'est enregistré que s'il n'existe pas encore ;
+     *    si une requête concurrente l'a enregistré entre-temps, c'est le sien qui est retourné.
+     * Les étapes 2 et 3 ne sont exécutées qu'une fois par texte, même si plusieurs recruteurs
+     * le demandent en même temps, en direct ou en streaming : les deux chemins partagent la même clé
+     * (voir generationKey et AiGenerationCoordinator). Le bilan a en plus sa propre clé, pour qu'une
+     * demande du résumé et une demande des questions simultanées ne fassent qu'un appel.
+     * Si la réponse du bilan est illisible, le texte demandé est généré seul avec son propre prompt.
+     * La durée de chaque étape est mesurée (ai.generation.phase) ; l'attente de connexion est visible
+     * dans les métriques du pool (hikaricp.connections.acquire / pending / usage).
+     */
+    private String generateAiText(AiText kind, Long applicationId, String userEmail) {
+        // 1. Lecture
+        AiTextInput input = readAiTextInput(kind, applicationId, userEmail);
+        if (input.existing() != null) {
+            return input.existing(); // Si déjà généré, on retourne directement
         }
 
-        String cvText = PdfUtils.extractTextFromPdf(app.getCvData());
-        String summary = aiService.generateCandidateSummary(app.getJobOffer(), cvText);
+        return aiGenerationCoordinator.generateOnce(generationKey(kind, input),
+                () -> generateFromBriefAndSave(kind, input), () -> kind.reread().apply(applicationId));
+    }
+
+    private String generateFromBriefAndSave(AiText kind, AiTextInput input) {
+        Long applicationId = input.application().getId();
+        aiGenerationCoordinator.generateOnce(briefKey(input), () -> generateBriefAndSave(input),
+                () -> applicationRepository.findAiSummaryById(applicationId));
+        Optional<String> stored = kind.reread().apply(applicationId).filter(text -> !text.isEmpty());
+        if (stored.isPresent()) {
+            return stored.get();
+        }
 
-        app.setAiSummary(summary);
-        applicationRepository.save(app);
-        return summary;
+        // Bilan illisible : génération du seul texte demandé
+        return generateAndSave(kind, input);
     }
 
-    @Transactional
-    public String generateAiInterviewQuestions(Long applicationId, String userEmail) {
-        Application app = getApplicationCv(applicationId, userEmail);
+    /**
+     * Génère et enregistre le bilan complet. Retourne le résumé enregistré, ou une chaîne vide
+     * si la réponse du LLM n'était pas exploitable.
+     */
+    private String generateBriefAndSave(AiTextInput input) {
+        Long applicationId = input.application().getId();
+        Timer.Sample sample = Timer.start();
+        Optional<CandidateBrief> brief = aiService.generateCandidateBrief(input.application().getJobOffer(), input.cvText());
+        sample.stop(phaseTimer("brief", "llm"));
+        if (brief.isEmpty()) {
+            return "";
+        }
 
-        if (app.getAiInterviewQuestions() != null && !app.getAiInterviewQuestions().isEmpty()) {
-            return app.getAiInterviewQuestions();
+        Timer.Sample write = Timer.start();
+        try {
+            applicationRepository.setAiBriefIfAbsent(applicationId, brief.get().summaryText(), brief.get().questionsText());
+            return applicationRepository.findAiSummaryById(applicationId).orElse("");
+        } finally {
+            write.stop(phaseTimer("brief", "write"));
         }
+    }
 
-        String cvText = PdfUtils.extractTextFromPdf(app.getCvData());
+    private AiGenerationCoordinator.Key briefKey(AiTextInput input) {
+        return new AiGenerationCoordinator.Key(input.application().getId(), "brief", input.application().getCvChecksum());
+    }
 
-        String questions = aiService.generateInterviewQuestions(app.getJobOffer(), cvText);
+    private String generateAndSave(AiText kind, AiTextInput input) {
+        // 2. Appel au LLM (l'offre a été chargée pendant le contrôle d'accès)
+        Timer.Sample sample = Timer.start();
+        String generated = kind.generator().apply(input.application().getJobOffer(), input.cvText());
+        sample.stop(phaseTimer(kind.artifact(), "llm"));
 
-        app.setAiInterviewQuestions(questions);
-        applicationRepository.save(app);
-        return questions;
+        // 3. Écriture conditionnelle
+        return saveAiText(kind, input.application().getId(), generated);
+    }
+
+    // Clé commune à la génération directe et au streaming d'un même texte
+    private AiGenerationCoordinator.Key generationKey(AiText kind, AiTextInput input) {
+        return new AiGenerationCoordinator.Key(input.application().getId(), kind.artifact(),
+                input.application().getCvChecksum());
+    }
+
+    private void streamAiText(AiText kind, Long applicationId, String userEmail, StreamingResponseHandler<String> handler) {
+        try {
+            aiGenerationExecutor.execute(() -> {
+                AiTextInput input;
+                try {
+                    input = readAiTextInput(kind, applicationId, userEmail);
+                } catch (Exception e) {
+                    handler.onError(e);
+                    return;
+                }
+                if (input.existing() != null) {
+                    handler.onComplete(Response.from(input.existing()));
+                    return;
+                }
+
+                // Génération déjà en cours dans cette instance : on attend son texte complet
+                AiGenerationCoordinator.Key key = generationKey(kind, input);
+                var flight = aiGenerationCoordinator.begin(key);
+                if (!flight.isLeader()) {
+                    aiGenerationCoordinator.join(flight).whenComplete((text, error) -> {
+                        if (error != null) {
+                            handler.onError(error instanceof CompletionException && error.getCause() != null ? error.getCause() : error);
+                        } else {
+                            handler.onComplete(Response.from(text));
+                        }
+                    });
+                    return;
+                }
+
+                // Une autre instance génère déjà ce texte : attente du résultat, sans streaming
+                if (!aiGenerationCoordinator.tryClaim(key)) {
+                    try {
+                        String text = aiGenerationCoordinator.runClaimed(key,
+                                () -> generateAndSave(kind, input), () -> kind.reread().apply(applicationId));
+                        flight.complete(text);
+                        handler.onComplete(Response.from(text));
+                    } catch (Throwable e) {
+                        flight.fail(e);
+                        handler.onError(e);
+                    }
+                    return;
+                }
+
+                // Une autre instance a pu terminer juste avant de libérer sa réservation (comme runClaimed)
+                Optional<String> stored;
+                try {
+                    stored = kind.reread().apply(applicationId).filter(text -> !text.isEmpty());
+                } catch (RuntimeException e) {
+                    aiGenerationCoordinator.release(key);
+                    flight.fail(e);
+                    handler.onError(e);
+                    return;
+                }
+                if (stored.isPresent()) {
+                    aiGenerationCoordinator.release(key);
+                    flight.complete(stored.get());
+                    handler.onComplete(Response.from(stored.get()));
+                    return;
+                }
+
+                Timer.Sample sample = Timer.start();
+                StreamingResponseHandler<AiMessage> llmHandler = new StreamingResponseHandler<>() {
+                    @Override
+                    public void onNext(String token) {
+                        handler.onNext(token);
+                    }
+
+                    @Override
+                    public void onComplete(Response<AiMessage> response) {
+                        sample.stop(phaseTimer(kind.artifact(), "llm"));
+                        String text;
+                        try {
+                            text = saveAiText(kind, applicationId, response.content().text());
+                        } catch (RuntimeException e) {
+                            onError(e);
+                            return;
+                        }
+                        aiGenerationCoordinator.release(key);
+                        flight.complete(text);
+                        handler.onComplete(Response.from(text));
+                    }
+
+                    @Override
+                    public void onError(Throwable error) {
+                        aiGenerationCoordinator.release(key);
+                        flight.fail(error);
+                        handler.onError(error);
+                    }
+                };
+                try {
+                    kind.streamingGenerator().generate(input.application().getJobOffer(), input.cvText(), llmHandler);
+                } catch (RuntimeException e) {
+                    llmHandler.onError(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            handler.onError(e);
+        }
+    }
+
+    private AiTextInput readAiTextInput(AiText kind, Long applicationId, String userEmail) {
+        Timer.Sample sample = Timer.start();
+        try {
+            TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+            readOnly.setReadOnly(true);
+            Application app = readOnly.execute(status -> getApplicationCv(applicationId, userEmail));
+            String existing = kind.existingText().apply(app);
+            if (existing != null && !existing.isEmpty()) {
+                return new AiTextInput(app, existing, null);
+            }
+            return new AiTextInput(app, null, cvTextService.getText(app));
+        } finally {
+            sample.stop(phaseTimer(kind.artifact(), "read"));
+        }
+    }
+
+    private String saveAiText(AiText kind, Long applicationId, String generated) {
+        Timer.Sample sample = Timer.start();
+        try {
+            if (kind.conditionalWrite().apply(applicationId, generated) == 0) {
+                return kind.reread().apply(applicationId).filter(text -> !text.isEmpty()).orElse(generated);
+            }
+            return generated;
+        } finally {
+            sample.stop(phaseTimer(kind.artifact(), "write"));
+        }
+    }
+
+    private <T> CompletableFuture<T> supplyAsync(Supplier<T> task) {
+        try {
+            return CompletableFuture.supplyAsync(task, aiGenerationExecutor);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private Timer phaseTimer(String artifact, String phase) {
+        return meterRegistry.timer("ai.generation.phase", "artifact", artifact, "phase", phase);
     }
 
     /**
@@ -475,6 +940,14 @@ public class ApplicationService {
         }
     }
 
+    // Copie le CV en flux vers le stockage (signature PDF, taille max et SHA-256 vérifiés au passage) :
+    // le fichier n'est jamais chargé entièrement en mémoire.
+    private StoredCv storeCvFile(MultipartFile cvFile) throws IOException {
+        try (InputStream in = cvFile.getInputStream()) {
+            return cvStorage.storePdf(in, MAX_CV_SIZE);
+        }
+    }
+
     // Méthode utilitaire pour factoriser la recherche et la vérification de propriété
     private Application findApplicationAndVerifyOwnership(Long applicationId, String rhEmail) {
         User rhUser = userRepository.findByEmail(rhEmail)
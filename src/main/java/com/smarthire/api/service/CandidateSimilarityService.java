@@ -0,0 +1,92 @@
+package com.smarthire.api.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.smarthire.api.model.JobOffer;
+import com.smarthire.api.repository.ApplicationEmbeddingRepository;
+import com.smarthire.api.utils.VectorIndex;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Classement sémantique des candidatures d'une offre.
+ * Un index vectoriel par offre est gardé en mémoire et reconstruit uniquement
+ * lorsque les vecteurs de l'offre ont changé (nouvelle candidature, CV remplacé).
+ */
+@Service
+@RequiredArgsConstructor
+public class CandidateSimilarityService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CandidateSimilarityService.class);
+
+    private final ApplicationEmbeddingRepository applicationEmbeddingRepository;
+    private final EmbeddingService embeddingService;
+
+    // Nombre d'offres dont l'index est gardé en mémoire
+    private final Cache<Long, OfferIndex> indexes = Caffeine.newBuilder().maximumSize(50).build();
+
+    private record OfferIndex(Object version, VectorIndex index) {}
+
+    /**
+     * Les {@code limit} candidatures les plus proches de l'offre, par similarité décroissante.
+     */
+    public List<VectorIndex.Match> rank(JobOffer offer, int limit) {
+        VectorIndex index = indexFor(offer.getId());
+        if (index.size() == 0) {
+            return List.of();
+        }
+        return index.search(embeddingService.embedOffer(offer), limit);
+    }
+
+    /**
+     * Similarité (cosinus) de chaque candidature ayant un vecteur avec l'offre.
+     */
+    public Map<Long, Double> similarities(JobOffer offer) {
+        VectorIndex index = indexFor(offer.getId());
+        Map<Long, Double> result = new HashMap<>();
+        if (index.size() > 0) {
+            for (VectorIndex.Match match : index.scoreAll(embeddingService.embedOffer(offer))) {
+                result.put(match.id(), (double) match.score());
+            }
+        }
+        return result;
+    }
+
+    private VectorIndex indexFor(Long offerId) {
+        Object version = currentVersion(offerId);
+        OfferIndex cached = indexes.getIfPresent(offerId);
+        if (cached != null && Objects.equals(cached.version(), version)) {
+            return cached.index();
+        }
+
+        long start = System.currentTimeMillis();
+        List<Object[]> rows = applicationEmbeddingRepository.findVectorsByOfferId(offerId, EmbeddingService.MODEL_NAME);
+        VectorIndex index = null;
+        for (Object[] row : rows) {
+            float[] vector = VectorIndex.fromBytes((byte[]) row[1]);
+            if (index == null) {
+                index = new VectorIndex(vector.length, rows.size());
+            }
+            index.add((Long) row[0], vector);
+        }
+        if (index == null) {
+            index = new VectorIndex(1, 0);
+        }
+        indexes.put(offerId, new OfferIndex(version, index));
+        logger.debug("Index sémantique de l'offre {} construit : {} vecteurs en {} ms",
+                offerId, index.size(), System.currentTimeMillis() - start);
+        return index;
+    }
+
+    private Object currentVersion(Long offerId) {
+        List<Object[]> rows = applicationEmbeddingRepository.findVersionByOfferId(offerId);
+        return rows.isEmpty() ? null : List.of(rows.get(0)[0], String.valueOf(rows.get(0)[1]));
+    }
+}
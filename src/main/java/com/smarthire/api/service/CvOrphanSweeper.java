@@ -0,0 +1,90 @@
+package com.smarthire.api.service;
+
+import com.smarthire.api.repository.ApplicationRepository;
+import com.smarthire.api.storage.CvStorage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Nettoyage des fichiers CV qui ne sont plus référencés par aucune candidature.
+ * Les fichiers sont partagés entre contenus identiques : un remplacement de CV ne supprime donc pas
+ * l'ancien fichier immédiatement (un autre upload du même contenu peut être en cours de validation).
+ * Sont aussi concernés les fichiers enregistrés par une transaction annulée ensuite (le fichier est
+ * écrit avant l'insertion de la candidature) et ceux des candidatures supprimées.
+ * Seuls les fichiers ni enregistrés ni réutilisés depuis le délai de grâce sont supprimés : un upload
+ * du même contenu met à jour la date du fichier avant d'enregistrer sa candidature.
+ */
+@Component
+public class CvOrphanSweeper {
+
+    private static final Logger logger = LoggerFactory.getLogger(CvOrphanSweeper.class);
+
+    private final CvStorage cvStorage;
+    private final ApplicationRepository applicationRepository;
+    private final Duration gracePeriod;
+    private final int batchSize;
+
+    public CvOrphanSweeper(CvStorage cvStorage,
+                           ApplicationRepository applicationRepository,
+                           @Value("${app.cv-storage.orphan-sweep.grace-hours:24}") long graceHours,
+                           @Value("${app.cv-storage.orphan-sweep.batch-size:500}") int batchSize) {
+        this.cvStorage = cvStorage;
+        this.applicationRepository = applicationRepository;
+        this.gracePeriod = Duration.ofHours(graceHours);
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(fixedDelayString = "${app.cv-storage.orphan-sweep.interval-ms:21600000}")
+    public void sweep() {
+        Instant before = Instant.now().minus(gracePeriod);
+        List<String> batch = new ArrayList<>();
+        int[] deleted = {0};
+        try {
+            cvStorage.forEachKeyStoredBefore(before, key -> {
+                batch.add(key);
+                if (batch.size() >= batchSize) {
+                    deleted[0] += deleteUnreferenced(batch, before);
+                    batch.clear();
+                }
+            });
+            deleted[0] += deleteUnreferenced(batch, before);
+        } catch (Exception e) {
+            logger.error("Impossible de nettoyer les fichiers CV orphelins : {}", e.getMessage());
+        }
+        if (deleted[0] > 0) {
+            logger.info("{} fichiers CV orphelins supprimés", deleted[0]);
+        }
+    }
+
+    private int deleteUnreferenced(List<String> keys, Instant before) {
+        if (keys.isEmpty()) {
+            return 0;
+        }
+        Set<String> referenced = new HashSet<>(applicationRepository.findReferencedCvStorageKeys(keys));
+        int deleted = 0;
+        for (String key : keys) {
+            if (referenced.contains(key)) {
+                continue;
+            }
+            try {
+                // La date est relue : un upload du même contenu depuis le parcours garde le fichier
+                if (cvStorage.deleteIfStoredBefore(key, before)) {
+                    deleted++;
+                }
+            } catch (Exception e) {
+                logger.warn("Impossible de supprimer le fichier CV orphelin {} : {}", key, e.getMessage());
+            }
+        }
+        return deleted;
+    }
+}
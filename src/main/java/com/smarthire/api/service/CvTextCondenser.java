@@ -0,0 +1,293 @@
+package com.smarthire.api.service;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Condense le texte d'un CV avant de l'envoyer au LLM, dans un budget de tokens :
+ * 1. normalise les espaces et les lignes vides,
+ * 2. supprime les en-têtes / pieds de page répétés ("Page 2/3", nom répété sur chaque page...),
+ * 3. supprime les lignes de données personnelles (contact, adresse, âge, situation familiale...),
+ *    que les règles anti-biais demandent de toute façon d'ignorer ; l'adresse et la situation familiale
+ *    ne sont recherchées que dans l'en-tête de contact (avant la première section reconnue) : ailleurs,
+ *    "50000 utilisateurs" ou "single page application" sont du contenu,
+ * 4. garde les sections dans l'ordre d'importance (expérience, compétences, projets...) jusqu'au budget.
+ */
+@Service
+public class CvTextCondenser {
+
+    private static final Logger logger = LoggerFactory.getLogger(CvTextCondenser.class);
+
+    // Estimation usuelle : ~4 caractères par token
+    private static final int CHARS_PER_TOKEN = 4;
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern SPACES = Pattern.compile("[ \\t\\u00A0\\u2000-\\u200B]+");
+    private static final Pattern DIGITS = Pattern.compile("\\d+");
+    private static final Pattern PAGE_NUMBER = Pattern.compile("^(page\\s*)?\\d+\\s*(/|sur|of)\\s*\\d+$|^page\\s*\\d+$");
+
+    private static final Pattern EMAIL = Pattern.compile("[\\w.+-]+@[\\w-]+(\\.[\\w-]+)+");
+    // Numéro de téléphone : commence par "+" ou "0" et compte au moins 9 chiffres.
+    // Les périodes ("2015-2024", "2019 – 2021") ne doivent jamais être masquées : le LLM en déduit les durées d'expérience.
+    private static final Pattern PHONE = Pattern.compile(
+            "(?<![\\w+.,/])(?!\\d{4}\\s*[-–]\\s*\\d{4})(?:\\+\\d|0)(?:[ .()-]{0,2}\\d){8,}(?!\\d)");
+    private static final Pattern URL = Pattern.compile("(https?://|www\\.)\\S+");
+    // Motifs appliqués au texte sans accents ni majuscules (voir fold)
+    private static final Pattern PII_LINE = Pattern.compile(
+            "^(adresse|address|tel|telephone|phone|mobile|portable|e-?mail|courriel|" +
+            "nee? le|date de naissance|date of birth|born|age|nationalite|nationality|" +
+            "situation familiale|marital status|etat civil|permis|sexe|gender)\\b.*");
+    // Adresse : numéro + type de voie, ou code postal + ville seuls sur la ligne (ou après une virgule)
+    private static final Pattern POSTAL_ADDRESS = Pattern.compile(
+            ".*\\b\\d{1,4},?\\s+(rue|avenue|av\\.|bd|boulevard|chemin|allee|impasse|place|street|road)\\b.*" +
+            "|^(.*,\\s*)?\\d{5}\\s+[a-z\\-' ]{2,40}$");
+    private static final Pattern FAMILY = Pattern.compile(".*\\b(mariee?|celibataire|divorcee?|married|single|\\d+ enfants?)\\b.*");
+
+    private final int scoringTokenBudget;
+    private final int generationTokenBudget;
+    private final DistributionSummary originalTokens;
+    private final DistributionSummary condensedTokens;
+
+    public CvTextCondenser(MeterRegistry meterRegistry,
+                           @Value("${app.ai.cv-condenser.scoring-token-budget:3000}") int scoringTokenBudget,
+                           @Value("${app.ai.cv-condenser.generation-token-budget:3500}") int generationTokenBudget) {
+        this.scoringTokenBudget = scoringTokenBudget;
+        this.generationTokenBudget = generationTokenBudget;
+        this.originalTokens = meterRegistry.summary("ai.prompt.cv.tokens", "stage", "original");
+        this.condensedTokens = meterRegistry.summary("ai.prompt.cv.tokens", "stage", "condensed");
+    }
+
+    /**
+     * Sections reconnues, par ordre d'importance pour l'évaluation d'une candidature.
+     */
+    enum Section {
+        EXPERIENCE("experience", "experiences", "experience professionnelle", "parcours professionnel", "emplois",
+                "work experience", "professional experience", "employment", "work history"),
+        SKILLS("competences", "competences techniques", "skills", "technical skills", "technologies",
+                "outils", "stack", "savoir-faire", "hard skills", "soft skills"),
+        PROJECTS("projets", "projects", "realisations", "achievements"),
+        SUMMARY("profil", "resume", "summary", "about me", "a propos", "objectif", "profile", "objective"),
+        EDUCATION("formation", "formations", "education", "diplomes", "etudes", "cursus", "academic background"),
+        CERTIFICATIONS("certifications", "certificats", "certificates", "licences"),
+        LANGUAGES("langues", "languages"),
+        OTHER(),
+        INTERESTS("centres d'interet", "centres d interet", "loisirs", "hobbies", "interests", "activites", "divers");
+
+        private final String[] headings;
+
+        Section(String... headings) {
+            this.headings = headings;
+        }
+
+        static Section fromHeading(String foldedLine) {
+            String line = foldedLine.replaceAll("[:\\-–_•*#|]+$", "").trim();
+            if (line.isEmpty() || line.length() > 40) {
+                return null;
+            }
+            for (Section section : values()) {
+                for (String heading : section.headings) {
+                    if (line.equals(heading) || line.startsWith(heading + " ")) {
+                        return section;
+                    }
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Texte condensé et mesure de la réduction (en tokens estimés).
+     */
+    public record CondensedCv(String text, int originalTokens, int condensedTokens) {}
+
+    // Budget des prompts de notation
+    public CondensedCv condenseForScoring(String cvText) {
+        return condense(cvText, scoringTokenBudget);
+    }
+
+    // Budget des prompts de résumé / questions d'entretien
+    public CondensedCv condenseForGeneration(String cvText) {
+        return condense(cvText, generationTokenBudget);
+    }
+
+    public CondensedCv condense(String cvText, int tokenBudget) {
+        if (cvText == null || cvText.isBlank()) {
+            return new CondensedCv("", 0, 0);
+        }
+
+        List<String> lines = removeRepeatedLines(normalize(cvText));
+        List<String> kept = new ArrayList<>();
+        boolean contactHeader = true;
+        for (String line : lines) {
+            if (contactHeader && Section.fromHeading(fold(line)) != null) {
+                contactHeader = false;
+            }
+            if (line.isEmpty() || !isPersonalData(line, contactHeader)) {
+                kept.add(maskInline(line));
+            }
+        }
+
+        String text = fitToBudget(splitSections(kept), tokenBudget * CHARS_PER_TOKEN);
+
+        CondensedCv result = new CondensedCv(text, estimateTokens(cvText), estimateTokens(text));
+        originalTokens.record(result.originalTokens());
+        condensedTokens.record(result.condensedTokens());
+        logger.debug("CV condensé : {} -> {} tokens estimés", result.originalTokens(), result.condensedTokens());
+        return result;
+    }
+
+    public static int estimateTokens(String text) {
+        return text == null ? 0 : (text.length() + CHARS_PER_TOKEN - 1) / CHARS_PER_TOKEN;
+    }
+
+    // --- Étapes ---
+
+    // Espaces multiples -> un espace, lignes nettoyées, au plus une ligne vide consécutive
+    private List<String> normalize(String text) {
+        List<String> lines = new ArrayList<>();
+        boolean previousBlank = true;
+        for (String raw : text.replace("\r", "").split("\n")) {
+            String line = SPACES.matcher(raw).replaceAll(" ").trim();
+            boolean blank = line.isEmpty();
+            if (blank && previousBlank) {
+                continue;
+            }
+            lines.add(line);
+            previousBlank = blank;
+        }
+        return lines;
+    }
+
+    // Lignes courtes identiques (aux chiffres près) répétées sur plusieurs pages, et numéros de page
+    private List<String> removeRepeatedLines(List<String> lines) {
+        Map<String, Integer> counts = new HashMap<>();
+        for (String line : lines) {
+            if (!line.isEmpty() && line.length() <= 80) {
+                counts.merge(signature(line), 1, Integer::sum);
+            }
+        }
+        List<String> result = new ArrayList<>();
+        for (String line : lines) {
+            if (line.isEmpty()) {
+                result.add(line);
+                continue;
+            }
+            String folded = fold(line);
+            boolean repeated = line.length() <= 80 && counts.getOrDefault(signature(line), 0) >= 3
+                    && Section.fromHeading(folded) == null;
+            if (!repeated && !PAGE_NUMBER.matcher(folded).matches()) {
+                result.add(line);
+            }
+        }
+        return result;
+    }
+
+    // Adresse et situation familiale : seulement dans l'en-tête de contact (voir condense)
+    private boolean isPersonalData(String line, boolean contactHeader) {
+        String folded = fold(line);
+        if (PII_LINE.matcher(folded).matches()) {
+            return true;
+        }
+        if (contactHeader && (POSTAL_ADDRESS.matcher(folded).matches()
+                || line.length() <= 60 && FAMILY.matcher(folded).matches())) {
+            return true;
+        }
+        // Ligne qui n'est qu'un bloc de coordonnées (email, téléphone, lien)
+        String rest = URL.matcher(PHONE.matcher(EMAIL.matcher(line).replaceAll("")).replaceAll("")).replaceAll("");
+        return rest.replaceAll("[\\s|,;•·/\\-]+", "").length() < 3 && rest.length() < line.length();
+    }
+
+    private String maskInline(String line) {
+        String masked = EMAIL.matcher(line).replaceAll("[email]");
+        return PHONE.matcher(masked).replaceAll("[téléphone]");
+    }
+
+    private record Block(int order, Section section, String text) {}
+
+    private List<Block> splitSections(List<String> lines) {
+        List<Block> blocks = new ArrayList<>();
+        Section current = Section.OTHER;
+        StringBuilder text = new StringBuilder();
+        for (String line : lines) {
+            Section heading = Section.fromHeading(fold(line));
+            if (heading != null) {
+                if (!text.toString().isBlank()) {
+                    blocks.add(new Block(blocks.size(), current, text.toString().strip()));
+                }
+                current = heading;
+                text.setLength(0);
+            }
+            text.append(line).append('\n');
+        }
+        if (!text.toString().isBlank()) {
+            blocks.add(new Block(blocks.size(), current, text.toString().strip()));
+        }
+        return blocks;
+    }
+
+    /**
+     * Sections prises par importance jusqu'au budget, restituées dans l'ordre du CV.
+     * Une section trop longue est tronquée à une fin de ligne, en laissant de la place
+     * (au plus 40 % du reste) aux sections utiles suivantes ; les centres d'intérêt ne sont jamais tronqués.
+     */
+    private String fitToBudget(List<Block> blocks, int charBudget) {
+        List<Block> byPriority = new ArrayList<>(blocks);
+        byPriority.sort(Comparator.comparing(Block::section).thenComparing(Block::order));
+
+        // Taille cumulée des sections utiles restant après chaque position
+        int[] usefulAfter = new int[byPriority.size() + 1];
+        for (int i = byPriority.size() - 1; i >= 0; i--) {
+            Block block = byPriority.get(i);
+            usefulAfter[i] = usefulAfter[i + 1]
+                    + (block.section().compareTo(Section.OTHER) <= 0 ? block.text().length() + 2 : 0);
+        }
+
+        List<Block> selected = new ArrayList<>();
+        int remaining = charBudget;
+        for (int i = 0; i < byPriority.size() && remaining > 0; i++) {
+            Block block = byPriority.get(i);
+            if (block.text().length() + 2 <= remaining) {
+                selected.add(block);
+                remaining -= block.text().length() + 2;
+            } else if (block.section().compareTo(Section.OTHER) < 0) {
+                int allowance = remaining - Math.min(usefulAfter[i + 1], (int) (remaining * 0.4));
+                if (allowance < 200) {
+                    continue;
+                }
+                int cut = block.text().lastIndexOf('\n', allowance);
+                String head = block.text().substring(0, cut > 0 ? cut : allowance);
+                selected.add(new Block(block.order(), block.section(), head));
+                remaining -= head.length() + 2;
+            }
+        }
+
+        selected.sort(Comparator.comparing(Block::order));
+        StringBuilder result = new StringBuilder();
+        for (Block block : selected) {
+            result.append(block.text()).append("\n\n");
+        }
+        return result.toString().strip();
+    }
+
+    private static String signature(String line) {
+        return DIGITS.matcher(fold(line)).replaceAll("#");
+    }
+
+    private static String fold(String line) {
+        return DIACRITICS.matcher(Normalizer.normalize(line, Normalizer.Form.NFD)).replaceAll("")
+                .toLowerCase(Locale.ROOT).trim();
+    }
+}
@@ -0,0 +1,134 @@
+package com.smarthire.api.service;
+
+import com.smarthire.api.repository.ApplicationRepository;
+import com.smarthire.api.storage.StoredCv;
+import com.smarthire.api.utils.PdfUtils;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Étape d'extraction du texte des CV, en arrière-plan.
+ * La soumission d'une candidature ne fait qu'ajouter son id dans une file bornée ;
+ * un nombre fixe de workers exécute PdfUtils (avec délai, limite de pages et de mémoire).
+ * En cas de pic, la file s'allonge au lieu de saturer CPU et mémoire ;
+ * si elle est pleine, le texte sera extrait à la première utilisation (CvTextService.getText).
+ * Le vecteur sémantique du CV (EmbeddingService) est calculé dans la foulée.
+ */
+@Service
+public class CvTextExtractionQueue {
+
+    private static final Logger logger = LoggerFactory.getLogger(CvTextExtractionQueue.class);
+
+    private final ApplicationRepository applicationRepository;
+    private final CvTextService cvTextService;
+    private final EmbeddingService embeddingService;
+    private final ThreadPoolExecutor executor;
+
+    private final Counter completedCounter;
+    private final Counter failedCounter;
+    private final Counter timeoutCounter;
+    private final Counter rejectedCounter;
+    private final Timer extractionTimer;
+
+    public CvTextExtractionQueue(ApplicationRepository applicationRepository,
+                                 CvTextService cvTextService,
+                                 EmbeddingService embeddingService,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${app.cv-text.extraction.workers:2}") int workers,
+                                 @Value("${app.cv-text.extraction.queue-capacity:1000}") int queueCapacity) {
+        this.applicationRepository = applicationRepository;
+        this.cvTextService = cvTextService;
+        this.embeddingService = embeddingService;
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "cv-text-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        // --- Métriques (exposées via /actuator/metrics) ---
+        Gauge.builder("cv.text.extraction.queue.depth", executor, e -> e.getQueue().size())
+                .description("Candidatures en attente d'extraction du texte du CV")
+                .register(meterRegistry);
+        Gauge.builder("cv.text.extraction.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Extractions en cours")
+                .register(meterRegistry);
+        this.completedCounter = meterRegistry.counter("cv.text.extraction.completed");
+        this.failedCounter = meterRegistry.counter("cv.text.extraction.failed", "reason", "error");
+        this.timeoutCounter = meterRegistry.counter("cv.text.extraction.failed", "reason", "timeout");
+        this.rejectedCounter = meterRegistry.counter("cv.text.extraction.rejected");
+        this.extractionTimer = meterRegistry.timer("cv.text.extraction.duration");
+    }
+
+    /**
+     * Ajoute la candidature dans la file une fois la transaction courante validée
+     * (le worker doit voir le CV enregistré).
+     */
+    public void enqueueAfterCommit(Long applicationId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    enqueue(applicationId);
+                }
+            });
+        } else {
+            enqueue(applicationId);
+        }
+    }
+
+    public void enqueue(Long applicationId) {
+        try {
+            executor.execute(() -> process(applicationId));
+        } catch (RejectedExecutionException e) {
+            rejectedCounter.increment();
+            logger.warn("File d'extraction pleine : le texte du CV de la candidature {} sera extrait à la demande.", applicationId);
+        }
+    }
+
+    private void process(Long applicationId) {
+        Timer.Sample sample = Timer.start();
+        try {
+            Optional<StoredCv> storedCv = applicationRepository.findStoredCvById(applicationId);
+            if (storedCv.isPresent()) {
+                cvTextService.ensureExtracted(storedCv.get());
+                embeddingService.ensureEmbedded(applicationId);
+            }
+            completedCounter.increment();
+        } catch (Exception e) {
+            if (e.getCause() instanceof PdfUtils.PdfExtractionTimeoutException) {
+                timeoutCounter.increment();
+            } else {
+                failedCounter.increment();
+            }
+            logger.error("Échec de l'extraction du texte du CV de la candidature {} : {}", applicationId, e.getMessage());
+        } finally {
+            sample.stop(extractionTimer);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
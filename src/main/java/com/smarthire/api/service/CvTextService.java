@@ -0,0 +1,126 @@
+package com.smarthire.api.service;
+
+import com.smarthire.api.model.Application;
+import com.smarthire.api.model.CvText;
+import com.smarthire.api.repository.CvTextRepository;
+import com.smarthire.api.storage.CvStorage;
+import com.smarthire.api.storage.StoredCv;
+import com.smarthire.api.utils.PdfUtils;
+import jakarta.persistence.EntityNotFoundException;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Texte extrait des CV : le PDF est analysé une seule fois par contenu (empreinte SHA-256),
+ * puis tous les traitements IA relisent le texte stocké.
+ */
+@Service
+@RequiredArgsConstructor
+public class CvTextService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CvTextService.class);
+
+    private final CvTextRepository cvTextRepository;
+    private final CvStorage cvStorage;
+
+    // Limites appliquées à chaque extraction (voir PdfUtils)
+    @Value("${app.cv-text.extraction.max-pages:30}")
+    private int maxPages;
+
+    @Value("${app.cv-text.extraction.max-main-memory-mb:16}")
+    private long maxMainMemoryMb;
+
+    @Value("${app.cv-text.extraction.timeout-ms:20000}")
+    private long timeoutMillis;
+
+    /**
+     * Retourne le texte du CV d'une candidature. S'il n'a pas encore été extrait
+     * (ancien CV non rattrapé), l'extraction est faite maintenant et enregistrée.
+     */
+    public String getText(Application application) {
+        if (application.getCvChecksum() == null || application.getCvStorageKey() == null) {
+            throw new EntityNotFoundException("Aucun fichier CV pour la candidature " + application.getId());
+        }
+        return cvTextRepository.findById(application.getCvChecksum())
+                .map(CvText::getText)
+                .orElseGet(() -> extractAndStore(new StoredCv(
+                        application.getCvStorageKey(), application.getCvSize() != null ? application.getCvSize() : 0,
+                        application.getCvChecksum())).getText());
+    }
+
+    /**
+     * Extrait et enregistre le texte d'un CV s'il n'existe pas déjà (appelé à l'upload et par le rattrapage).
+     */
+    public void ensureExtracted(StoredCv storedCv) {
+        if (!cvTextRepository.existsById(storedCv.checksum())) {
+            extractAndStore(storedCv);
+        }
+    }
+
+    private CvText extractAndStore(StoredCv storedCv) {
+        long start = System.currentTimeMillis();
+        String text;
+        try {
+            text = extract(storedCv);
+        } catch (NoSuchFileException e) {
+            throw new EntityNotFoundException("Fichier CV introuvable : " + storedCv.key());
+        } catch (PdfUtils.PdfExtractionTimeoutException e) {
+            // Pas d'enregistrement : une nouvelle tentative reste possible
+            throw new UncheckedIOException(e);
+        } catch (IOException e) {
+            logger.error("Erreur lors de l'extraction du texte du CV {} : {}", storedCv.checksum(), e.getMessage());
+            text = "";
+        }
+        logger.debug("Texte extrait du CV {} en {} ms ({} caractères)",
+                storedCv.checksum(), System.currentTimeMillis() - start, text.length());
+
+        // Un texte vide est aussi enregistré : inutile de ré-analyser un PDF illisible.
+        try {
+            return cvTextRepository.saveAndFlush(CvText.builder()
+                    .contentHash(storedCv.checksum())
+                    .text(text)
+                    .charCount(text.length())
+                    .build());
+        } catch (DataIntegrityViolationException e) {
+            // Même contenu extrait en parallèle (upload, rattrapage ou analyse) : le texte enregistré est identique
+            logger.debug("Texte du CV {} déjà enregistré", storedCv.checksum());
+            return cvTextRepository.findById(storedCv.checksum()).orElseThrow(() -> e);
+        }
+    }
+
+    private String extract(StoredCv storedCv) throws IOException {
+        Resource resource = cvStorage.load(storedCv.key());
+        if (resource.isFile()) {
+            return extract(resource.getFile());
+        }
+
+        // Stockage non local : copie temporaire sur disque, PDFBox lit ensuite le fichier par accès direct
+        Path tmp = Files.createTempFile("cv-", ".pdf");
+        try {
+            try (InputStream in = resource.getInputStream()) {
+                Files.copy(in, tmp, StandardCopyOption.REPLACE_EXISTING);
+            }
+            return extract(tmp.toFile());
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    private String extract(File pdfFile) throws IOException {
+        return PdfUtils.extractTextFromPdf(pdfFile, maxPages, maxMainMemoryMb * 1024 * 1024, timeoutMillis);
+    }
+}
@@ -0,0 +1,91 @@
+package com.smarthire.api.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.smarthire.api.model.Application;
+import com.smarthire.api.model.ApplicationEmbedding;
+import com.smarthire.api.model.JobOffer;
+import com.smarthire.api.repository.ApplicationEmbeddingRepository;
+import com.smarthire.api.repository.ApplicationRepository;
+import com.smarthire.api.utils.HashUtils;
+import com.smarthire.api.utils.VectorIndex;
+import dev.langchain4j.model.embedding.EmbeddingModel;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Service;
+
+/**
+ * Embeddings des CV et des offres, calculés par un modèle local (all-MiniLM-L6-v2).
+ * Le vecteur d'un CV est enregistré dans "application_embeddings" ;
+ * celui d'une offre est gardé en mémoire, par contenu de l'offre.
+ */
+@Service
+public class EmbeddingService {
+
+    private static final Logger logger = LoggerFactory.getLogger(EmbeddingService.class);
+
+    static final String MODEL_NAME = "all-minilm-l6-v2";
+
+    // Le début du CV suffit à en capturer le profil ; le modèle découpe et moyenne les textes longs
+    private static final int MAX_CV_CHARS = 8000;
+
+    private final EmbeddingModel embeddingModel;
+    private final ApplicationRepository applicationRepository;
+    private final ApplicationEmbeddingRepository applicationEmbeddingRepository;
+    private final CvTextService cvTextService;
+
+    private final Cache<String, float[]> offerVectors = Caffeine.newBuilder().maximumSize(1000).build();
+
+    public EmbeddingService(@Lazy EmbeddingModel embeddingModel,
+                            ApplicationRepository applicationRepository,
+                            ApplicationEmbeddingRepository applicationEmbeddingRepository,
+                            CvTextService cvTextService) {
+        this.embeddingModel = embeddingModel;
+        this.applicationRepository = applicationRepository;
+        this.applicationEmbeddingRepository = applicationEmbeddingRepository;
+        this.cvTextService = cvTextService;
+    }
+
+    /**
+     * Calcule et enregistre le vecteur du CV d'une candidature s'il est absent ou périmé (CV remplacé).
+     */
+    public void ensureEmbedded(Long applicationId) {
+        Application application = applicationRepository.findWithJobOfferById(applicationId).orElse(null);
+        if (application == null || application.getCvChecksum() == null) {
+            return;
+        }
+        ApplicationEmbedding existing = applicationEmbeddingRepository.findById(applicationId).orElse(null);
+        if (existing != null && existing.getCvChecksum().equals(application.getCvChecksum())
+                && existing.getModelName().equals(MODEL_NAME)) {
+            return;
+        }
+
+        String text = cvTextService.getText(application);
+        if (text == null || text.isBlank()) {
+            return;
+        }
+        float[] vector = embed(text.length() > MAX_CV_CHARS ? text.substring(0, MAX_CV_CHARS) : text);
+
+        applicationEmbeddingRepository.save(ApplicationEmbedding.builder()
+                .applicationId(applicationId)
+                .offerId(application.getJobOffer().getId())
+                .cvChecksum(application.getCvChecksum())
+                .modelName(MODEL_NAME)
+                .vector(VectorIndex.toBytes(vector))
+                .build());
+        logger.debug("Embedding calculé pour la candidature {}", applicationId);
+    }
+
+    /**
+     * Vecteur d'une offre (titre + description), recalculé seulement si son contenu change.
+     */
+    public float[] embedOffer(JobOffer offer) {
+        String content = offer.getTitle() + "\n" + offer.getDescription();
+        return offerVectors.get(HashUtils.sha256Hex(content), key -> embed(content));
+    }
+
+    private float[] embed(String text) {
+        return VectorIndex.normalize(embeddingModel.embed(text).content().vector());
+    }
+}
@@ -0,0 +1,120 @@
+package com.smarthire.api.service;
+
+import com.smarthire.api.model.ImageVariant;
+import com.smarthire.api.model.enums.ImageVariantType;
+import com.smarthire.api.repository.ImageVariantRepository;
+import com.smarthire.api.repository.JobOfferRepository;
+import com.smarthire.api.repository.UserRepository;
+import com.smarthire.api.utils.HashUtils;
+import com.smarthire.api.utils.ImageUtils;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.util.Optional;
+
+/**
+ * Traitement des images envoyées (offres, photos de profil).
+ * À l'envoi, l'image est décodée puis déclinée en plusieurs tailles (ImageVariantType),
+ * ré-encodées (JPEG, ou PNG si transparente) et sans métadonnées (EXIF, GPS...).
+ * Les versions sont rangées sous l'empreinte de l'image d'origine : leur URL
+ * (/api/images/{empreinte}/{taille}) ne change jamais de contenu et peut être mise en cache sans limite.
+ */
+@Service
+@RequiredArgsConstructor
+public class ImageService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ImageService.class);
+
+    private final ImageVariantRepository imageVariantRepository;
+    private final JobOfferRepository jobOfferRepository;
+    private final UserRepository userRepository;
+
+    @Value("${app.images.jpeg-quality:0.85}")
+    private float jpegQuality;
+
+    // Limite contre les images "bombes" (petit fichier, dimensions énormes une fois décodé)
+    @Value("${app.images.max-pixels:40000000}")
+    private long maxPixels;
+
+    /**
+     * Image d'origine traitée : empreinte (clé des versions) et dimensions.
+     */
+    public record ProcessedImage(String sourceHash, int width, int height) {
+    }
+
+    /**
+     * Génère et enregistre les versions d'une image, si elles n'existent pas déjà pour ce contenu.
+     *
+     * @throws IllegalArgumentException si le contenu n'est pas une image lisible ou est trop grand.
+     */
+    @Transactional
+    public ProcessedImage store(byte[] original) {
+        ImageUtils.Dimensions dimensions = ImageUtils.readDimensions(original)
+                .orElseThrow(() -> new IllegalArgumentException("Le fichier doit être une image JPEG ou PNG."));
+        if ((long) dimensions.width() * dimensions.height() > maxPixels) {
+            throw new IllegalArgumentException("L'image est trop grande (" + dimensions.width() + "x" + dimensions.height() + " pixels).");
+        }
+
+        String sourceHash = HashUtils.sha256Hex(original);
+        if (!imageVariantRepository.existsBySourceHash(sourceHash)) {
+            generateVariants(sourceHash, original);
+        }
+        return new ProcessedImage(sourceHash, dimensions.width(), dimensions.height());
+    }
+
+    private void generateVariants(String sourceHash, byte[] original) {
+        long start = System.currentTimeMillis();
+        BufferedImage image;
+        try {
+            image = ImageUtils.decode(original);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Le fichier doit être une image JPEG ou PNG.");
+        }
+
+        for (ImageVariantType type : ImageVariantType.values()) {
+            // Chaque taille est calculée depuis l'original (pas depuis la précédente)
+            BufferedImage resized = ImageUtils.resizeToFit(image, type.maxEdge());
+            ImageUtils.Encoded encoded;
+            try {
+                encoded = ImageUtils.encode(resized, jpegQuality);
+            } catch (IOException e) {
+                throw new IllegalStateException("Échec de l'encodage de l'image : " + e.getMessage(), e);
+            }
+            imageVariantRepository.save(ImageVariant.builder()
+                    .sourceHash(sourceHash)
+                    .variant(type)
+                    .contentHash(HashUtils.sha256Hex(encoded.data()))
+                    .contentType(encoded.contentType())
+                    .width(resized.getWidth())
+                    .height(resized.getHeight())
+                    .data(encoded.data())
+                    .build());
+        }
+        logger.debug("Versions de l'image {} générées en {} ms", sourceHash, System.currentTimeMillis() - start);
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<ImageVariant> findVariant(String sourceHash, ImageVariantType type) {
+        return imageVariantRepository.findBySourceHashAndVariant(sourceHash, type);
+    }
+
+    /**
+     * Supprime les versions d'une image qui n'est plus utilisée par aucune offre ni aucun profil
+     * (image remplacée ou offre supprimée).
+     */
+    @Transactional
+    public void releaseIfUnused(String sourceHash) {
+        if (sourceHash == null
+                || jobOfferRepository.existsByImageHash(sourceHash)
+                || userRepository.existsByProfilePictureHash(sourceHash)) {
+            return;
+        }
+        imageVariantRepository.deleteBySourceHash(sourceHash);
+    }
+}
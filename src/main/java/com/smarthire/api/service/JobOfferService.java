@@ -2,10 +2,16 @@ package com.smarthire.api.service;
 
 import com.smarthire.api.dto.JobOfferRequest;
 import com.smarthire.api.dto.JobOfferResponse;
+import com.smarthire.api.dto.ScoringCascadeSettings;
+import com.smarthire.api.model.ImageVariant;
 import com.smarthire.api.model.JobOffer;
+import com.smarthire.api.model.JobOfferImage;
 import com.smarthire.api.model.User;
 import com.smarthire.api.model.enums.ContractType;
+import com.smarthire.api.model.enums.ImageVariantType;
 import com.smarthire.api.model.enums.OfferStatus;
+import com.smarthire.api.repository.ApplicationEmbeddingRepository;
+import com.smarthire.api.repository.JobOfferImageRepository;
 import com.smarthire.api.repository.JobOfferRepository;
 import com.smarthire.api.repository.UserRepository;
 import jakarta.persistence.EntityNotFoundException;
@@ -18,30 +24,32 @@ import org.springframework.web.multipart.MultipartFile;
 import java.io.IOException; // Correction: java.io et non io.jsonwebtoken
 import java.util.List;
 import java.util.Objects;
-import java.util.stream.Collectors;
+import java.util.Optional;
 
 @Service
 @RequiredArgsConstructor
 public class JobOfferService {
 
     private final JobOfferRepository jobOfferRepository;
+    private final JobOfferImageRepository jobOfferImageRepository;
+    private final ApplicationEmbeddingRepository applicationEmbeddingRepository;
     private final UserRepository userRepository;
+    private final ScoringCascadePolicy scoringCascadePolicy;
+    private final ImageService imageService;
 
     // --- Méthodes publiques (pour les candidats) ---
 
     @Transactional(readOnly = true)
     public List<JobOfferResponse> getAllPublicOffers(String searchTerm) {
-        List<JobOffer> offers;
+        // Projection : offres et recruteurs lus en une seule requête, sans les images
         if (searchTerm != null && !searchTerm.trim().isEmpty()) {
             String processedSearchTerm = "%" + searchTerm.trim().toLowerCase() + "%";
-            offers = jobOfferRepository.findPublishedOffersBySearchTerm(
+            return jobOfferRepository.findPublishedResponsesBySearchTerm(
                     OfferStatus.PUBLISHED,
                     processedSearchTerm
             );
-        } else {
-            offers = jobOfferRepository.findByStatus(OfferStatus.PUBLISHED);
         }
-        return offers.stream().map(this::convertToResponse).collect(Collectors.toList());
+        return jobOfferRepository.findResponsesByStatus(OfferStatus.PUBLISHED);
     }
 
     @Transactional(readOnly = true)
@@ -113,17 +121,20 @@ public class JobOfferService {
         if (offer.getCreatedBy() == null || !Objects.equals(offer.getCreatedBy().getId(), hrUser.getId())) {
             throw new AccessDeniedException("Vous n'êtes pas autorisé à supprimer cette offre.");
         }
+        if (offer.isHasImage()) {
+            jobOfferImageRepository.deleteById(id);
+        }
+        applicationEmbeddingRepository.deleteByOfferId(id);
         jobOfferRepository.delete(offer);
+        imageService.releaseIfUnused(offer.getImageHash());
     }
 
     @Transactional(readOnly = true)
     public List<JobOfferResponse> getOffersByRecruiter(String hrEmail) {
-        User hrUser = userRepository.findByEmail(hrEmail)
+        Long hrUserId = userRepository.findIdByEmail(hrEmail)
                 .orElseThrow(() -> new EntityNotFoundException("Utilisateur RH non trouvé: " + hrEmail));
 
-        return jobOfferRepository.findByCreatedById(hrUser.getId()).stream()
-                .map(this::convertToResponse)
-                .collect(Collectors.toList());
+        return jobOfferRepository.findResponsesByCreatedById(hrUserId);
     }
 
     @Transactional(readOnly = true)
@@ -141,35 +152,75 @@ public class JobOfferService {
         return convertToResponse(offer);
     }
 
+    // --- RÉGLAGES DE LA CASCADE DE NOTATION IA ---
+
+    @Transactional(readOnly = true)
+    public ScoringCascadeSettings getScoringCascade(Long id, String hrEmail) {
+        return scoringCascadePolicy.resolve(findOwnedOffer(id, hrEmail));
+    }
+
+    @Transactional
+    public ScoringCascadeSettings updateScoringCascade(Long id, ScoringCascadeSettings request, String hrEmail) {
+        JobOffer offer = findOwnedOffer(id, hrEmail);
+        offer.setScoringCascadeEnabled(request.enabled());
+        offer.setCascadeBoundaryScore(request.boundaryScore());
+        offer.setCascadeBoundaryMargin(request.boundaryMargin());
+        offer.setCascadeTopBandScore(request.topBandScore());
+        return scoringCascadePolicy.resolve(jobOfferRepository.save(offer));
+    }
+
     // --- GESTION DES IMAGES ---
 
+    /**
+     * Enregistre l'image d'une offre : versions redimensionnées générées par ImageService (servies),
+     * original conservé dans "job_offer_images" (jamais servi, permet de régénérer les versions) ;
+     * l'offre ne reçoit que les métadonnées (présence, empreinte, dimensions).
+     *
+     * @throws IllegalArgumentException si le fichier n'est pas une image lisible.
+     */
     @Transactional
     public void uploadOfferImage(Long id, MultipartFile file) throws IOException {
         // Utilisation directe du repository pour éviter la confusion avec getPublicOfferById
         JobOffer offer = jobOfferRepository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException("Offre non trouvée: " + id));
 
-        offer.setImage(file.getBytes());
-        offer.setImageContentType(file.getContentType());
+        byte[] data = file.getBytes();
+        ImageService.ProcessedImage image = imageService.store(data);
+        jobOfferImageRepository.save(JobOfferImage.builder()
+                .offerId(id)
+                .contentType(file.getContentType() != null ? file.getContentType() : "application/octet-stream")
+                .data(data)
+                .build());
+
+        String previousHash = offer.getImageHash();
+        offer.setHasImage(true);
+        offer.setImageHash(image.sourceHash());
+        offer.setImageWidth(image.width());
+        offer.setImageHeight(image.height());
         jobOfferRepository.save(offer);
+        if (!image.sourceHash().equals(previousHash)) {
+            imageService.releaseIfUnused(previousHash);
+        }
     }
 
+    // Version de l'image d'une offre (vide si l'offre n'a pas d'image)
     @Transactional(readOnly = true)
-    public byte[] getOfferImage(Long id) {
-        JobOffer offer = jobOfferRepository.findById(id)
-                .orElseThrow(() -> new EntityNotFoundException("Offre non trouvée: " + id));
-        return offer.getImage();
+    public Optional<ImageVariant> getOfferImage(Long id, ImageVariantType type) {
+        return jobOfferRepository.findImageHashById(id)
+                .flatMap(hash -> imageService.findVariant(hash, type));
     }
 
-    @Transactional(readOnly = true)
-    public String getOfferImageContentType(Long id) {
+    // --- Méthodes utilitaires ---
+
+    private JobOffer findOwnedOffer(Long id, String hrEmail) {
         JobOffer offer = jobOfferRepository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException("Offre non trouvée: " + id));
-        return offer.getImageContentType();
+        if (offer.getCreatedBy() == null || !offer.getCreatedBy().getEmail().equals(hrEmail)) {
+            throw new AccessDeniedException("Vous n'êtes pas autorisé à modifier cette offre.");
+        }
+        return offer;
     }
 
-    // --- Méthodes utilitaires ---
-
     private ContractType validateContractType(String type) {
         try {
             return ContractType.valueOf(type.toUpperCase());
@@ -206,7 +257,8 @@ public class JobOfferService {
                 fullName,
                 offer.getCreatedAt(),
                 offer.getUpdatedAt(),
-                offer.getImage() != null // hasImage
+                offer.isHasImage(),
+                offer.getImageHash()
         );
     }
 }
\ No newline at end of file
@@ -0,0 +1,160 @@
+package com.smarthire.api.service;
+
+import com.smarthire.api.dto.ScoringCandidate;
+import com.smarthire.api.model.CvText;
+import com.smarthire.api.model.JobOffer;
+import com.smarthire.api.repository.CvTextRepository;
+import com.smarthire.api.utils.TextTokenizer;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Pré-sélection lexicale (BM25) des candidatures avant l'appel au LLM.
+ * Les CV sont comparés au titre et à la description de l'offre ; seuls les plus pertinents
+ * sont envoyés au LLM, les autres reçoivent une note provisoire basse calculée localement.
+ */
+@Service
+@RequiredArgsConstructor
+public class LexicalPrescreenService {
+
+    private static final Logger logger = LoggerFactory.getLogger(LexicalPrescreenService.class);
+
+    // Paramètres BM25 usuels
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final int TEXT_BATCH_SIZE = 200;
+
+    private final CvTextRepository cvTextRepository;
+
+    @Value("${app.ai.scoring.prescreen.enabled:true}")
+    private boolean enabled;
+
+    // En dessous de ce nombre de candidatures à noter, tout est envoyé au LLM
+    @Value("${app.ai.scoring.prescreen.min-candidates:20}")
+    private int minCandidates;
+
+    // Part des candidatures (les mieux classées) envoyée au LLM
+    @Value("${app.ai.scoring.prescreen.llm-fraction:0.3}")
+    private double llmFraction;
+
+    // Pertinence relative (0..1, par rapport au meilleur CV) en dessous de laquelle le LLM n'est jamais appelé
+    @Value("${app.ai.scoring.prescreen.min-relevance:0.15}")
+    private double minRelevance;
+
+    // Note provisoire maximale attribuée sans LLM (sur 100)
+    @Value("${app.ai.scoring.prescreen.provisional-max-score:40}")
+    private int provisionalMaxScore;
+
+    /**
+     * Résultat de la pré-sélection : candidatures à envoyer au LLM et notes provisoires des autres.
+     */
+    public record Decision(Set<Long> toLlm, Map<Long, Integer> provisionalScores) {}
+
+    /**
+     * @param corpus     toutes les candidatures de l'offre (pour les statistiques de fréquence des termes)
+     * @param candidates les candidatures à noter
+     */
+    public Decision prescreen(JobOffer offer, List<ScoringCandidate> corpus, List<ScoringCandidate> candidates) {
+        Set<Long> all = new LinkedHashSet<>();
+        candidates.forEach(candidate -> all.add(candidate.applicationId()));
+        if (!enabled || candidates.size() < minCandidates) {
+            return new Decision(all, Map.of());
+        }
+
+        long start = System.currentTimeMillis();
+        Map<String, Double> relevance = rank(offer, corpus);
+        double best = relevance.values().stream().mapToDouble(Double::doubleValue).max().orElse(0);
+
+        // Classement des candidatures à noter par pertinence décroissante.
+        // Un CV dont le texte n'est pas encore extrait ne peut pas être jugé : il part au LLM.
+        Set<Long> toLlm = new HashSet<>();
+        List<ScoringCandidate> ranked = new ArrayList<>();
+        for (ScoringCandidate candidate : candidates) {
+            if (relevance.containsKey(candidate.cvChecksum())) {
+                ranked.add(candidate);
+            } else {
+                toLlm.add(candidate.applicationId());
+            }
+        }
+        ranked.sort(Comparator.comparingDouble((ScoringCandidate c) -> relevance.getOrDefault(c.cvChecksum(), 0.0)).reversed());
+        int llmCount = Math.max(minCandidates, (int) Math.ceil(ranked.size() * llmFraction));
+
+        Map<Long, Integer> provisionalScores = new HashMap<>();
+        for (int i = 0; i < ranked.size(); i++) {
+            ScoringCandidate candidate = ranked.get(i);
+            double normalized = best > 0 ? relevance.getOrDefault(candidate.cvChecksum(), 0.0) / best : 0;
+            if (i < llmCount && normalized >= minRelevance) {
+                toLlm.add(candidate.applicationId());
+            } else {
+                provisionalScores.put(candidate.applicationId(), (int) Math.round(normalized * provisionalMaxScore));
+            }
+        }
+
+        logger.info("Pré-sélection lexicale de l'offre {} : {} candidatures envoyées au LLM, {} notées localement ({} ms)",
+                offer.getId(), toLlm.size(), provisionalScores.size(), System.currentTimeMillis() - start);
+        return new Decision(toLlm, provisionalScores);
+    }
+
+    /**
+     * Score BM25 de chaque CV (par empreinte) pour la requête "titre + description" de l'offre.
+     * Chaque terme de la requête pèse autant que son nombre d'occurrences ; le titre est compté deux fois :
+     * c'est le résumé le plus fiable du poste.
+     */
+    private Map<String, Double> rank(JobOffer offer, List<ScoringCandidate> corpus) {
+        Map<String, Integer> queryTerms = TextTokenizer.termFrequencies(
+                offer.getTitle() + " " + offer.getTitle() + " " + offer.getDescription());
+
+        // Fréquences des termes de la requête uniquement : le texte complet n'est pas conservé
+        List<String> checksums = corpus.stream()
+                .map(ScoringCandidate::cvChecksum)
+                .filter(checksum -> checksum != null)
+                .distinct()
+                .toList();
+        Map<String, Map<String, Integer>> documents = new HashMap<>();
+        Map<String, Integer> lengths = new HashMap<>();
+        for (int i = 0; i < checksums.size(); i += TEXT_BATCH_SIZE) {
+            for (CvText cvText : cvTextRepository.findAllById(checksums.subList(i, Math.min(i + TEXT_BATCH_SIZE, checksums.size())))) {
+                Map<String, Integer> frequencies = TextTokenizer.termFrequencies(cvText.getText());
+                lengths.put(cvText.getContentHash(), frequencies.values().stream().mapToInt(Integer::intValue).sum());
+                frequencies.keySet().retainAll(queryTerms.keySet());
+                documents.put(cvText.getContentHash(), frequencies);
+            }
+        }
+        if (documents.isEmpty()) {
+            return Map.of();
+        }
+
+        int documentCount = documents.size();
+        double averageLength = Math.max(1, lengths.values().stream().mapToInt(Integer::intValue).average().orElse(1));
+        Map<String, Integer> documentFrequencies = new HashMap<>();
+        for (Map<String, Integer> frequencies : documents.values()) {
+            frequencies.keySet().forEach(term -> documentFrequencies.merge(term, 1, Integer::sum));
+        }
+
+        Map<String, Double> scores = new HashMap<>();
+        for (Map.Entry<String, Map<String, Integer>> document : documents.entrySet()) {
+            double length = lengths.get(document.getKey());
+            double score = 0;
+            for (Map.Entry<String, Integer> term : document.getValue().entrySet()) {
+                int df = documentFrequencies.get(term.getKey());
+                double idf = Math.log(1 + (documentCount - df + 0.5) / (df + 0.5));
+                double tf = term.getValue();
+                score += queryTerms.get(term.getKey()) * idf * tf * (K1 + 1) / (tf + K1 * (1 - B + B * length / averageLength));
+            }
+            scores.put(document.getKey(), score);
+        }
+        return scores;
+    }
+}
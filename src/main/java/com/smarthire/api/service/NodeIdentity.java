@@ -0,0 +1,28 @@
+package com.smarthire.api.service;
+
+import org.springframework.stereotype.Component;
+
+import java.net.InetAddress;
+import java.util.UUID;
+
+/**
+ * Identifiant de cette instance, propriétaire des baux en base (éléments et lancements de notation,
+ * réservations de génération IA). Le suffixe aléatoire distingue deux démarrages sur la même machine.
+ */
+@Component
+public class NodeIdentity {
+
+    private final String id = hostName() + "-" + UUID.randomUUID().toString().substring(0, 8);
+
+    public String id() {
+        return id;
+    }
+
+    private static String hostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            return "node";
+        }
+    }
+}
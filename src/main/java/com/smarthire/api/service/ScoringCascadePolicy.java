@@ -0,0 +1,34 @@
+package com.smarthire.api.service;
+
+import com.smarthire.api.dto.ScoringCascadeSettings;
+import com.smarthire.api.model.JobOffer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Réglages effectifs de la cascade de notation d'une offre : ceux de l'offre,
+ * complétés par les valeurs par défaut "app.ai.scoring.cascade.*".
+ */
+@Component
+public class ScoringCascadePolicy {
+
+    @Value("${app.ai.scoring.cascade.enabled:false}")
+    private boolean defaultEnabled;
+
+    @Value("${app.ai.scoring.cascade.boundary-score:50}")
+    private int defaultBoundaryScore;
+
+    @Value("${app.ai.scoring.cascade.boundary-margin:15}")
+    private int defaultBoundaryMargin;
+
+    @Value("${app.ai.scoring.cascade.top-band-score:75}")
+    private int defaultTopBandScore;
+
+    public ScoringCascadeSettings resolve(JobOffer offer) {
+        return new ScoringCascadeSettings(
+                offer.getScoringCascadeEnabled() != null ? offer.getScoringCascadeEnabled() : defaultEnabled,
+                offer.getCascadeBoundaryScore() != null ? offer.getCascadeBoundaryScore() : defaultBoundaryScore,
+                offer.getCascadeBoundaryMargin() != null ? offer.getCascadeBoundaryMargin() : defaultBoundaryMargin,
+                offer.getCascadeTopBandScore() != null ? offer.getCascadeTopBandScore() : defaultTopBandScore);
+    }
+}
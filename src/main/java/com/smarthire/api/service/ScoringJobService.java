@@ -0,0 +1,170 @@
+package com.smarthire.api.service;
+
+import com.smarthire.api.dto.ScoringJobResponse;
+import com.smarthire.api.model.JobOffer;
+import com.smarthire.api.model.ScoringJob;
+import com.smarthire.api.model.ScoringRun;
+import com.smarthire.api.model.enums.ScoringItemStatus;
+import com.smarthire.api.model.enums.ScoringJobStatus;
+import com.smarthire.api.model.enums.ScoringRunStatus;
+import com.smarthire.api.repository.JobOfferRepository;
+import com.smarthire.api.repository.ScoringJobRepository;
+import com.smarthire.api.repository.ScoringRunRepository;
+import jakarta.persistence.EntityNotFoundException;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Jobs d'analyse IA des CV d'une offre.
+ * Le lancement enregistre un en-tête dans "scoring_runs" et retourne immédiatement l'identifiant du job ;
+ * {@link ScoringRunPreparer} crée ensuite en arrière-plan un élément de travail par candidature dans "scoring_jobs". Les éléments sont traités par les workers
+ * de toutes les instances (voir {@link ScoringJobWorker}) : un redémarrage ou un déploiement
+ * n'interrompt pas le job, les éléments non terminés sont repris.
+ * Seules les candidatures dont le CV ou l'offre ont changé depuis leur dernière notation
+ * sont ajoutées (sauf analyse complète forcée).
+ */
+@Service
+@RequiredArgsConstructor
+public class ScoringJobService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ScoringJobService.class);
+
+    private static final List<ScoringItemStatus> ACTIVE_STATUSES = List.of(ScoringItemStatus.PENDING, ScoringItemStatus.RUNNING);
+
+    private final JobOfferRepository jobOfferRepository;
+    private final ScoringJobRepository scoringJobRepository;
+    private final ScoringRunRepository scoringRunRepository;
+    private final ScoringRunPreparer scoringRunPreparer;
+
+    /**
+     * Lance l'analyse des candidatures d'une offre.
+     * Par défaut, les candidatures déjà notées avec le même CV et la même offre sont ignorées ;
+     * {@code force} re-note toutes les candidatures.
+     * Si une analyse est déjà en cours pour cette offre, c'est elle qui est retournée.
+     */
+    @Transactional
+    public ScoringJobResponse startJob(Long offerId, String rhEmail, boolean force) {
+        JobOffer offer = jobOfferRepository.findById(offerId)
+                .orElseThrow(() -> new EntityNotFoundException("Offre non trouvée."));
+        // Sécurité : Vérifier que le RH est bien le propriétaire de l'offre
+        if (!offer.getCreatedBy().getEmail().equals(rhEmail)) {
+            throw new AccessDeniedException("Vous n'êtes pas autorisé à voir les candidatures de cette offre.");
+        }
+
+        var running = scoringJobRepository.findFirstByOfferIdAndStatusIn(offerId, ACTIVE_STATUSES)
+                .map(ScoringJob::getJobId)
+                .or(() -> scoringRunRepository.findFirstByOfferIdAndStatus(offerId, ScoringRunStatus.PREPARING)
+                        .map(ScoringRun::getJobId));
+        if (running.isPresent()) {
+            return toResponse(findRun(running.get()));
+        }
+
+        // La sélection des candidatures (empreintes, pré-sélection lexicale) lit tous les textes de CV de l'offre :
+        // elle est faite en arrière-plan par ScoringRunPreparer, la requête ne fait qu'enregistrer l'en-tête.
+        ScoringRun run = scoringRunRepository.save(ScoringRun.builder()
+                .jobId(UUID.randomUUID().toString())
+                .offerId(offerId)
+                .requestedBy(rhEmail)
+                .status(ScoringRunStatus.PREPARING)
+                .force(force)
+                .build());
+        scoringRunPreparer.enqueueAfterCommit(run.getJobId());
+        logger.info("Démarrage de l'analyse IA {} pour l'offre {}", run.getJobId(), offerId);
+        return toResponse(run);
+    }
+
+    @Transactional(readOnly = true)
+    public ScoringJobResponse getJob(String jobId, String rhEmail) {
+        return toResponse(findOwnedRun(jobId, rhEmail));
+    }
+
+    /**
+     * Annule un job : les candidatures pas encore prises par un worker ne seront pas traitées
+     * (aucune ne l'est si la sélection des candidatures n'est pas terminée).
+     */
+    @Transactional
+    public ScoringJobResponse cancelJob(String jobId, String rhEmail) {
+        ScoringRun run = findOwnedRun(jobId, rhEmail);
+        if (scoringRunRepository.cancelPreparing(jobId, Instant.now(),
+                ScoringRunStatus.CANCELLED, ScoringRunStatus.PREPARING) > 0) {
+            logger.info("Analyse IA {} annulée avant la sélection des candidatures", jobId);
+            return toResponse(findRun(jobId));
+        }
+        int cancelled = scoringJobRepository.cancelPending(jobId, Instant.now(),
+                ScoringItemStatus.CANCELLED, ScoringItemStatus.PENDING);
+        if (cancelled > 0) {
+            logger.info("Analyse IA {} annulée ({} candidatures non traitées)", jobId, cancelled);
+        }
+        return toResponse(run);
+    }
+
+    private ScoringRun findOwnedRun(String jobId, String rhEmail) {
+        ScoringRun run = findRun(jobId);
+        if (!run.getRequestedBy().equals(rhEmail)) {
+            throw new AccessDeniedException("Vous n'êtes pas autorisé à consulter cette analyse.");
+        }
+        return run;
+    }
+
+    private ScoringRun findRun(String jobId) {
+        return scoringRunRepository.findById(jobId)
+                .orElseThrow(() -> new EntityNotFoundException("Analyse introuvable : " + jobId));
+    }
+
+    // L'état d'un job est calculé à partir des compteurs de ses éléments (un job sans élément est terminé)
+    private ScoringJobResponse toResponse(ScoringRun run) {
+        String jobId = run.getJobId();
+        if (run.getStatus() != ScoringRunStatus.QUEUED) {
+            // Pas encore d'élément : sélection en cours, annulée ou en échec
+            ScoringJobStatus status = switch (run.getStatus()) {
+                case CANCELLED -> ScoringJobStatus.CANCELLED;
+                case FAILED -> ScoringJobStatus.FAILED;
+                default -> ScoringJobStatus.RUNNING;
+            };
+            return new ScoringJobResponse(jobId, run.getOfferId(), status.name(), 0, 0, 0, 0,
+                    run.getCreatedAt(), run.getFinishedAt(), null);
+        }
+        Map<ScoringItemStatus, Integer> counts = new EnumMap<>(ScoringItemStatus.class);
+        for (Object[] row : scoringJobRepository.countByStatusForJob(jobId)) {
+            counts.put((ScoringItemStatus) row[0], ((Number) row[1]).intValue());
+        }
+        int done = counts.getOrDefault(ScoringItemStatus.DONE, 0);
+        int failed = counts.getOrDefault(ScoringItemStatus.FAILED, 0);
+        int cancelled = counts.getOrDefault(ScoringItemStatus.CANCELLED, 0);
+        int remaining = counts.getOrDefault(ScoringItemStatus.PENDING, 0) + counts.getOrDefault(ScoringItemStatus.RUNNING, 0);
+        int total = done + failed + cancelled + remaining;
+
+        Object[] timings = scoringJobRepository.findTimingsForJob(jobId).get(0);
+        Instant startedAt = run.getCreatedAt() != null ? run.getCreatedAt() : (Instant) timings[0];
+        Instant finishedAt = remaining > 0 ? null : timings[1] != null ? (Instant) timings[1] : run.getFinishedAt();
+
+        ScoringJobStatus status;
+        if (remaining > 0) {
+            status = ScoringJobStatus.RUNNING;
+        } else if (cancelled > 0) {
+            status = ScoringJobStatus.CANCELLED;
+        } else {
+            status = ScoringJobStatus.COMPLETED;
+        }
+
+        Long eta = null;
+        int processed = done + failed;
+        if (remaining > 0 && processed > 0 && startedAt != null) {
+            long elapsedMillis = Duration.between(startedAt, Instant.now()).toMillis();
+            eta = elapsedMillis * remaining / processed / 1000;
+        }
+        return new ScoringJobResponse(jobId, run.getOfferId(), status.name(), total, done, failed,
+                remaining, startedAt, finishedAt, eta);
+    }
+}
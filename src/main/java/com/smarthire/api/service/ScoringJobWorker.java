@@ -0,0 +1,313 @@
+package com.smarthire.api.service;
+
+import com.smarthire.api.model.Application;
+import com.smarthire.api.model.CvText;
+import com.smarthire.api.model.ScoringJob;
+import com.smarthire.api.model.enums.ScoringItemStatus;
+import com.smarthire.api.model.enums.ScoringRunStatus;
+import com.smarthire.api.repository.ApplicationRepository;
+import com.smarthire.api.repository.CvTextRepository;
+import com.smarthire.api.repository.ScoringJobRepository;
+import com.smarthire.api.repository.ScoringRunRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityNotFoundException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Worker de la file d'analyse IA, présent sur chaque instance.
+ * À intervalle régulier, il réserve des éléments de "scoring_jobs" (SELECT ... FOR UPDATE SKIP LOCKED,
+ * deux instances ne prennent jamais le même élément) en posant un bail, et les confie au {@link ScoringPipeline} :
+ * - préparation : candidatures, offres et textes de CV lus en une requête chacun pour tout le groupe,
+ *   prompts construits et résultats en cache résolus à l'avance,
+ * - LLM : les CV d'une même offre sont regroupés par lots de {@code app.ai.scoring.batch.max-size}
+ *   envoyés en un seul appel (concurrence bornée, débit limité), repli sur la notation unitaire,
+ * - enregistrement : notes, analyses et fin des éléments écrites par lots (ScoringResultWriter).
+ * Jusqu'à {@code app.ai.scoring.pipeline.prefetch} éléments sont en cours, pour que les appels au LLM
+ * ne se retrouvent jamais à attendre la préparation.
+ * Un échec est retenté plus tard (délai croissant) jusqu'au nombre maximal de tentatives ;
+ * si l'instance s'arrête, ses éléments sont repris par une autre à l'expiration du bail.
+ */
+@Component
+public class ScoringJobWorker {
+
+    private static final Logger logger = LoggerFactory.getLogger(ScoringJobWorker.class);
+
+    private final ScoringJobRepository scoringJobRepository;
+    private final ScoringRunRepository scoringRunRepository;
+    private final ApplicationRepository applicationRepository;
+    private final CvTextRepository cvTextRepository;
+    private final CvTextService cvTextService;
+    private final AIService aiService;
+    private final ScoringResultWriter scoringResultWriter;
+    private final TransactionTemplate transactionTemplate;
+    private final String nodeId;
+
+    private final int prefetch;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final Duration leaseDuration;
+    private final Duration retryDelay;
+    private final Duration retention;
+
+    private final ScoringPipeline pipeline;
+
+    public ScoringJobWorker(ScoringJobRepository scoringJobRepository,
+                            ScoringRunRepository scoringRunRepository,
+                            ApplicationRepository applicationRepository,
+                            CvTextRepository cvTextRepository,
+                            CvTextService cvTextService,
+                            AIService aiService,
+                            ScoringResultWriter scoringResultWriter,
+                            PlatformTransactionManager transactionManager,
+                            MeterRegistry meterRegistry,
+                            NodeIdentity nodeIdentity,
+                            @Value("${app.ai.scoring.concurrency:4}") int concurrency,
+                            @Value("${app.ai.scoring.batch.max-size:5}") int batchSize,
+                            @Value("${app.ai.scoring.max-attempts:3}") int maxAttempts,
+                            @Value("${app.ai.scoring.lease-seconds:300}") long leaseSeconds,
+                            @Value("${app.ai.scoring.retry-delay-seconds:30}") long retryDelaySeconds,
+                            @Value("${app.ai.scoring.retention-days:7}") long retentionDays,
+                            @Value("${app.ai.scoring.pipeline.prefetch:40}") int prefetch,
+                            @Value("${app.ai.scoring.pipeline.prepare-threads:2}") int prepareThreads,
+                            @Value("${app.ai.scoring.pipeline.queue-capacity:16}") int queueCapacity,
+                            @Value("${app.ai.scoring.pipeline.flush-size:20}") int flushSize,
+                            @Value("${app.ai.scoring.pipeline.flush-interval-ms:500}") long flushIntervalMillis) {
+        this.scoringJobRepository = scoringJobRepository;
+        this.scoringRunRepository = scoringRunRepository;
+        this.applicationRepository = applicationRepository;
+        this.cvTextRepository = cvTextRepository;
+        this.cvTextService = cvTextService;
+        this.aiService = aiService;
+        this.scoringResultWriter = scoringResultWriter;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.prefetch = prefetch;
+        this.batchSize = Math.max(1, batchSize);
+        this.maxAttempts = maxAttempts;
+        this.leaseDuration = Duration.ofSeconds(leaseSeconds);
+        this.retryDelay = Duration.ofSeconds(retryDelaySeconds);
+        this.retention = Duration.ofDays(retentionDays);
+        this.nodeId = nodeIdentity.id();
+
+        this.pipeline = new ScoringPipeline(new ScoringStages(), prepareThreads, concurrency, queueCapacity,
+                flushSize, Duration.ofMillis(flushIntervalMillis), meterRegistry);
+    }
+
+    /**
+     * Réserve autant d'éléments qu'il y a de places libres dans le pipeline.
+     */
+    @Scheduled(fixedDelayString = "${app.ai.scoring.poll-interval-ms:2000}")
+    public void poll() {
+        int free = prefetch - pipeline.inFlightItems();
+        if (free <= 0) {
+            return;
+        }
+
+        List<ScoringJob> claimed;
+        try {
+            claimed = transactionTemplate.execute(status -> claim(free));
+        } catch (Exception e) {
+            logger.error("Impossible de réserver des éléments d'analyse IA : {}", e.getMessage());
+            return;
+        }
+
+        // Regroupe les éléments par offre et par RH (même contexte de prompt, un seul contrôle d'accès)
+        Map<String, List<ScoringJob>> byOffer = new LinkedHashMap<>();
+        for (ScoringJob item : claimed) {
+            byOffer.computeIfAbsent(item.getOfferId() + "|" + item.getRequestedBy(), k -> new ArrayList<>()).add(item);
+        }
+        byOffer.values().forEach(pipeline::submit);
+    }
+
+    private List<ScoringJob> claim(int limit) {
+        Instant now = Instant.now();
+        List<Long> ids = scoringJobRepository.lockClaimableIds(now, maxAttempts, limit);
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        scoringJobRepository.claim(ids, nodeId, now.plus(leaseDuration), ScoringItemStatus.RUNNING);
+        return scoringJobRepository.findAllById(ids);
+    }
+
+    /**
+     * Travail des étapes du pipeline.
+     */
+    private class ScoringStages implements ScoringPipeline.Stages {
+
+        @Override
+        public void prepare(List<ScoringJob> group, ScoringPipeline.Output out) throws InterruptedException {
+            // Lecture groupée : candidatures (avec l'offre), puis textes des CV
+            Map<Long, Application> applications = applicationRepository.findAllWithJobOfferByIdIn(
+                            group.stream().map(ScoringJob::getApplicationId).toList()).stream()
+                    .collect(Collectors.toMap(Application::getId, Function.identity()));
+            Map<String, String> cvTexts = cvTextRepository.findAllById(applications.values().stream()
+                            .map(Application::getCvChecksum).filter(Objects::nonNull).distinct().toList()).stream()
+                    .collect(Collectors.toMap(CvText::getContentHash, CvText::getText));
+
+            List<ScoringJob> ready = new ArrayList<>();
+            for (ScoringJob item : group) {
+                Application application = applications.get(item.getApplicationId());
+                if (application == null) {
+                    out.failed(item, new EntityNotFoundException("Candidature non trouvée."));
+                } else if (!application.getJobOffer().getCreatedBy().getEmail().equals(item.getRequestedBy())) {
+                    out.failed(item, new AccessDeniedException("Vous n'êtes pas autorisé à analyser cette candidature."));
+                } else {
+                    ready.add(item);
+                }
+            }
+
+            // Par tranches : les premiers lots partent vers le LLM pendant la préparation des suivants
+            for (int i = 0; i < ready.size(); i += batchSize) {
+                Map<Long, ScoringJob> items = new HashMap<>();
+                List<AIService.PreparedScoring> toScore = new ArrayList<>();
+                for (ScoringJob item : ready.subList(i, Math.min(i + batchSize, ready.size()))) {
+                    Application application = applications.get(item.getApplicationId());
+                    AIService.PreparedScoring prepared;
+                    try {
+                        // Texte déjà extrait (cas courant), sinon extraction maintenant
+                        String cvText = cvTexts.get(application.getCvChecksum());
+                        prepared = aiService.prepareScoring(application,
+                                cvText != null ? cvText : cvTextService.getText(application));
+                    } catch (Exception e) {
+                        out.failed(item, e);
+                        continue;
+                    }
+                    if (prepared.needsLlm()) {
+                        items.put(item.getApplicationId(), item);
+                        toScore.add(prepared);
+                    } else {
+                        out.done(new ScoringPipeline.ScoredItem(item, prepared, prepared.cachedResult()));
+                    }
+                }
+                if (toScore.isEmpty()) {
+                    continue;
+                }
+                for (List<AIService.PreparedScoring> batch : aiService.planBatches(toScore.get(0).offer(), toScore, batchSize)) {
+                    out.toLlm(new ScoringPipeline.LlmUnit(
+                            batch.stream().map(prepared -> items.get(prepared.applicationId())).toList(), batch));
+                }
+            }
+        }
+
+        @Override
+        public void score(ScoringPipeline.LlmUnit unit, ScoringPipeline.Output out) throws InterruptedException {
+            List<ScoringJob> remainingItems = unit.items();
+            List<AIService.PreparedScoring> remaining = unit.prepared();
+            if (remaining.size() > 1) {
+                try {
+                    // Quota : chaque appel aux modèles de notation prend sa place (voir GeminiConfig.scoringRateLimiter)
+                    var batch = aiService.scorePreparedBatch(remaining.get(0).offer(), remaining);
+                    List<ScoringJob> notScoredItems = new ArrayList<>();
+                    List<AIService.PreparedScoring> notScored = new ArrayList<>();
+                    for (int i = 0; i < remaining.size(); i++) {
+                        AIService.PreparedScoring prepared = remaining.get(i);
+                        var result = batch.results().get(prepared.applicationId());
+                        if (result != null) {
+                            out.done(new ScoringPipeline.ScoredItem(remainingItems.get(i), prepared, result));
+                        } else {
+                            // Note du modèle rapide à confirmer : transmise pour ne pas rappeler ce modèle
+                            var cheap = batch.toConfirm().get(prepared.applicationId());
+                            notScoredItems.add(remainingItems.get(i));
+                            notScored.add(cheap != null ? prepared.withCheapToConfirm(cheap) : prepared);
+                        }
+                    }
+                    remainingItems = notScoredItems;
+                    remaining = notScored;
+                } catch (InterruptedException e) {
+                    throw e;
+                } catch (Exception e) {
+                    logger.warn("Notation par lot impossible ({} CV), repli sur la notation unitaire : {}",
+                            remaining.size(), e.getMessage());
+                }
+            }
+
+            // Repli : notation unitaire des candidatures non traitées par le lot
+            for (int i = 0; i < remaining.size(); i++) {
+                ScoringJob item = remainingItems.get(i);
+                AIService.PreparedScoring prepared = remaining.get(i);
+                try {
+                    out.done(new ScoringPipeline.ScoredItem(item, prepared, aiService.scorePrepared(prepared)));
+                } catch (Exception e) {
+                    if (Thread.interrupted()) {
+                        throw new InterruptedException("Notation interrompue");
+                    }
+                    out.failed(item, e);
+                }
+            }
+        }
+
+        @Override
+        public void persist(List<ScoringPipeline.ScoredItem> results) {
+            scoringResultWriter.write(results, nodeId);
+        }
+
+        @Override
+        public void failed(ScoringJob item, Exception e) {
+            logger.error("Erreur lors de l'analyse du candidat {} (tentative {}/{}) : {}",
+                    item.getApplicationId(), item.getAttempts(), maxAttempts, e.getMessage());
+            if (item.getAttempts() >= maxAttempts) {
+                release(item, ScoringItemStatus.FAILED, e.getMessage(), Instant.now(), Instant.now());
+            } else {
+                // Délai avant nouvelle tentative, croissant avec le nombre d'essais
+                Instant retryAt = Instant.now().plus(retryDelay.multipliedBy(item.getAttempts()));
+                release(item, ScoringItemStatus.PENDING, e.getMessage(), retryAt, null);
+            }
+        }
+    }
+
+    private void release(ScoringJob item, ScoringItemStatus status, String error, Instant availableAt, Instant finishedAt) {
+        String truncatedError = error != null && error.length() > 500 ? error.substring(0, 500) : error;
+        try {
+            transactionTemplate.executeWithoutResult(tx -> {
+                int updated = scoringJobRepository.release(item.getId(), nodeId, status, truncatedError, availableAt, finishedAt);
+                if (updated == 0) {
+                    logger.warn("Bail perdu pour l'élément d'analyse {} : résultat ignoré", item.getId());
+                }
+            });
+        } catch (Exception e) {
+            // L'élément sera repris à l'expiration du bail
+            logger.error("Impossible de mettre à jour l'élément d'analyse {} : {}", item.getId(), e.getMessage());
+        }
+    }
+
+    /**
+     * Termine les éléments abandonnés sans tentative restante et supprime les anciens éléments terminés
+     * (puis les en-têtes de lancement qui n'ont plus d'élément).
+     */
+    @Scheduled(fixedDelayString = "${app.ai.scoring.maintenance-interval-ms:600000}")
+    public void maintenance() {
+        try {
+            Instant now = Instant.now();
+            transactionTemplate.executeWithoutResult(tx -> {
+                scoringJobRepository.failExpired(now, maxAttempts, ScoringItemStatus.RUNNING, ScoringItemStatus.FAILED);
+                scoringJobRepository.deleteFinishedBefore(now.minus(retention));
+                scoringRunRepository.deleteWithoutItemsBefore(now.minus(retention), ScoringRunStatus.PREPARING);
+            });
+        } catch (Exception e) {
+            logger.error("Erreur lors de la maintenance de la file d'analyse IA : {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pipeline.shutdown();
+    }
+}
@@ -0,0 +1,249 @@
+package com.smarthire.api.service;
+
+import com.smarthire.api.dto.ScoringResult;
+import com.smarthire.api.model.ScoringJob;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Pipeline de notation IA en trois étapes, reliées par des files bornées :
+ * <pre>
+ *   préparation (lecture groupée des candidatures et des textes de CV, prompts, cache)
+ *     -> appels au LLM ({@code llmThreads} en parallèle)
+ *       -> enregistrement (résultats regroupés en une écriture par lot)
+ * </pre>
+ * Chaque étape a ses propres threads : pendant qu'un appel au LLM est en cours, les CV suivants
+ * sont préparés et les résultats précédents enregistrés. Une file pleine bloque l'étape qui l'alimente,
+ * ce qui borne la mémoire et le nombre d'éléments en cours.
+ * Le travail de chaque étape est fourni par {@link Stages} (voir ScoringJobWorker).
+ * Métriques : ai.scoring.pipeline.queue (profondeur), ai.scoring.pipeline.busy (temps occupé par étape).
+ */
+public class ScoringPipeline {
+
+    private static final Logger logger = LoggerFactory.getLogger(ScoringPipeline.class);
+
+    /**
+     * Candidatures notées ensemble par un appel au LLM (une seule : notation unitaire).
+     */
+    public record LlmUnit(List<ScoringJob> items, List<AIService.PreparedScoring> prepared) {}
+
+    /**
+     * Résultat prêt à être enregistré ({@code result} est null pour un CV vide).
+     */
+    public record ScoredItem(ScoringJob item, AIService.PreparedScoring prepared, ScoringResult result) {}
+
+    /**
+     * Sorties d'une étape.
+     */
+    public interface Output {
+        void toLlm(LlmUnit unit) throws InterruptedException;
+
+        void done(ScoredItem scored) throws InterruptedException;
+
+        void failed(ScoringJob item, Exception error);
+    }
+
+    /**
+     * Travail de chaque étape.
+     */
+    public interface Stages {
+        void prepare(List<ScoringJob> group, Output out) throws Exception;
+
+        void score(LlmUnit unit, Output out) throws Exception;
+
+        void persist(List<ScoredItem> results) throws Exception;
+
+        // Élément en échec (nouvelle tentative ou abandon)
+        void failed(ScoringJob item, Exception error);
+    }
+
+    public enum Stage { PREPARE, LLM, PERSIST }
+
+    private final Stages stages;
+    private final int flushSize;
+    private final Duration flushInterval;
+
+    private final BlockingQueue<List<ScoringJob>> prepareQueue = new LinkedBlockingQueue<>();
+    private final BlockingQueue<LlmUnit> llmQueue;
+    private final BlockingQueue<ScoredItem> persistQueue;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private final Map<Stage, LongAdder> busyNanos = new LinkedHashMap<>();
+    private final Map<Stage, Integer> threadCounts = new LinkedHashMap<>();
+    private final List<Thread> threads = new ArrayList<>();
+    private final long startedAt = System.nanoTime();
+
+    private final Output output = new Output() {
+        @Override
+        public void toLlm(LlmUnit unit) throws InterruptedException {
+            llmQueue.put(unit);
+        }
+
+        @Override
+        public void done(ScoredItem scored) throws InterruptedException {
+            persistQueue.put(scored);
+        }
+
+        @Override
+        public void failed(ScoringJob item, Exception error) {
+            try {
+                stages.failed(item, error);
+            } finally {
+                inFlight.decrementAndGet();
+            }
+        }
+    };
+
+    public ScoringPipeline(Stages stages, int prepareThreads, int llmThreads, int queueCapacity,
+                           int flushSize, Duration flushInterval, MeterRegistry meterRegistry) {
+        this.stages = stages;
+        this.flushSize = Math.max(1, flushSize);
+        this.flushInterval = flushInterval;
+        this.llmQueue = new ArrayBlockingQueue<>(Math.max(1, queueCapacity));
+        this.persistQueue = new ArrayBlockingQueue<>(Math.max(this.flushSize, queueCapacity));
+
+        for (Stage stage : Stage.values()) {
+            busyNanos.put(stage, new LongAdder());
+        }
+        threadCounts.put(Stage.PREPARE, prepareThreads);
+        threadCounts.put(Stage.LLM, llmThreads);
+        threadCounts.put(Stage.PERSIST, 1); // Un seul écrivain : les écritures sont regroupées
+
+        // --- Métriques (exposées via /actuator/metrics) ---
+        Gauge.builder("ai.scoring.pipeline.queue", prepareQueue, BlockingQueue::size).tag("stage", "prepare").register(meterRegistry);
+        Gauge.builder("ai.scoring.pipeline.queue", llmQueue, BlockingQueue::size).tag("stage", "llm").register(meterRegistry);
+        Gauge.builder("ai.scoring.pipeline.queue", persistQueue, BlockingQueue::size).tag("stage", "persist").register(meterRegistry);
+        Gauge.builder("ai.scoring.pipeline.in-flight", inFlight, AtomicInteger::get).register(meterRegistry);
+        for (Stage stage : Stage.values()) {
+            FunctionCounter.builder("ai.scoring.pipeline.busy", busyNanos.get(stage), adder -> adder.sum() / 1e9)
+                    .description("Temps cumulé (s) passé à travailler par les threads de l'étape")
+                    .baseUnit("seconds")
+                    .tag("stage", stage.name().toLowerCase())
+                    .register(meterRegistry);
+        }
+
+        for (int i = 1; i <= prepareThreads; i++) {
+            start("ai-scoring-prepare-" + i, this::runPrepare);
+        }
+        for (int i = 1; i <= llmThreads; i++) {
+            start("ai-scoring-llm-" + i, this::runLlm);
+        }
+        start("ai-scoring-persist", this::runPersist);
+    }
+
+    /**
+     * Ajoute un groupe d'éléments (même offre, même RH) à l'étape de préparation.
+     */
+    public void submit(List<ScoringJob> group) {
+        inFlight.addAndGet(group.size());
+        prepareQueue.add(group);
+    }
+
+    // Éléments soumis et pas encore enregistrés ni en échec
+    public int inFlightItems() {
+        return inFlight.get();
+    }
+
+    /**
+     * Taux d'occupation de chaque étape depuis le démarrage : temps de travail / (threads x durée).
+     */
+    public Map<Stage, Double> utilization() {
+        double elapsed = System.nanoTime() - startedAt;
+        Map<Stage, Double> utilization = new LinkedHashMap<>();
+        for (Stage stage : Stage.values()) {
+            utilization.put(stage, busyNanos.get(stage).sum() / (elapsed * threadCounts.get(stage)));
+        }
+        return utilization;
+    }
+
+    public void shutdown() {
+        threads.forEach(Thread::interrupt);
+    }
+
+    private void runPrepare() throws InterruptedException {
+        List<ScoringJob> group = prepareQueue.take();
+        long start = System.nanoTime();
+        try {
+            stages.prepare(group, output);
+        } catch (InterruptedException e) {
+            throw e;
+        } catch (Exception e) {
+            logger.error("Échec de la préparation de {} éléments d'analyse : {}", group.size(), e.getMessage());
+            group.forEach(item -> output.failed(item, e));
+        } finally {
+            busyNanos.get(Stage.PREPARE).add(System.nanoTime() - start);
+        }
+    }
+
+    private void runLlm() throws InterruptedException {
+        LlmUnit unit = llmQueue.take();
+        long start = System.nanoTime();
+        try {
+            stages.score(unit, output);
+        } catch (InterruptedException e) {
+            throw e;
+        } catch (Exception e) {
+            unit.items().forEach(item -> output.failed(item, e));
+        } finally {
+            busyNanos.get(Stage.LLM).add(System.nanoTime() - start);
+        }
+    }
+
+    private void runPersist() throws InterruptedException {
+        ScoredItem first = persistQueue.poll(flushInterval.toMillis(), TimeUnit.MILLISECONDS);
+        if (first == null) {
+            return;
+        }
+        List<ScoredItem> results = new ArrayList<>(flushSize);
+        results.add(first);
+        persistQueue.drainTo(results, flushSize - 1);
+
+        long start = System.nanoTime();
+        try {
+            stages.persist(results);
+            inFlight.addAndGet(-results.size());
+        } catch (Exception e) {
+            logger.error("Échec de l'enregistrement de {} résultats d'analyse : {}", results.size(), e.getMessage());
+            results.forEach(scored -> output.failed(scored.item(), e));
+        } finally {
+            busyNanos.get(Stage.PERSIST).add(System.nanoTime() - start);
+        }
+    }
+
+    @FunctionalInterface
+    private interface Loop {
+        void runOnce() throws InterruptedException;
+    }
+
+    private void start(String name, Loop loop) {
+        Thread thread = new Thread(() -> {
+            while (!Thread.currentThread().isInterrupted()) {
+                try {
+                    loop.runOnce();
+                } catch (InterruptedException e) {
+                    return; // Arrêt : les éléments non terminés seront repris à l'expiration de leur bail
+                } catch (Exception e) {
+                    logger.error("Erreur inattendue dans le pipeline d'analyse IA : {}", e.getMessage());
+                }
+            }
+        }, name);
+        thread.setDaemon(true);
+        threads.add(thread);
+        thread.start();
+    }
+}
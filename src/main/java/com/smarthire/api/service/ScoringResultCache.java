@@ -0,0 +1,112 @@
+package com.smarthire.api.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.smarthire.api.dto.ScoringResult;
+import com.smarthire.api.model.LlmScoreCache;
+import com.smarthire.api.repository.LlmScoreCacheRepository;
+import com.smarthire.api.utils.HashUtils;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * Cache des notations IA, adressé par contenu.
+ * Deux niveaux : une mémoire locale (Caffeine) puis la table "llm_score_cache", partagée entre instances.
+ * Une nouvelle analyse d'un CV inchangé, ou d'une offre dupliquée, ne rappelle donc pas le LLM.
+ * Les résultats sont conservés en base pendant une durée limitée (app.ai.scoring.cache.retention-days).
+ */
+@Service
+public class ScoringResultCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(ScoringResultCache.class);
+
+    private final LlmScoreCacheRepository repository;
+    private final Cache<String, ScoringResult> memory;
+    private final Duration retention;
+
+    private final Counter memoryHits;
+    private final Counter databaseHits;
+    private final Counter misses;
+
+    public ScoringResultCache(LlmScoreCacheRepository repository,
+                              MeterRegistry meterRegistry,
+                              @Value("${app.ai.scoring.cache.memory-size:10000}") long memorySize,
+                              @Value("${app.ai.scoring.cache.memory-ttl-hours:24}") long memoryTtlHours,
+                              @Value("${app.ai.scoring.cache.retention-days:90}") long retentionDays) {
+        this.repository = repository;
+        this.retention = Duration.ofDays(retentionDays);
+        this.memory = Caffeine.newBuilder()
+                .maximumSize(memorySize)
+                .expireAfterAccess(Duration.ofHours(memoryTtlHours))
+                .build();
+
+        // --- Métriques (exposées via /actuator/metrics) ---
+        this.memoryHits = meterRegistry.counter("ai.scoring.cache", "result", "hit", "tier", "memory");
+        this.databaseHits = meterRegistry.counter("ai.scoring.cache", "result", "hit", "tier", "database");
+        this.misses = meterRegistry.counter("ai.scoring.cache", "result", "miss", "tier", "none");
+    }
+
+    /**
+     * Clé de cache : empreinte du modèle, de la version du prompt et du prompt complet.
+     */
+    public static String key(String modelName, String promptVersion, String prompt) {
+        return HashUtils.sha256Hex(modelName + "\n" + promptVersion + "\n" + prompt);
+    }
+
+    public Optional<ScoringResult> get(String key) {
+        ScoringResult cached = memory.getIfPresent(key);
+        if (cached != null) {
+            memoryHits.increment();
+            return Optional.of(cached);
+        }
+
+        Optional<ScoringResult> stored = repository.findById(key)
+                .map(entry -> new ScoringResult(entry.getScore(), entry.getSummary()));
+        if (stored.isPresent()) {
+            databaseHits.increment();
+            memory.put(key, stored.get());
+        } else {
+            misses.increment();
+        }
+        return stored;
+    }
+
+    public void put(String key, String modelName, String promptVersion, ScoringResult result) {
+        memory.put(key, result);
+        try {
+            repository.save(LlmScoreCache.builder()
+                    .cacheKey(key)
+                    .score(result.score())
+                    .summary(result.summary())
+                    .modelName(modelName)
+                    .promptVersion(promptVersion)
+                    .build());
+        } catch (DataIntegrityViolationException e) {
+            // Une autre instance a enregistré le même résultat entre-temps
+            logger.debug("Résultat IA déjà en cache : {}", key);
+        }
+    }
+
+    // Purge des résultats trop anciens (la mémoire locale expire d'elle-même)
+    @Scheduled(fixedDelayString = "${app.ai.scoring.cache.purge-interval-ms:86400000}")
+    public void purgeExpired() {
+        try {
+            int deleted = repository.deleteCreatedBefore(Instant.now().minus(retention));
+            if (deleted > 0) {
+                logger.info("{} résultats de notation IA expirés supprimés du cache", deleted);
+            }
+        } catch (Exception e) {
+            logger.error("Impossible de purger le cache des notations IA : {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.smarthire.api.service;
+
+import com.smarthire.api.dto.ScoringResult;
+import com.smarthire.api.model.enums.ScoringItemStatus;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Étape d'enregistrement du pipeline d'analyse IA : les résultats d'un lot (note, analyse, empreinte)
+ * et la fin des éléments de travail correspondants sont écrits en une transaction, avec des requêtes
+ * JDBC groupées, au lieu de deux transactions par candidature (chacune relisant le RH et la candidature).
+ * Le contrôle d'accès a été fait à la préparation (le RH est propriétaire de l'offre).
+ * Seuls les résultats des éléments dont cette instance détient encore le bail sont enregistrés :
+ * les éléments sont terminés d'abord (mise à jour conditionnée au bail, ligne verrouillée jusqu'au commit),
+ * puis seules les candidatures des éléments effectivement terminés sont mises à jour. Un élément repris
+ * par une autre instance après expiration du bail n'est donc écrit que par celle-ci.
+ */
+@Component
+@RequiredArgsConstructor
+public class ScoringResultWriter {
+
+    // Les valeurs absentes (note illisible, analyse vide, CV vide) ne remplacent pas les valeurs existantes
+    private static final String UPDATE_APPLICATION = "UPDATE applications SET " +
+            "cv_score = COALESCE(?, cv_score), " +
+            "cv_score_provisional = CASE WHEN ? IS NULL THEN cv_score_provisional ELSE FALSE END, " +
+            "internal_notes = COALESCE(?, internal_notes), " +
+            "scoring_fingerprint = COALESCE(?, scoring_fingerprint) " +
+            "WHERE id = ?";
+
+    // Mise à jour conditionnée au bail, comme ScoringJobRepository.release
+    private static final String COMPLETE_ITEM = "UPDATE scoring_jobs SET status = ?, last_error = NULL, " +
+            "finished_at = ?, lease_owner = NULL, lease_expires_at = NULL WHERE id = ? AND lease_owner = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Transactional
+    public void write(List<ScoringPipeline.ScoredItem> results, String nodeId) {
+        Timestamp now = Timestamp.from(Instant.now());
+        int[][] completed = jdbcTemplate.batchUpdate(COMPLETE_ITEM, results, results.size(), (ps, scored) -> {
+            ps.setString(1, ScoringItemStatus.DONE.name());
+            ps.setTimestamp(2, now);
+            ps.setLong(3, scored.item().getId());
+            ps.setString(4, nodeId);
+        });
+
+        // Nombre de lignes exact par élément (le pilote ne réécrit pas les lots : pas de rewriteBatchedStatements)
+        List<ScoringPipeline.ScoredItem> owned = new ArrayList<>();
+        int index = 0;
+        for (int[] batch : completed) {
+            for (int count : batch) {
+                if (count > 0) {
+                    owned.add(results.get(index));
+                }
+                index++;
+            }
+        }
+        if (owned.isEmpty()) {
+            return;
+        }
+
+        jdbcTemplate.batchUpdate(UPDATE_APPLICATION, owned, owned.size(), (ps, scored) -> {
+            ScoringResult result = scored.result();
+            Integer score = result != null ? result.score() : null;
+            String summary = result != null && result.summary() != null && !result.summary().isEmpty() ? result.summary() : null;
+            // L'empreinte n'est enregistrée que pour une note lue (ou un CV vide) : sinon, la candidature sera re-notée
+            String fingerprint = score != null || scored.prepared().emptyCv() ? scored.prepared().fingerprint() : null;
+
+            ps.setObject(1, score, Types.INTEGER);
+            ps.setObject(2, score, Types.INTEGER);
+            ps.setString(3, summary);
+            ps.setString(4, fingerprint);
+            ps.setLong(5, scored.prepared().applicationId());
+        });
+    }
+}
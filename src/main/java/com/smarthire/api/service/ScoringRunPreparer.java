@@ -0,0 +1,256 @@
+package com.smarthire.api.service;
+
+import com.smarthire.api.dto.ScoringCandidate;
+import com.smarthire.api.model.JobOffer;
+import com.smarthire.api.model.ScoringRun;
+import com.smarthire.api.model.enums.ScoringItemStatus;
+import com.smarthire.api.model.enums.ScoringRunStatus;
+import com.smarthire.api.repository.ApplicationRepository;
+import com.smarthire.api.repository.JobOfferRepository;
+import com.smarthire.api.repository.ScoringRunRepository;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityNotFoundException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Préparation des lancements d'analyse IA, en arrière-plan (hors de la requête HTTP) :
+ * sélection des candidatures dont le CV ou l'offre ont changé, pré-sélection lexicale (BM25, lit
+ * tous les textes de CV de l'offre), puis écriture groupée des notes provisoires et des éléments
+ * de travail de "scoring_jobs", pris ensuite par {@link ScoringJobWorker}.
+ * Le lancement est réservé avec un bail (même principe que les éléments) : si l'instance s'arrête
+ * pendant la préparation, une autre la reprend à l'expiration du bail.
+ * Aucune connexion n'est gardée pendant la pré-sélection : seules la lecture des candidatures
+ * et l'écriture finale sont faites en transaction.
+ */
+@Component
+public class ScoringRunPreparer {
+
+    private static final Logger logger = LoggerFactory.getLogger(ScoringRunPreparer.class);
+
+    private static final String UPDATE_PROVISIONAL_SCORE = "UPDATE applications SET cv_score = ?, " +
+            "cv_score_provisional = TRUE, scoring_fingerprint = ? WHERE id = ?";
+
+    private static final String INSERT_ITEM = "INSERT INTO scoring_jobs (job_id, offer_id, application_id, requested_by, " +
+            "status, attempts, available_at, created_at) VALUES (?, ?, ?, ?, ?, 0, ?, ?)";
+
+    private final ScoringRunRepository scoringRunRepository;
+    private final JobOfferRepository jobOfferRepository;
+    private final ApplicationRepository applicationRepository;
+    private final AIService aiService;
+    private final LexicalPrescreenService lexicalPrescreenService;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ThreadPoolExecutor executor;
+    private final String nodeId;
+
+    private final int maxAttempts;
+    private final Duration leaseDuration;
+    private final Duration retryDelay;
+
+    public ScoringRunPreparer(ScoringRunRepository scoringRunRepository,
+                              JobOfferRepository jobOfferRepository,
+                              ApplicationRepository applicationRepository,
+                              AIService aiService,
+                              LexicalPrescreenService lexicalPrescreenService,
+                              JdbcTemplate jdbcTemplate,
+                              PlatformTransactionManager transactionManager,
+                              NodeIdentity nodeIdentity,
+                              @Value("${app.ai.scoring.prepare.threads:1}") int threads,
+                              @Value("${app.ai.scoring.prepare.queue-capacity:100}") int queueCapacity,
+                              @Value("${app.ai.scoring.max-attempts:3}") int maxAttempts,
+                              @Value("${app.ai.scoring.lease-seconds:300}") long leaseSeconds,
+                              @Value("${app.ai.scoring.retry-delay-seconds:30}") long retryDelaySeconds) {
+        this.scoringRunRepository = scoringRunRepository;
+        this.jobOfferRepository = jobOfferRepository;
+        this.applicationRepository = applicationRepository;
+        this.aiService = aiService;
+        this.lexicalPrescreenService = lexicalPrescreenService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.maxAttempts = maxAttempts;
+        this.leaseDuration = Duration.ofSeconds(leaseSeconds);
+        this.retryDelay = Duration.ofSeconds(retryDelaySeconds);
+        this.nodeId = nodeIdentity.id();
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "scoring-prepare-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Prépare le lancement une fois la transaction courante validée (l'en-tête doit être visible).
+     */
+    public void enqueueAfterCommit(String jobId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    enqueue(jobId);
+                }
+            });
+        } else {
+            enqueue(jobId);
+        }
+    }
+
+    private void enqueue(String jobId) {
+        try {
+            executor.execute(() -> prepare(jobId));
+        } catch (RejectedExecutionException e) {
+            logger.warn("File de préparation pleine : le lancement {} sera repris par la prochaine vérification.", jobId);
+        }
+    }
+
+    /**
+     * Reprend les lancements jamais préparés (file pleine, instance arrêtée avant la préparation)
+     * ou dont le bail a expiré, et termine ceux dont toutes les tentatives ont échoué.
+     */
+    @Scheduled(fixedDelayString = "${app.ai.scoring.poll-interval-ms:2000}")
+    public void poll() {
+        int free = executor.getQueue().remainingCapacity();
+        if (free <= 0) {
+            return;
+        }
+        try {
+            Instant now = Instant.now();
+            transactionTemplate.executeWithoutResult(tx -> scoringRunRepository.failExhausted(
+                    now, maxAttempts, ScoringRunStatus.PREPARING, ScoringRunStatus.FAILED));
+            scoringRunRepository.findClaimable(now, maxAttempts, ScoringRunStatus.PREPARING, PageRequest.of(0, free))
+                    .forEach(this::enqueue);
+        } catch (Exception e) {
+            logger.error("Impossible de vérifier les lancements d'analyse IA à préparer : {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Réserve puis prépare un lancement ; sans effet si une autre instance l'a déjà réservé.
+     *
+     * @return true si le lancement a été préparé par cet appel.
+     */
+    public boolean prepare(String jobId) {
+        Instant now = Instant.now();
+        Integer claimed = transactionTemplate.execute(tx -> scoringRunRepository.claim(jobId, nodeId, now,
+                now.plus(leaseDuration), maxAttempts, ScoringRunStatus.PREPARING));
+        if (claimed == null || claimed == 0) {
+            return false;
+        }
+
+        try {
+            return prepareClaimed(jobId);
+        } catch (Exception e) {
+            logger.error("Erreur lors de la préparation de l'analyse IA {} : {}", jobId, e.getMessage());
+            String error = e.getMessage() != null && e.getMessage().length() > 500 ? e.getMessage().substring(0, 500) : e.getMessage();
+            try {
+                // Nouvelle tentative à l'expiration du bail prolongé (ou abandon si les tentatives sont épuisées)
+                transactionTemplate.executeWithoutResult(tx -> scoringRunRepository.retryLater(
+                        jobId, nodeId, error, Instant.now().plus(retryDelay), ScoringRunStatus.PREPARING));
+            } catch (Exception ignored) {
+                // Le lancement sera repris à l'expiration du bail
+            }
+            return false;
+        }
+    }
+
+    private record Selection(ScoringRun run, JobOffer offer, List<ScoringCandidate> candidates, List<ScoringCandidate> toScore) {}
+
+    private boolean prepareClaimed(String jobId) {
+        // Lecture : en-tête, offre et candidatures (projection), puis la transaction est libérée
+        Selection selection = transactionTemplate.execute(tx -> {
+            ScoringRun run = scoringRunRepository.findById(jobId)
+                    .orElseThrow(() -> new EntityNotFoundException("Analyse introuvable : " + jobId));
+            JobOffer offer = jobOfferRepository.findById(run.getOfferId())
+                    .orElseThrow(() -> new EntityNotFoundException("Offre non trouvée."));
+            List<ScoringCandidate> candidates = applicationRepository.findScoringCandidates(offer.getId());
+            List<ScoringCandidate> toScore = candidates.stream()
+                    .filter(candidate -> run.isForce() || !aiService.scoringFingerprint(offer, candidate.cvChecksum())
+                            .equals(candidate.scoringFingerprint()))
+                    .toList();
+            return new Selection(run, offer, candidates, toScore);
+        });
+
+        // Pré-sélection lexicale : les CV peu pertinents reçoivent une note provisoire sans appel au LLM
+        LexicalPrescreenService.Decision decision = lexicalPrescreenService.prescreen(
+                selection.offer(), selection.candidates(), selection.toScore());
+
+        List<Object[]> provisional = new ArrayList<>();
+        List<ScoringCandidate> toLlm = new ArrayList<>();
+        for (ScoringCandidate candidate : selection.toScore()) {
+            Integer score = decision.provisionalScores().get(candidate.applicationId());
+            if (score != null) {
+                provisional.add(new Object[]{score,
+                        aiService.scoringFingerprint(selection.offer(), candidate.cvChecksum()), candidate.applicationId()});
+            } else if (decision.toLlm().contains(candidate.applicationId())) {
+                toLlm.add(candidate);
+            }
+        }
+
+        // Écriture groupée, conditionnée au bail : rien n'est écrit si le lancement a été annulé entre-temps
+        ScoringRun run = selection.run();
+        Boolean written = transactionTemplate.execute(tx -> {
+            Instant now = Instant.now();
+            int finished = scoringRunRepository.finish(jobId, nodeId, ScoringRunStatus.QUEUED,
+                    toLlm.isEmpty() ? now : null, null, ScoringRunStatus.PREPARING);
+            if (finished == 0) {
+                return false;
+            }
+            if (!provisional.isEmpty()) {
+                jdbcTemplate.batchUpdate(UPDATE_PROVISIONAL_SCORE, provisional);
+            }
+            if (toLlm.isEmpty()) {
+                return true;
+            }
+            Timestamp timestamp = Timestamp.from(now);
+            jdbcTemplate.batchUpdate(INSERT_ITEM, toLlm, toLlm.size(), (ps, candidate) -> {
+                ps.setString(1, jobId);
+                ps.setLong(2, run.getOfferId());
+                ps.setLong(3, candidate.applicationId());
+                ps.setString(4, run.getRequestedBy());
+                ps.setString(5, ScoringItemStatus.PENDING.name());
+                ps.setTimestamp(6, timestamp);
+                ps.setTimestamp(7, timestamp);
+            });
+            return true;
+        });
+
+        if (!Boolean.TRUE.equals(written)) {
+            logger.info("Analyse IA {} annulée ou reprise par une autre instance pendant la préparation", jobId);
+            return false;
+        }
+        logger.info("Analyse IA {} pour l'offre {} préparée ({} candidatures envoyées au LLM, {} notées localement, {} inchangées)",
+                jobId, run.getOfferId(), toLlm.size(), provisional.size(),
+                selection.candidates().size() - selection.toScore().size());
+        return true;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
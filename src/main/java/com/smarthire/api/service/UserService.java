@@ -2,7 +2,11 @@ package com.smarthire.api.service;
 
 import com.smarthire.api.dto.ProfileUpdateDTO; // AJOUT
 import com.smarthire.api.dto.ProfileViewDTO; // AJOUT
+import com.smarthire.api.model.ImageVariant;
+import com.smarthire.api.model.ProfilePicture;
 import com.smarthire.api.model.User;
+import com.smarthire.api.model.enums.ImageVariantType;
+import com.smarthire.api.repository.ProfilePictureRepository;
 import com.smarthire.api.repository.UserRepository;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
@@ -12,12 +16,15 @@ import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
 import java.util.List;
+import java.util.Optional;
 
 @Service
 @RequiredArgsConstructor
 public class UserService {
 
     private final UserRepository userRepository;
+    private final ProfilePictureRepository profilePictureRepository;
+    private final ImageService imageService;
 
     // Limite de taille pour la photo (ex: 5MB)
     // Cohérent avec votre application.properties
@@ -38,7 +45,9 @@ public class UserService {
                 .firstName(user.getFirstName())
                 .lastName(user.getLastName())
                 .phoneNumber(user.getPhoneNumber())
-                .hasProfilePicture(user.getProfilePicture() != null)
+                .hasProfilePicture(user.isHasProfilePicture())
+                .profilePictureThumbnailUrl(ImageVariantType.THUMBNAIL.url(user.getProfilePictureHash()))
+                .profilePictureUrl(ImageVariantType.CARD.url(user.getProfilePictureHash()))
                 .build();
     }
 
@@ -71,7 +80,9 @@ public class UserService {
                 .firstName(updatedUser.getFirstName())
                 .lastName(updatedUser.getLastName())
                 .phoneNumber(updatedUser.getPhoneNumber())
-                .hasProfilePicture(updatedUser.getProfilePicture() != null)
+                .hasProfilePicture(updatedUser.isHasProfilePicture())
+                .profilePictureThumbnailUrl(ImageVariantType.THUMBNAIL.url(updatedUser.getProfilePictureHash()))
+                .profilePictureUrl(ImageVariantType.CARD.url(updatedUser.getProfilePictureHash()))
                 .build();
     }
 
@@ -100,25 +111,42 @@ public class UserService {
                 .orElseThrow(() -> new EntityNotFoundException("Utilisateur introuvable pour l'email: " + userEmail));
 
         byte[] pictureData = file.getBytes();
+        // Versions redimensionnées, sans métadonnées (servies via /api/images/...)
+        ImageService.ProcessedImage image = imageService.store(pictureData);
 
-        user.setProfilePicture(pictureData);
-        user.setProfilePictureType(file.getContentType());
+        // L'original est conservé à part (table profile_pictures), l'utilisateur ne garde que les métadonnées
+        ProfilePicture picture = profilePictureRepository.findById(user.getId())
+                .orElseGet(() -> ProfilePicture.builder().userId(user.getId()).build());
+        picture.setContentType(file.getContentType());
+        picture.setData(pictureData);
+        profilePictureRepository.save(picture);
+
+        String previousHash = user.getProfilePictureHash();
+        user.setHasProfilePicture(true);
+        user.setProfilePictureHash(image.sourceHash());
 
         userRepository.save(user);
+        if (!image.sourceHash().equals(previousHash)) {
+            imageService.releaseIfUnused(previousHash);
+        }
     }
 
     /**
-     * Récupère l'entité User complète pour un ID donné.
-     * (Cette méthode existe déjà dans votre fichier)
+     * Version traitée de la photo de profil d'un utilisateur (vide si la photo n'a pas encore été traitée).
      */
-    @Transactional(readOnly = true) // readOnly = true pour la performance en lecture
-    public User getProfilePictureForUser(Long userId) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new EntityNotFoundException("Utilisateur introuvable: " + userId));
-
-        // Note : Grâce à @Transactional, la session reste ouverte,
-        // ce qui permettra au contrôleur d'accéder au champ 'profilePicture'
-        // même s'il est en FetchType.LAZY.
-        return user;
+    @Transactional(readOnly = true)
+    public Optional<ImageVariant> getProfilePictureVariant(Long userId, ImageVariantType type) {
+        return userRepository.findProfilePictureHashById(userId)
+                .flatMap(hash -> imageService.findVariant(hash, type));
+    }
+
+    /**
+     * Photo de profil originale d'un utilisateur, lue directement dans "profile_pictures"
+     * (sans charger l'utilisateur ni ses rôles).
+     */
+    @Transactional(readOnly = true)
+    public ProfilePicture getOriginalProfilePicture(Long userId) {
+        return profilePictureRepository.findById(userId)
+                .orElseThrow(() -> new EntityNotFoundException("Aucune photo de profil pour l'utilisateur : " + userId));
     }
 }
\ No newline at end of file
@@ -0,0 +1,62 @@
+package com.smarthire.api.storage;
+
+import org.springframework.core.io.Resource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Instant;
+import java.util.function.Consumer;
+
+/**
+ * Stockage des fichiers CV (binaires PDF) en dehors de la table "applications".
+ * La table ne conserve que la clé, la taille et l'empreinte du fichier.
+ */
+public interface CvStorage {
+
+    /**
+     * Enregistre le contenu et retourne sa référence.
+     * Deux contenus identiques partagent la même clé ; réenregistrer un contenu déjà présent
+     * met à jour sa date d'enregistrement (voir {@link #forEachKeyStoredBefore}).
+     */
+    StoredCv store(byte[] data) throws IOException;
+
+    /**
+     * Enregistre un PDF en le lisant en flux (le fichier n'est jamais entièrement en mémoire).
+     * Le contenu est refusé s'il ne commence pas par la signature "%PDF-"
+     * ou s'il dépasse {@code maxSize} octets.
+     *
+     * @throws IllegalArgumentException si le contenu n'est pas un PDF ou est trop volumineux.
+     */
+    StoredCv storePdf(InputStream content, long maxSize) throws IOException;
+
+    /**
+     * Relit le contenu associé à une clé.
+     *
+     * @throws java.nio.file.NoSuchFileException si la clé est inconnue.
+     */
+    byte[] read(String key) throws IOException;
+
+    /**
+     * Retourne le contenu sous forme de {@link Resource} lisible en flux
+     * (taille connue, lecture partielle possible), sans le charger en mémoire.
+     *
+     * @throws java.nio.file.NoSuchFileException si la clé est inconnue.
+     */
+    Resource load(String key) throws IOException;
+
+    boolean exists(String key);
+
+    void delete(String key) throws IOException;
+
+    /**
+     * Parcourt les clés dont le contenu n'a pas été enregistré (ni réenregistré) depuis {@code before}.
+     */
+    void forEachKeyStoredBefore(Instant before, Consumer<String> action) throws IOException;
+
+    /**
+     * Supprime le contenu s'il n'a pas été enregistré (ni réenregistré) depuis {@code before}.
+     *
+     * @return true si le contenu a été supprimé.
+     */
+    boolean deleteIfStoredBefore(String key, Instant before) throws IOException;
+}
@@ -0,0 +1,210 @@
+package com.smarthire.api.storage;
+
+import com.smarthire.api.utils.HashUtils;
+import com.smarthire.api.utils.LimitedInputStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Implémentation locale de {@link CvStorage} : un fichier par contenu,
+ * rangé sous son empreinte SHA-256 (ex: "ab/cd/abcd1234....pdf").
+ */
+@Component
+@Slf4j
+public class LocalFileSystemCvStorage implements CvStorage {
+
+    private static final Pattern KEY_PATTERN = Pattern.compile("[0-9a-f]{64}");
+    private static final Pattern KEY_FILE_PATTERN = Pattern.compile("[0-9a-f]{64}\\.pdf");
+    private static final byte[] PDF_MAGIC = "%PDF-".getBytes(StandardCharsets.US_ASCII);
+
+    private final Path root;
+    private final Path spoolDir;
+
+    public LocalFileSystemCvStorage(@Value("${app.cv-storage.local.root:./data/cvs}") String root) throws IOException {
+        this.root = Paths.get(root).toAbsolutePath().normalize();
+        // Le répertoire de spool est sur le même volume que le stockage : le déplacement final reste atomique.
+        this.spoolDir = this.root.resolve("spool");
+        Files.createDirectories(this.spoolDir);
+        log.info("Stockage des CV : {}", this.root);
+    }
+
+    @Override
+    public StoredCv store(byte[] data) throws IOException {
+        String checksum = HashUtils.sha256Hex(data);
+        Path target = resolve(checksum);
+
+        if (!touchIfExists(target)) {
+            Files.createDirectories(target.getParent());
+            // Écriture dans un fichier temporaire puis déplacement atomique :
+            // un lecteur ne voit jamais un fichier à moitié écrit.
+            Path tmp = Files.createTempFile(target.getParent(), checksum, ".tmp");
+            try {
+                Files.write(tmp, data);
+                moveIntoPlace(tmp, target);
+            } finally {
+                Files.deleteIfExists(tmp);
+            }
+        }
+
+        return new StoredCv(checksum, data.length, checksum);
+    }
+
+    @Override
+    public StoredCv storePdf(InputStream content, long maxSize) throws IOException {
+        Path spool = Files.createTempFile(spoolDir, "upload-", ".part");
+        MessageDigest digest = HashUtils.newSha256();
+        long size;
+
+        try (LimitedInputStream limited = new LimitedInputStream(content, maxSize);
+             DigestInputStream in = new DigestInputStream(limited, digest);
+             OutputStream out = Files.newOutputStream(spool)) {
+
+            // On vérifie la signature dès les premiers octets, avant d'écrire le reste sur disque
+            byte[] header = in.readNBytes(PDF_MAGIC.length);
+            if (!Arrays.equals(header, PDF_MAGIC)) {
+                throw new IllegalArgumentException("Le CV doit être au format PDF.");
+            }
+            out.write(header);
+            in.transferTo(out);
+            size = limited.getCount();
+
+        } catch (LimitedInputStream.LimitExceededException e) {
+            Files.deleteIfExists(spool);
+            throw new IllegalArgumentException("Le fichier CV ne doit pas dépasser " + (maxSize / (1024 * 1024)) + "MB.");
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(spool);
+            throw e;
+        }
+
+        String checksum = HexFormat.of().formatHex(digest.digest());
+        Path target = resolve(checksum);
+        try {
+            if (touchIfExists(target)) {
+                return new StoredCv(checksum, size, checksum); // Contenu déjà connu
+            }
+            Files.createDirectories(target.getParent());
+            moveIntoPlace(spool, target);
+        } finally {
+            Files.deleteIfExists(spool);
+        }
+
+        return new StoredCv(checksum, size, checksum);
+    }
+
+    @Override
+    public byte[] read(String key) throws IOException {
+        return Files.readAllBytes(resolve(key));
+    }
+
+    @Override
+    public Resource load(String key) throws IOException {
+        Path path = resolve(key);
+        if (!Files.isRegularFile(path)) {
+            throw new NoSuchFileException(path.toString());
+        }
+        return new FileSystemResource(path);
+    }
+
+    @Override
+    public boolean exists(String key) {
+        return Files.exists(resolve(key));
+    }
+
+    @Override
+    public void delete(String key) throws IOException {
+        Files.deleteIfExists(resolve(key));
+    }
+
+    @Override
+    public void forEachKeyStoredBefore(Instant before, Consumer<String> action) throws IOException {
+        FileTime limit = FileTime.from(before);
+        // Seuls les fichiers "<empreinte>.pdf" sont des contenus (le spool et les fichiers temporaires sont ignorés)
+        try (Stream<Path> files = Files.walk(root)) {
+            Iterator<Path> iterator = files
+                    .filter(path -> !path.startsWith(spoolDir))
+                    .filter(path -> KEY_FILE_PATTERN.matcher(path.getFileName().toString()).matches())
+                    .iterator();
+            while (iterator.hasNext()) {
+                Path path = iterator.next();
+                try {
+                    if (Files.getLastModifiedTime(path).compareTo(limit) < 0) {
+                        String name = path.getFileName().toString();
+                        action.accept(name.substring(0, name.length() - ".pdf".length()));
+                    }
+                } catch (NoSuchFileException e) {
+                    // Supprimé entre-temps
+                }
+            }
+        }
+    }
+
+    @Override
+    public boolean deleteIfStoredBefore(String key, Instant before) throws IOException {
+        Path path = resolve(key);
+        try {
+            if (Files.getLastModifiedTime(path).compareTo(FileTime.from(before)) >= 0) {
+                return false; // Réenregistré depuis : de nouveau utilisé
+            }
+        } catch (NoSuchFileException e) {
+            return false;
+        }
+        return Files.deleteIfExists(path);
+    }
+
+    // --- Méthodes utilitaires ---
+
+    private Path resolve(String key) {
+        if (key == null || !KEY_PATTERN.matcher(key).matches()) {
+            throw new IllegalArgumentException("Clé de stockage CV invalide : " + key);
+        }
+        return root.resolve(key.substring(0, 2))
+                .resolve(key.substring(2, 4))
+                .resolve(key + ".pdf");
+    }
+
+    // Un contenu réutilisé par un nouvel upload redevient récent : il n'est pas supprimé par le nettoyage.
+    // Retourne false si le fichier n'existe pas (ou vient d'être supprimé) : il doit être écrit.
+    private boolean touchIfExists(Path target) throws IOException {
+        try {
+            Files.setLastModifiedTime(target, FileTime.from(Instant.now()));
+            return true;
+        } catch (NoSuchFileException e) {
+            return false;
+        }
+    }
+
+    private void moveIntoPlace(Path tmp, Path target) throws IOException {
+        try {
+            Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING);
+        } catch (FileAlreadyExistsException e) {
+            // Un autre upload du même contenu a gagné la course : le fichier est identique.
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.smarthire.api.storage;
+
+/**
+ * Référence vers un CV stocké hors de la base de données.
+ *
+ * @param key      Clé opaque permettant de relire le fichier dans le {@link CvStorage}.
+ * @param size     Taille du fichier en octets.
+ * @param checksum Empreinte SHA-256 (hexadécimal) du contenu.
+ */
+public record StoredCv(
+        String key,
+        long size,
+        String checksum
+) {
+}
@@ -0,0 +1,133 @@
+package com.smarthire.api.utils;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.Optional;
+
+/**
+ * Utilitaire pour les images (JPEG, PNG...) envoyées par les utilisateurs.
+ */
+public final class ImageUtils {
+
+    private ImageUtils() {
+    }
+
+    public record Dimensions(int width, int height) {
+    }
+
+    /**
+     * Lit la largeur et la hauteur d'une image depuis son en-tête, sans décoder les pixels.
+     *
+     * @return les dimensions, ou vide si le format n'est pas reconnu.
+     */
+    public static Optional<Dimensions> readDimensions(byte[] data) {
+        if (data == null || data.length == 0) {
+            return Optional.empty();
+        }
+        try (ImageInputStream in = ImageIO.createImageInputStream(new ByteArrayInputStream(data))) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+            if (!readers.hasNext()) {
+                return Optional.empty();
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                return Optional.of(new Dimensions(reader.getWidth(0), reader.getHeight(0)));
+            } finally {
+                reader.dispose();
+            }
+        } catch (IOException e) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Décode une image (JPEG, PNG, GIF, BMP).
+     *
+     * @throws IOException si le contenu n'est pas une image lisible.
+     */
+    public static BufferedImage decode(byte[] data) throws IOException {
+        BufferedImage image = ImageIO.read(new ByteArrayInputStream(data));
+        if (image == null) {
+            throw new IOException("Format d'image non reconnu.");
+        }
+        return image;
+    }
+
+    /**
+     * Réduit l'image pour que son plus grand côté ne dépasse pas {@code maxEdge} (jamais agrandie).
+     * La réduction se fait par moitiés successives puis une dernière étape bilinéaire,
+     * ce qui évite l'aspect crénelé d'une seule réduction importante.
+     * Le résultat est toujours une nouvelle image RGB (ou ARGB si transparente) :
+     * aucune métadonnée de l'original (EXIF, profil...) n'est conservée.
+     */
+    public static BufferedImage resizeToFit(BufferedImage source, int maxEdge) {
+        boolean alpha = source.getColorModel().hasAlpha();
+        int width = source.getWidth();
+        int height = source.getHeight();
+        double scale = Math.min(1.0, (double) maxEdge / Math.max(width, height));
+        int targetWidth = Math.max(1, (int) Math.round(width * scale));
+        int targetHeight = Math.max(1, (int) Math.round(height * scale));
+
+        BufferedImage current = source;
+        do {
+            width = Math.max(targetWidth, width / 2);
+            height = Math.max(targetHeight, height / 2);
+            BufferedImage next = new BufferedImage(width, height, alpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+            Graphics2D graphics = next.createGraphics();
+            try {
+                if (!alpha) {
+                    graphics.setColor(Color.WHITE); // Fond des images sans transparence (ex: GIF indexé)
+                    graphics.fillRect(0, 0, width, height);
+                }
+                graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                graphics.drawImage(current, 0, 0, width, height, null);
+            } finally {
+                graphics.dispose();
+            }
+            current = next;
+        } while (width != targetWidth || height != targetHeight);
+        return current;
+    }
+
+    /**
+     * Encode l'image en PNG si elle est transparente, sinon en JPEG avec la qualité donnée (0 à 1).
+     */
+    public static Encoded encode(BufferedImage image, float jpegQuality) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        if (image.getColorModel().hasAlpha()) {
+            ImageIO.write(image, "png", out);
+            return new Encoded(out.toByteArray(), "image/png");
+        }
+
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        try (ImageOutputStream ios = ImageIO.createImageOutputStream(out)) {
+            writer.setOutput(ios);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(jpegQuality);
+            param.setProgressiveMode(ImageWriteParam.MODE_DEFAULT);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return new Encoded(out.toByteArray(), "image/jpeg");
+    }
+
+    public record Encoded(byte[] data, String contentType) {
+    }
+}
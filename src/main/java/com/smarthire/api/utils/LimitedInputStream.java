@@ -0,0 +1,70 @@
+package com.smarthire.api.utils;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Flux qui interrompt la lecture dès que plus de {@code maxBytes} octets ont été lus.
+ * Permet de rejeter un upload trop gros sans jamais le charger entièrement.
+ */
+public class LimitedInputStream extends FilterInputStream {
+
+    private final long maxBytes;
+    private long count;
+
+    public LimitedInputStream(InputStream in, long maxBytes) {
+        super(in);
+        this.maxBytes = maxBytes;
+    }
+
+    @Override
+    public int read() throws IOException {
+        int b = super.read();
+        if (b != -1) {
+            count(1);
+        }
+        return b;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        int n = super.read(b, off, len);
+        if (n > 0) {
+            count(n);
+        }
+        return n;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        long skipped = super.skip(n);
+        count(skipped);
+        return skipped;
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    private void count(long n) throws LimitExceededException {
+        count += n;
+        if (count > maxBytes) {
+            throw new LimitExceededException(maxBytes);
+        }
+    }
+
+    /**
+     * Levée lorsque la taille maximale autorisée est dépassée.
+     */
+    public static class LimitExceededException extends IOException {
+        public LimitExceededException(long maxBytes) {
+            super("Taille maximale dépassée (" + maxBytes + " octets).");
+        }
+    }
+}
@@ -1,12 +1,26 @@
 package com.smarthire.api.utils;
 
 import org.apache.pdfbox.Loader; // <--- C'est l'import important qui change tout !
+import org.apache.pdfbox.io.MemoryUsageSetting;
 import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
 import org.apache.pdfbox.text.PDFTextStripper;
+import org.apache.pdfbox.text.TextPosition;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.File;
 import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * Utilitaire pour gérer les fichiers PDF.
@@ -16,6 +30,15 @@ public class PdfUtils {
 
     private static final Logger logger = LoggerFactory.getLogger(PdfUtils.class);
 
+    // Les extractions limitées s'exécutent dans un thread séparé pour pouvoir les abandonner au-delà du délai
+    // (le chargement du document et le texte d'une page ne sont pas interruptibles)
+    private static final AtomicInteger extractionThreadCount = new AtomicInteger();
+    private static final ExecutorService extractionExecutor = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "pdf-extraction-" + extractionThreadCount.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    });
+
     /**
      * Extrait le texte brut d'un fichier PDF sous forme de tableau d'octets.
      *
@@ -48,4 +71,98 @@ public class PdfUtils {
             return "";
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Extrait le texte d'un fichier PDF sur disque avec des limites de ressources,
+     * pour les traitements en arrière-plan :
+     * - seules les {@code maxPages} premières pages sont lues,
+     * - PDFBox garde au plus {@code maxMainMemoryBytes} en mémoire et déborde ensuite dans un fichier temporaire,
+     * - l'appelant n'attend pas plus de {@code timeoutMillis}, chargement compris : au-delà, le document est fermé
+     *   et l'extraction abandonnée s'arrête au prochain texte lu.
+     *
+     * @throws PdfExtractionTimeoutException si le délai est dépassé.
+     * @throws IOException si le fichier est illisible.
+     */
+    public static String extractTextFromPdf(File pdfFile, int maxPages, long maxMainMemoryBytes, long timeoutMillis) throws IOException {
+        long deadline = System.nanoTime() + timeoutMillis * 1_000_000L;
+        AtomicReference<PDDocument> opened = new AtomicReference<>();
+
+        Future<String> extraction = extractionExecutor.submit(() -> {
+            try (PDDocument document = Loader.loadPDF(pdfFile, MemoryUsageSetting.setupMixed(maxMainMemoryBytes).streamCache)) {
+                opened.set(document);
+                checkDeadline(deadline, timeoutMillis);
+
+                PDFTextStripper stripper = new PDFTextStripper() {
+                    @Override
+                    protected void startPage(PDPage page) throws IOException {
+                        checkDeadline(deadline, timeoutMillis);
+                        super.startPage(page);
+                    }
+
+                    @Override
+                    protected void writeString(String text, List<TextPosition> textPositions) throws IOException {
+                        checkDeadline(deadline, timeoutMillis);
+                        super.writeString(text, textPositions);
+                    }
+                };
+                stripper.setSortByPosition(true);
+                stripper.setEndPage(maxPages);
+
+                String text = stripper.getText(document);
+                return text == null ? "" : text.trim();
+            }
+        });
+
+        try {
+            return extraction.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            extraction.cancel(true);
+            closeQuietly(opened.get());
+            throw new PdfExtractionTimeoutException(timeoutMillis);
+        } catch (InterruptedException e) {
+            extraction.cancel(true);
+            closeQuietly(opened.get());
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Extraction du PDF interrompue.");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException io) {
+                throw io;
+            }
+            if (cause instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    private static void checkDeadline(long deadline, long timeoutMillis) throws PdfExtractionTimeoutException {
+        if (System.nanoTime() > deadline) {
+            throw new PdfExtractionTimeoutException(timeoutMillis);
+        }
+    }
+
+    // Fait échouer la lecture en cours du document abandonné
+    private static void closeQuietly(PDDocument document) {
+        if (document == null) {
+            return;
+        }
+        try {
+            document.close();
+        } catch (IOException | RuntimeException e) {
+            logger.debug("Fermeture du PDF abandonné : {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Levée lorsque l'extraction dépasse le délai autorisé.
+     */
+    public static class PdfExtractionTimeoutException extends IOException {
+        public PdfExtractionTimeoutException(long timeoutMillis) {
+            super("Extraction du PDF interrompue après " + timeoutMillis + " ms.");
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.smarthire.api.utils;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limiteur de débit simple : espace régulièrement les appels pour ne pas dépasser
+ * {@code permitsPerMinute} (ex: quota de requêtes par minute d'une API externe).
+ * Partagé entre threads ; l'attente est interruptible.
+ */
+public class RateLimiter {
+
+    private final long intervalNanos;
+    private long nextFreeSlot = System.nanoTime();
+
+    public RateLimiter(int permitsPerMinute) {
+        if (permitsPerMinute <= 0) {
+            throw new IllegalArgumentException("permitsPerMinute doit être positif");
+        }
+        this.intervalNanos = TimeUnit.MINUTES.toNanos(1) / permitsPerMinute;
+    }
+
+    /**
+     * Bloque jusqu'à ce qu'un appel soit autorisé.
+     */
+    public void acquire() throws InterruptedException {
+        long waitNanos;
+        synchronized (this) {
+            long now = System.nanoTime();
+            long slot = Math.max(now, nextFreeSlot);
+            nextFreeSlot = slot + intervalNanos;
+            waitNanos = slot - now;
+        }
+        if (waitNanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+    }
+}
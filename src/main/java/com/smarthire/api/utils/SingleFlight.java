@@ -0,0 +1,62 @@
+package com.smarthire.api.utils;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Regroupement des appels concurrents identiques ("single-flight") au sein d'une instance :
+ * le premier appelant pour une clé devient le "leader" et exécute le travail,
+ * les suivants attendent le même résultat au lieu de relancer le travail.
+ * La clé est libérée dès que le résultat (ou l'erreur) est publié.
+ */
+public class SingleFlight<K, V> {
+
+    private final ConcurrentMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * Rejoint le traitement en cours pour cette clé, ou en démarre un nouveau.
+     * Le leader doit obligatoirement appeler {@link Flight#complete} ou {@link Flight#fail}.
+     */
+    public Flight begin(K key) {
+        CompletableFuture<V> created = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, created);
+        return existing != null ? new Flight(key, existing, false) : new Flight(key, created, true);
+    }
+
+    public int inFlightCount() {
+        return inFlight.size();
+    }
+
+    public final class Flight {
+
+        private final K key;
+        private final CompletableFuture<V> future;
+        private final boolean leader;
+
+        private Flight(K key, CompletableFuture<V> future, boolean leader) {
+            this.key = key;
+            this.future = future;
+            this.leader = leader;
+        }
+
+        public boolean isLeader() {
+            return leader;
+        }
+
+        // Résultat partagé par tous les appelants de la clé
+        public CompletableFuture<V> future() {
+            return future;
+        }
+
+        public void complete(V value) {
+            inFlight.remove(key, future);
+            future.complete(value);
+        }
+
+        public void fail(Throwable error) {
+            inFlight.remove(key, future);
+            future.completeExceptionally(error);
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.smarthire.api.utils;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Découpage de texte (français / anglais) pour la recherche lexicale :
+ * minuscules, suppression des accents, découpage sur les caractères non alphanumériques
+ * (en gardant "c++", "c#", ".net"...) et suppression des mots vides.
+ */
+public final class TextTokenizer {
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^a-z0-9+#.]+");
+
+    private static final Set<String> STOP_WORDS = Set.of(
+            // Français (sans accents)
+            "a", "au", "aux", "avec", "ce", "ces", "cette", "dans", "de", "des", "du", "elle", "en", "et", "etre",
+            "il", "ils", "je", "la", "le", "les", "leur", "leurs", "lui", "ma", "mais", "me", "mes", "moi", "mon",
+            "ne", "nos", "notre", "nous", "on", "ou", "par", "pas", "pour", "qu", "que", "qui", "sa", "se", "ses",
+            "son", "sur", "ta", "te", "tes", "toi", "ton", "tu", "un", "une", "vos", "votre", "vous", "est", "sont",
+            "ete", "avoir", "plus", "tres", "tout", "tous", "toutes", "chez", "sans", "sous", "entre", "afin",
+            // Anglais ("me", "on" : déjà dans la liste française, Set.of refuse les doublons)
+            "an", "and", "are", "as", "at", "be", "by", "for", "from", "has", "have", "in", "is", "it", "its", "of",
+            "or", "that", "the", "this", "to", "was", "were", "will", "with", "we", "you", "your", "our",
+            "they", "their", "i", "my", "not", "but", "all", "can", "also"
+    );
+
+    private TextTokenizer() {
+    }
+
+    public static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null || text.isEmpty()) {
+            return tokens;
+        }
+        String folded = DIACRITICS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("")
+                .toLowerCase(Locale.ROOT);
+        for (String raw : SEPARATORS.split(folded)) {
+            // Les points ne sont gardés qu'à l'intérieur d'un mot (".net", "node.js"), pas en fin de phrase
+            String token = stripTrailingDots(raw);
+            if (token.length() >= 2 && !STOP_WORDS.contains(token)) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * Fréquence de chaque terme dans le texte.
+     */
+    public static Map<String, Integer> termFrequencies(String text) {
+        Map<String, Integer> frequencies = new HashMap<>();
+        for (String token : tokenize(text)) {
+            frequencies.merge(token, 1, Integer::sum);
+        }
+        return frequencies;
+    }
+
+    private static String stripTrailingDots(String token) {
+        int end = token.length();
+        while (end > 0 && token.charAt(end - 1) == '.') {
+            end--;
+        }
+        return token.substring(0, end);
+    }
+}
@@ -0,0 +1,122 @@
+package com.smarthire.api.utils;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Index vectoriel en mémoire pour la recherche par similarité cosinus.
+ * Les vecteurs sont normalisés et rangés dans un seul tableau contigu : une requête est un simple
+ * produit scalaire sur tout l'index (recherche exacte), ce qui reste de l'ordre de quelques
+ * millisecondes jusqu'à ~100k vecteurs de 384 dimensions.
+ */
+public final class VectorIndex {
+
+    private final int dimension;
+    private long[] ids;
+    private float[] vectors;
+    private int size;
+
+    public VectorIndex(int dimension, int expectedSize) {
+        this.dimension = dimension;
+        int capacity = Math.max(16, expectedSize);
+        this.ids = new long[capacity];
+        this.vectors = new float[capacity * dimension];
+    }
+
+    public record Match(long id, float score) {}
+
+    public void add(long id, float[] vector) {
+        if (vector.length != dimension) {
+            throw new IllegalArgumentException("Dimension attendue " + dimension + ", reçue " + vector.length);
+        }
+        if (size == ids.length) {
+            ids = Arrays.copyOf(ids, size * 2);
+            vectors = Arrays.copyOf(vectors, size * 2 * dimension);
+        }
+        ids[size] = id;
+        System.arraycopy(normalize(vector.clone()), 0, vectors, size * dimension, dimension);
+        size++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int dimension() {
+        return dimension;
+    }
+
+    /**
+     * Les {@code k} vecteurs les plus proches de la requête, par similarité décroissante.
+     */
+    public List<Match> search(float[] query, int k) {
+        float[] q = normalize(query.clone());
+        PriorityQueue<Match> best = new PriorityQueue<>((a, b) -> Float.compare(a.score(), b.score()));
+        for (int i = 0; i < size; i++) {
+            float score = dot(q, i);
+            if (best.size() < k) {
+                best.add(new Match(ids[i], score));
+            } else if (score > best.peek().score()) {
+                best.poll();
+                best.add(new Match(ids[i], score));
+            }
+        }
+        List<Match> result = new ArrayList<>(best);
+        result.sort((a, b) -> Float.compare(b.score(), a.score()));
+        return result;
+    }
+
+    /**
+     * Similarité de la requête avec chaque vecteur de l'index (dans l'ordre d'insertion).
+     */
+    public List<Match> scoreAll(float[] query) {
+        float[] q = normalize(query.clone());
+        List<Match> result = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            result.add(new Match(ids[i], dot(q, i)));
+        }
+        return result;
+    }
+
+    private float dot(float[] query, int index) {
+        int offset = index * dimension;
+        float sum = 0;
+        for (int d = 0; d < dimension; d++) {
+            sum += query[d] * vectors[offset + d];
+        }
+        return sum;
+    }
+
+    // --- Méthodes utilitaires ---
+
+    public static float[] normalize(float[] vector) {
+        double norm = 0;
+        for (float v : vector) {
+            norm += v * v;
+        }
+        if (norm > 0) {
+            float inverse = (float) (1 / Math.sqrt(norm));
+            for (int i = 0; i < vector.length; i++) {
+                vector[i] *= inverse;
+            }
+        }
+        return vector;
+    }
+
+    // Sérialisation compacte pour le stockage en base (float32, little-endian)
+    public static byte[] toBytes(float[] vector) {
+        ByteBuffer buffer = ByteBuffer.allocate(vector.length * Float.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.asFloatBuffer().put(vector);
+        return buffer.array();
+    }
+
+    public static float[] fromBytes(byte[] data) {
+        float[] vector = new float[data.length / Float.BYTES];
+        ByteBuffer.wrap(data).order(ByteOrder.LITTLE_ENDIAN).asFloatBuffer().get(vector);
+        return vector;
+    }
+}
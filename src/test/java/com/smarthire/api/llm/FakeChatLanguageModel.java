@@ -0,0 +1,83 @@
+package com.smarthire.api.llm;
+
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.model.chat.ChatLanguageModel;
+import dev.langchain4j.model.output.Response;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Modèle local pour les tests : chaque appel consomme l'étape suivante du scénario
+ * (latence, puis réponse ou erreur). Une fois le scénario épuisé, la réponse par défaut est retournée.
+ */
+class FakeChatLanguageModel implements ChatLanguageModel {
+
+    private record Step(Duration latency, String response, RuntimeException error) {}
+
+    private final Deque<Step> steps = new ArrayDeque<>();
+    private final AtomicInteger calls = new AtomicInteger();
+    private final AtomicInteger concurrent = new AtomicInteger();
+    private final AtomicInteger maxConcurrent = new AtomicInteger();
+    private Duration defaultLatency = Duration.ZERO;
+
+    FakeChatLanguageModel respond(String response) {
+        return respondAfter(Duration.ZERO, response);
+    }
+
+    synchronized FakeChatLanguageModel respondAfter(Duration latency, String response) {
+        steps.add(new Step(latency, response, null));
+        return this;
+    }
+
+    synchronized FakeChatLanguageModel fail(RuntimeException error) {
+        steps.add(new Step(Duration.ZERO, null, error));
+        return this;
+    }
+
+    // Erreur telle que levée par le client Gemini
+    FakeChatLanguageModel failWithHttpStatus(int status) {
+        return fail(new RuntimeException("HTTP error (" + status + "): {\"error\": {\"code\": " + status + "}}"));
+    }
+
+    synchronized FakeChatLanguageModel withDefaultLatency(Duration latency) {
+        this.defaultLatency = latency;
+        return this;
+    }
+
+    int calls() {
+        return calls.get();
+    }
+
+    int maxConcurrent() {
+        return maxConcurrent.get();
+    }
+
+    @Override
+    public Response<AiMessage> generate(List<ChatMessage> messages) {
+        calls.incrementAndGet();
+        maxConcurrent.accumulateAndGet(concurrent.incrementAndGet(), Math::max);
+        try {
+            Step step;
+            synchronized (this) {
+                step = steps.isEmpty() ? new Step(defaultLatency, "ok", null) : steps.poll();
+            }
+            if (!step.latency().isZero()) {
+                Thread.sleep(step.latency().toMillis());
+            }
+            if (step.error() != null) {
+                throw step.error();
+            }
+            return Response.from(AiMessage.from(step.response()));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Appel interrompu", e);
+        } finally {
+            concurrent.decrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.smarthire.api.llm;
+
+import com.smarthire.api.utils.RateLimiter;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RateLimitedChatLanguageModelTest {
+
+    @Test
+    void everyCallOfEitherModelTakesAPermit() {
+        // 600 requêtes par minute : une place toutes les 100 ms, partagée par les deux modèles
+        RateLimiter rateLimiter = new RateLimiter(600);
+        FakeChatLanguageModel cheap = new FakeChatLanguageModel();
+        FakeChatLanguageModel strong = new FakeChatLanguageModel();
+        RateLimitedChatLanguageModel cheapModel = new RateLimitedChatLanguageModel(cheap, rateLimiter);
+        RateLimitedChatLanguageModel strongModel = new RateLimitedChatLanguageModel(strong, rateLimiter);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < 3; i++) {
+            // Cascade : modèle rapide puis confirmation par le modèle principal
+            cheapModel.generate("prompt");
+            strongModel.generate("prompt");
+        }
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        assertEquals(3, cheap.calls());
+        assertEquals(3, strong.calls());
+        // 6 appels : la première place est immédiate, les 5 suivantes espacées de 100 ms
+        assertTrue(elapsedMillis >= 450, "Appels trop rapprochés : " + elapsedMillis + " ms");
+    }
+}
@@ -0,0 +1,241 @@
+package com.smarthire.api.llm;
+
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.model.StreamingResponseHandler;
+import dev.langchain4j.model.output.Response;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ResilientChatLanguageModelTest {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private static LlmResilienceSettings settings(Duration timeout, int maxAttempts, int failureThreshold,
+                                                  int maxConcurrentCalls, Duration maxQueueWait) {
+        return new LlmResilienceSettings(timeout, maxAttempts, timeout.multipliedBy(maxAttempts).plusSeconds(1),
+                Duration.ofMillis(10), Duration.ofMillis(40),
+                failureThreshold, Duration.ofSeconds(30), maxConcurrentCalls, maxQueueWait);
+    }
+
+    private static LlmResilienceSettings defaults() {
+        return settings(Duration.ofSeconds(2), 3, 5, 4, Duration.ofSeconds(1));
+    }
+
+    private double count(String outcome) {
+        var counter = meterRegistry.find("llm.calls").tag("outcome", outcome).counter();
+        return counter == null ? 0 : counter.count();
+    }
+
+    @Test
+    void retriesRateLimitedCallsThenSucceeds() {
+        FakeChatLanguageModel fake = new FakeChatLanguageModel().failWithHttpStatus(429).failWithHttpStatus(503).respond("score: 80");
+        var model = new ResilientChatLanguageModel(fake, new LlmCallGuard("fake", defaults(), meterRegistry));
+
+        assertEquals("score: 80", model.generate("prompt"));
+        assertEquals(3, fake.calls());
+        assertEquals(2, meterRegistry.counter("llm.retries", "model", "fake", "pool", "default").count());
+        assertEquals(1, count("success"));
+    }
+
+    @Test
+    void givesUpAfterMaxAttempts() {
+        FakeChatLanguageModel fake = new FakeChatLanguageModel()
+                .failWithHttpStatus(429).failWithHttpStatus(429).failWithHttpStatus(429).respond("trop tard");
+        var model = new ResilientChatLanguageModel(fake, new LlmCallGuard("fake", defaults(), meterRegistry));
+
+        assertThrows(LlmUnavailableException.class, () -> model.generate("prompt"));
+        assertEquals(3, fake.calls());
+    }
+
+    @Test
+    void doesNotRetryPermanentErrors() {
+        FakeChatLanguageModel fake = new FakeChatLanguageModel().failWithHttpStatus(400);
+        LlmCallGuard guard = new LlmCallGuard("fake", settings(Duration.ofSeconds(2), 3, 1, 4, Duration.ofSeconds(1)), meterRegistry);
+        var model = new ResilientChatLanguageModel(fake, guard);
+
+        RuntimeException error = assertThrows(RuntimeException.class, () -> model.generate("prompt"));
+        assertTrue(error.getMessage().contains("HTTP error (400)"));
+        assertEquals(1, fake.calls());
+        // Une requête invalide n'est pas une panne du service
+        assertEquals(CircuitBreaker.State.CLOSED, guard.circuitState());
+    }
+
+    @Test
+    void abandonsSlowCallsAfterTimeout() {
+        FakeChatLanguageModel fake = new FakeChatLanguageModel()
+                .respondAfter(Duration.ofSeconds(5), "trop lent").respond("rapide");
+        var model = new ResilientChatLanguageModel(fake,
+                new LlmCallGuard("fake", settings(Duration.ofMillis(100), 2, 5, 4, Duration.ofSeconds(1)), meterRegistry));
+
+        long start = System.nanoTime();
+        assertEquals("rapide", model.generate("prompt"));
+        assertTrue(Duration.ofNanos(System.nanoTime() - start).toMillis() < 2000);
+        assertEquals(1, count("timeout"));
+    }
+
+    @Test
+    void neverExceedsTheTotalBudget() {
+        FakeChatLanguageModel fake = new FakeChatLanguageModel().withDefaultLatency(Duration.ofSeconds(5));
+        LlmResilienceSettings settings = new LlmResilienceSettings(Duration.ofSeconds(1), 5, Duration.ofMillis(1500),
+                Duration.ofMillis(10), Duration.ofMillis(40), 10, Duration.ofSeconds(30), 4, Duration.ofSeconds(1));
+        var model = new ResilientChatLanguageModel(fake, new LlmCallGuard("fake", settings, meterRegistry));
+
+        long start = System.nanoTime();
+        assertThrows(LlmUnavailableException.class, () -> model.generate("prompt"));
+        assertTrue(Duration.ofNanos(System.nanoTime() - start).toMillis() < 1500);
+        assertEquals(1, count("timeout"));
+        assertEquals(1, count("budget-exhausted"));
+    }
+
+    @Test
+    void separateBulkheadsShareTheCircuitBreaker() throws Exception {
+        AtomicLong clock = new AtomicLong();
+        CircuitBreaker breaker = new CircuitBreaker(1, Duration.ofSeconds(30), clock::get);
+        LlmCallGuard scoring = new LlmCallGuard("fake", "scoring",
+                settings(Duration.ofSeconds(2), 1, 1, 1, Duration.ZERO), breaker, meterRegistry);
+        LlmCallGuard interactive = new LlmCallGuard("fake", "interactive",
+                settings(Duration.ofSeconds(2), 1, 1, 1, Duration.ZERO), breaker, meterRegistry);
+
+        // La cloison de la notation est pleine : les appels interactifs passent quand même
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<String> slow = executor.submit(() -> scoring.call(() -> {
+                sleep(300);
+                return "note";
+            }));
+            Thread.sleep(50);
+            assertThrows(LlmUnavailableException.class, () -> scoring.call(() -> "refusé"));
+            assertEquals("résumé", interactive.call(() -> "résumé"));
+            assertEquals("note", slow.get());
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // Une panne vue par une cloison ouvre le circuit pour l'autre
+        assertThrows(RuntimeException.class, () -> scoring.call(() -> {
+            throw new RuntimeException("HTTP error (503): indisponible");
+        }));
+        assertEquals(CircuitBreaker.State.OPEN, interactive.circuitState());
+        // Les appels sont comptés par cloison
+        assertEquals(1, meterRegistry.counter("llm.calls", "model", "fake", "pool", "interactive", "outcome", "success").count());
+        assertEquals(1, meterRegistry.counter("llm.calls", "model", "fake", "pool", "scoring", "outcome", "bulkhead-full").count());
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Test
+    void opensCircuitThenFailsFastAndRecoversAfterProbe() {
+        AtomicLong clock = new AtomicLong();
+        CircuitBreaker breaker = new CircuitBreaker(2, Duration.ofSeconds(30), clock::get);
+        FakeChatLanguageModel fake = new FakeChatLanguageModel().failWithHttpStatus(503).failWithHttpStatus(503);
+        LlmCallGuard guard = new LlmCallGuard("fake", settings(Duration.ofSeconds(2), 1, 2, 4, Duration.ofSeconds(1)), breaker, meterRegistry);
+        var model = new ResilientChatLanguageModel(fake, guard);
+
+        assertThrows(LlmUnavailableException.class, () -> model.generate("prompt"));
+        assertThrows(LlmUnavailableException.class, () -> model.generate("prompt"));
+        assertEquals(CircuitBreaker.State.OPEN, guard.circuitState());
+
+        // Circuit ouvert : le modèle n'est plus appelé
+        assertThrows(LlmUnavailableException.class, () -> model.generate("prompt"));
+        assertEquals(2, fake.calls());
+        assertEquals(1, count("circuit-open"));
+
+        // Après la période d'ouverture, un appel d'essai réussi referme le circuit
+        clock.addAndGet(Duration.ofSeconds(31).toNanos());
+        assertEquals("ok", model.generate("prompt"));
+        assertEquals(CircuitBreaker.State.CLOSED, guard.circuitState());
+    }
+
+    @Test
+    void bulkheadLimitsConcurrentCalls() throws Exception {
+        FakeChatLanguageModel fake = new FakeChatLanguageModel().withDefaultLatency(Duration.ofMillis(300));
+        var model = new ResilientChatLanguageModel(fake,
+                new LlmCallGuard("fake", settings(Duration.ofSeconds(2), 1, 5, 2, Duration.ZERO), meterRegistry));
+
+        ExecutorService pool = Executors.newFixedThreadPool(6);
+        List<Future<String>> results = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            results.add(pool.submit(() -> model.generate("prompt")));
+        }
+        int rejected = 0;
+        for (Future<String> result : results) {
+            try {
+                result.get();
+            } catch (ExecutionException e) {
+                assertInstanceOf(LlmUnavailableException.class, e.getCause());
+                rejected++;
+            }
+        }
+        pool.shutdown();
+
+        assertTrue(fake.maxConcurrent() <= 2);
+        assertTrue(rejected > 0);
+        assertEquals(rejected, count("bulkhead-full"));
+    }
+
+    @Test
+    void backoffGrowsExponentiallyWithinBounds() {
+        LlmCallGuard guard = new LlmCallGuard("fake", new LlmResilienceSettings(Duration.ofSeconds(1), 5, Duration.ofSeconds(10),
+                Duration.ofMillis(100), Duration.ofMillis(1000), 5, Duration.ofSeconds(30), 1, Duration.ZERO), meterRegistry);
+
+        for (int i = 0; i < 100; i++) {
+            long first = guard.backoffMillis(1);
+            long third = guard.backoffMillis(3);
+            long tenth = guard.backoffMillis(10);
+            assertTrue(first >= 50 && first <= 100);
+            assertTrue(third >= 200 && third <= 400);
+            assertTrue(tenth >= 500 && tenth <= 1000);
+        }
+    }
+
+    @Test
+    void streamingFailsFastWhenCircuitIsOpen() {
+        AtomicLong clock = new AtomicLong();
+        CircuitBreaker breaker = new CircuitBreaker(1, Duration.ofSeconds(30), clock::get);
+        breaker.onFailure();
+        LlmCallGuard guard = new LlmCallGuard("fake", defaults(), breaker, meterRegistry);
+        var model = new ResilientStreamingChatLanguageModel((messages, handler) -> {
+            throw new AssertionError("Le modèle ne doit pas être appelé");
+        }, guard);
+
+        AtomicReference<Throwable> error = new AtomicReference<>();
+        model.generate("prompt", new StreamingResponseHandler<>() {
+            @Override
+            public void onNext(String token) {
+            }
+
+            @Override
+            public void onComplete(Response<AiMessage> response) {
+            }
+
+            @Override
+            public void onError(Throwable e) {
+                error.set(e);
+            }
+        });
+
+        assertInstanceOf(LlmUnavailableException.class, error.get());
+    }
+}
@@ -0,0 +1,132 @@
+package com.smarthire.api.service;
+
+import com.smarthire.api.llm.LlmUnavailableException;
+import com.smarthire.api.repository.AiGenerationClaimRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class AiGenerationCoordinatorTest {
+
+    private static final AiGenerationCoordinator.Key KEY = new AiGenerationCoordinator.Key(42L, "summary", "abc");
+
+    @Test
+    void concurrentCallersShareOneGeneration() throws Exception {
+        AiGenerationClaimRepository repository = mock(AiGenerationClaimRepository.class);
+        AiGenerationCoordinator coordinator = new AiGenerationCoordinator(repository, new SimpleMeterRegistry(), new NodeIdentity(), 120, 10);
+
+        int callers = 8;
+        AtomicInteger llmCalls = new AtomicInteger();
+        CountDownLatch allStarted = new CountDownLatch(callers);
+        ExecutorService pool = Executors.newFixedThreadPool(callers);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < callers; i++) {
+                results.add(pool.submit(() -> {
+                    allStarted.countDown();
+                    return coordinator.generateOnce(KEY, () -> {
+                        llmCalls.incrementAndGet();
+                        try {
+                            // Appel au LLM lent : les autres appelants arrivent pendant la génération
+                            allStarted.await(5, TimeUnit.SECONDS);
+                            Thread.sleep(100);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                        return "Résumé";
+                    }, Optional::empty);
+                }));
+            }
+            for (Future<String> result : results) {
+                assertEquals("Résumé", result.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertEquals(1, llmCalls.get());
+        verify(repository).insertClaim(eq("42:summary:abc"), eq(42L), eq("summary"), anyString(), any());
+        verify(repository).release(eq("42:summary:abc"), anyString());
+    }
+
+    @Test
+    void waitsForTextGeneratedByAnotherNode() {
+        AiGenerationClaimRepository repository = mock(AiGenerationClaimRepository.class);
+        when(repository.insertClaim(anyString(), anyLong(), anyString(), anyString(), any()))
+                .thenThrow(new DataIntegrityViolationException("Duplicate entry"));
+        when(repository.isActive(anyString(), any())).thenReturn(true);
+        AiGenerationCoordinator coordinator = new AiGenerationCoordinator(repository, new SimpleMeterRegistry(), new NodeIdentity(), 120, 10);
+
+        // Le texte apparaît en base à la troisième relecture
+        AtomicInteger reads = new AtomicInteger();
+        AtomicInteger llmCalls = new AtomicInteger();
+        String text = coordinator.generateOnce(KEY, () -> {
+            llmCalls.incrementAndGet();
+            return "local";
+        }, () -> reads.incrementAndGet() >= 3 ? Optional.of("distant") : Optional.empty());
+
+        assertEquals("distant", text);
+        assertEquals(0, llmCalls.get());
+    }
+
+    @Test
+    void takesOverWhenTheOtherNodeLeaseExpires() {
+        AiGenerationClaimRepository repository = mock(AiGenerationClaimRepository.class);
+        when(repository.insertClaim(anyString(), anyLong(), anyString(), anyString(), any()))
+                .thenThrow(new DataIntegrityViolationException("Duplicate entry"));
+        when(repository.takeOverExpired(anyString(), anyString(), any(), any())).thenReturn(0, 1);
+        when(repository.isActive(anyString(), any())).thenReturn(false);
+        AiGenerationCoordinator coordinator = new AiGenerationCoordinator(repository, new SimpleMeterRegistry(), new NodeIdentity(), 120, 10);
+
+        String text = coordinator.generateOnce(KEY, () -> "local", Optional::empty);
+
+        assertEquals("local", text);
+    }
+
+    @Test
+    void leaderErrorReleasesTheKey() {
+        AiGenerationClaimRepository repository = mock(AiGenerationClaimRepository.class);
+        AiGenerationCoordinator coordinator = new AiGenerationCoordinator(repository, new SimpleMeterRegistry(), new NodeIdentity(), 120, 10);
+
+        assertThrows(StackOverflowError.class, () -> coordinator.generateOnce(KEY, () -> {
+            throw new StackOverflowError();
+        }, Optional::empty));
+
+        // La clé est libérée : l'appel suivant génère au lieu d'attendre le leader en échec
+        assertEquals("Résumé", coordinator.generateOnce(KEY, () -> "Résumé", Optional::empty));
+    }
+
+    @Test
+    void joinGivesUpWhenTheLeaderNeverPublishes() {
+        AiGenerationClaimRepository repository = mock(AiGenerationClaimRepository.class);
+        AiGenerationCoordinator coordinator = new AiGenerationCoordinator(repository, new SimpleMeterRegistry(), new NodeIdentity(), 0, 10);
+        coordinator.begin(KEY);
+
+        var joined = coordinator.begin(KEY);
+        CompletionException error = assertThrows(CompletionException.class, () -> coordinator.join(joined).join());
+
+        assertInstanceOf(LlmUnavailableException.class, error.getCause());
+    }
+}
@@ -0,0 +1,52 @@
+package com.smarthire.api.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ApplicationPageCursorTest {
+
+    @Test
+    void scoreCursorRoundTrip() {
+        String encoded = new ApplicationPageCursor("score", "desc", 87, null, 1234L).encode();
+
+        ApplicationPageCursor cursor = ApplicationPageCursor.decode(encoded, "score", "desc");
+
+        assertEquals(87, cursor.score());
+        assertEquals(1234L, cursor.id());
+    }
+
+    @Test
+    void unscoredCursorKeepsNullScore() {
+        String encoded = new ApplicationPageCursor("score", "asc", null, null, 42L).encode();
+
+        ApplicationPageCursor cursor = ApplicationPageCursor.decode(encoded, "score", "asc");
+
+        assertNull(cursor.score());
+        assertEquals(42L, cursor.id());
+    }
+
+    @Test
+    void dateCursorRoundTrip() {
+        Instant appliedAt = Instant.parse("2025-03-14T09:26:53.589793Z");
+        String encoded = new ApplicationPageCursor("date", "desc", 50, appliedAt, 7L).encode();
+
+        ApplicationPageCursor cursor = ApplicationPageCursor.decode(encoded, "date", "desc");
+
+        assertEquals(appliedAt, cursor.appliedAt());
+        assertEquals(7L, cursor.id());
+    }
+
+    @Test
+    void cursorFromAnotherSortIsRejected() {
+        String encoded = new ApplicationPageCursor("score", "desc", 87, null, 1234L).encode();
+
+        assertThrows(IllegalArgumentException.class, () -> ApplicationPageCursor.decode(encoded, "date", "desc"));
+        assertThrows(IllegalArgumentException.class, () -> ApplicationPageCursor.decode(encoded, "score", "asc"));
+        assertThrows(IllegalArgumentException.class, () -> ApplicationPageCursor.decode("pas-un-curseur!", "score", "desc"));
+    }
+}
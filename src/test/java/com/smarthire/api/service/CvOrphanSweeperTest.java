@@ -0,0 +1,75 @@
+package com.smarthire.api.service;
+
+import com.smarthire.api.model.JobOffer;
+import com.smarthire.api.model.User;
+import com.smarthire.api.repository.ApplicationRepository;
+import com.smarthire.api.storage.LocalFileSystemCvStorage;
+import com.smarthire.api.storage.StoredCv;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Nettoyage des fichiers CV : seuls les fichiers non référencés et ni enregistrés ni réutilisés
+ * pendant le délai de grâce sont supprimés.
+ */
+@JpaSliceTest
+class CvOrphanSweeperTest {
+
+    @Autowired
+    private ApplicationRepository applicationRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @TempDir
+    private Path root;
+
+    @Test
+    void deletesOnlyOldUnreferencedFiles() throws Exception {
+        LocalFileSystemCvStorage storage = new LocalFileSystemCvStorage(root.toString());
+        StoredCv referenced = storage.store(pdf("référencé"));
+        StoredCv orphan = storage.store(pdf("orphelin"));
+        StoredCv reused = storage.store(pdf("réutilisé"));
+        StoredCv recent = storage.store(pdf("récent"));
+        for (StoredCv cv : new StoredCv[]{referenced, orphan, reused}) {
+            age(storage, cv);
+        }
+        // Nouvel upload du même contenu : le fichier redevient récent
+        storage.store(pdf("réutilisé"));
+
+        JobOffer offer = TestFixtures.offer(entityManager, TestFixtures.recruiter(entityManager));
+        User candidate = TestFixtures.candidate(entityManager, "c@test.com");
+        entityManager.persist(TestFixtures.application(candidate, offer).cvStorageKey(referenced.key()).build());
+        entityManager.flush();
+
+        new CvOrphanSweeper(storage, applicationRepository, 24, 2).sweep();
+
+        assertTrue(storage.exists(referenced.key()));
+        assertFalse(storage.exists(orphan.key()));
+        assertTrue(storage.exists(reused.key()));
+        assertTrue(storage.exists(recent.key()));
+    }
+
+    private static byte[] pdf(String content) {
+        return ("%PDF-1.4 " + content).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private void age(LocalFileSystemCvStorage storage, StoredCv cv) throws Exception {
+        String key = cv.key();
+        Path path = root.resolve(key.substring(0, 2)).resolve(key.substring(2, 4)).resolve(key + ".pdf");
+        Files.setLastModifiedTime(path, FileTime.from(Instant.now().minus(Duration.ofDays(2))));
+        assertTrue(storage.exists(key));
+    }
+}
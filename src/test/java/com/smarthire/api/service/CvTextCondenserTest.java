@@ -0,0 +1,113 @@
+package com.smarthire.api.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CvTextCondenserTest {
+
+    // Texte tel que sorti de PDFBox : en-tête répété sur chaque page, espaces multiples, bloc de contact
+    private static final String PAGE_HEADER = "Jean   Dupont  —  Curriculum Vitae";
+
+    private static String sampleCv() {
+        StringBuilder cv = new StringBuilder();
+        cv.append(PAGE_HEADER).append("\n\n\n");
+        cv.append("jean.dupont@mail.com  |  +33 6 12 34 56 78\n");
+        cv.append("12 rue des Lilas\n75011 Paris\n");
+        cv.append("Né le 01/02/1985\nNationalité : française\nMarié, 2 enfants\n\n");
+        cv.append("PROFIL\nDéveloppeur Java senior,   10 ans d'expérience   sur des plateformes à fort trafic.\n\n");
+        cv.append("CENTRES D'INTÉRÊT\n");
+        for (int i = 0; i < 40; i++) {
+            cv.append("Randonnée, photographie, cuisine du monde, lecture de romans policiers\n");
+        }
+        cv.append("\nPage 1/3\n\f").append(PAGE_HEADER).append("\n");
+        cv.append("EXPÉRIENCE PROFESSIONNELLE\n");
+        for (int i = 0; i < 30; i++) {
+            cv.append("2015-2024  Lead developer chez Acme : microservices Spring Boot, Kafka, Kubernetes, ")
+                    .append("migration Java 8 vers 17, mentorat de ").append(i).append(" développeurs\n");
+        }
+        cv.append("\nPage 2/3\n\f").append(PAGE_HEADER).append("\n");
+        cv.append("COMPÉTENCES\nJava, Spring, Hibernate, SQL, Docker, CI/CD\n\n");
+        cv.append("FORMATION\nMaster informatique, 2008\n\nPage 3/3\n").append(PAGE_HEADER).append("\n");
+        return cv.toString();
+    }
+
+    @Test
+    void removesNoiseAndPersonalDataAndKeepsImportantSectionsWithinBudget() {
+        CvTextCondenser condenser = new CvTextCondenser(new SimpleMeterRegistry(), 3000, 3500);
+        String cv = sampleCv();
+
+        CvTextCondenser.CondensedCv result = condenser.condense(cv, 600);
+        String text = result.text();
+
+        // Données personnelles et bruit de mise en page
+        assertFalse(text.contains("jean.dupont@mail.com"));
+        assertFalse(text.contains("+33 6 12"));
+        assertFalse(text.contains("rue des Lilas"));
+        assertFalse(text.contains("Né le"));
+        assertFalse(text.contains("Nationalité"));
+        assertFalse(text.contains("Marié"));
+        assertFalse(text.contains("Curriculum Vitae"));
+        assertFalse(text.contains("Page 2/3"));
+        assertFalse(text.contains("   "));
+
+        // Les sections utiles passent avant les centres d'intérêt, même situées plus loin dans le CV
+        assertTrue(text.contains("EXPÉRIENCE PROFESSIONNELLE"));
+        assertTrue(text.contains("2015-2024 Lead developer chez Acme"));
+        assertTrue(text.contains("COMPÉTENCES"));
+        assertTrue(text.contains("Java, Spring, Hibernate"));
+        assertTrue(text.indexOf("EXPÉRIENCE") < text.indexOf("COMPÉTENCES"));
+        assertFalse(text.contains("Randonnée"));
+
+        assertTrue(result.condensedTokens() <= 600);
+        assertTrue(result.condensedTokens() < result.originalTokens() / 2);
+    }
+
+    @Test
+    void shortCvOnlyLosesNoise() {
+        CvTextCondenser condenser = new CvTextCondenser(new SimpleMeterRegistry(), 3000, 3500);
+        String cv = "Compétences\nJava   17,  Spring Boot\n\n\n\nExpérience\nDéveloppeur backend chez Acme";
+
+        String text = condenser.condenseForScoring(cv).text();
+
+        assertTrue(text.contains("Java 17, Spring Boot"));
+        assertTrue(text.contains("Développeur backend chez Acme"));
+    }
+
+    @Test
+    void keepsDateRangesAndMasksOnlyPhoneNumbers() {
+        CvTextCondenser condenser = new CvTextCondenser(new SimpleMeterRegistry(), 3000, 3500);
+        String cv = "Expérience\n2018 - 2022\nConsultant chez Beta\nJan 2019 – 2021 Développeur chez Gamma\n"
+                + "Contact : 06 12 34 56 78 ou +212 6 61 23 45 67\n+33 (0)1 23 45 67 89";
+
+        String text = condenser.condenseForScoring(cv).text();
+
+        assertTrue(text.contains("2018 - 2022"));
+        assertTrue(text.contains("Jan 2019 – 2021 Développeur chez Gamma"));
+        assertFalse(text.contains("06 12 34"));
+        assertFalse(text.contains("+212"));
+        assertFalse(text.contains("+33"));
+    }
+
+    @Test
+    void keepsQuantifiedAchievementsThatLookLikeAddresses() {
+        CvTextCondenser condenser = new CvTextCondenser(new SimpleMeterRegistry(), 3000, 3500);
+        String cv = "Jean Dupont\n75011 Paris\nCélibataire\n\nExpérience\n"
+                + "plateforme e-commerce servant 50000 utilisateurs\n"
+                + "reduction de la latence pour 20000 clients\n"
+                + "développement d'une single page application\n"
+                + "Projets\nMarketplace : 12000 vendeurs actifs";
+
+        String text = condenser.condenseForScoring(cv).text();
+
+        assertTrue(text.contains("plateforme e-commerce servant 50000 utilisateurs"));
+        assertTrue(text.contains("reduction de la latence pour 20000 clients"));
+        assertTrue(text.contains("développement d'une single page application"));
+        assertTrue(text.contains("Marketplace : 12000 vendeurs actifs"));
+        // L'en-tête de contact reste filtré
+        assertFalse(text.contains("75011 Paris"));
+        assertFalse(text.contains("Célibataire"));
+    }
+}
@@ -0,0 +1,37 @@
+package com.smarthire.api.service;
+
+import com.smarthire.api.model.Application;
+import com.smarthire.api.model.CvText;
+import com.smarthire.api.repository.CvTextRepository;
+import com.smarthire.api.storage.CvStorage;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.io.IOException;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class CvTextServiceTest {
+
+    private static final String CHECKSUM = "a".repeat(64);
+
+    @Test
+    void concurrentExtractionOfTheSameContentReturnsTheStoredText() throws Exception {
+        CvTextRepository repository = mock(CvTextRepository.class);
+        CvStorage storage = mock(CvStorage.class);
+        when(storage.load(CHECKSUM)).thenThrow(new IOException("PDF illisible"));
+        // Absent à la lecture, puis enregistré par une extraction concurrente avant notre insertion
+        when(repository.findById(CHECKSUM)).thenReturn(Optional.empty(),
+                Optional.of(CvText.builder().contentHash(CHECKSUM).text("Texte du CV").charCount(11).build()));
+        when(repository.saveAndFlush(any())).thenThrow(new DataIntegrityViolationException("Duplicate entry"));
+
+        Application application = Application.builder().id(1L).cvStorageKey(CHECKSUM).cvChecksum(CHECKSUM).cvSize(10L).build();
+        String text = new CvTextService(repository, storage).getText(application);
+
+        assertEquals("Texte du CV", text);
+    }
+}
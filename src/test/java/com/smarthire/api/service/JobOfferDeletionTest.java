@@ -0,0 +1,47 @@
+package com.smarthire.api.service;
+
+import com.smarthire.api.model.ApplicationEmbedding;
+import com.smarthire.api.model.JobOffer;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Suppression d'une offre : les vecteurs de ses candidatures (sans clé étrangère) sont supprimés avec elle.
+ */
+@JpaSliceTest
+@Import(JobOfferService.class)
+class JobOfferDeletionTest {
+
+    @Autowired
+    private JobOfferService jobOfferService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @MockitoBean
+    private ScoringCascadePolicy scoringCascadePolicy;
+
+    @MockitoBean
+    private ImageService imageService;
+
+    @Test
+    void deletesTheEmbeddingsOfTheOfferApplications() {
+        JobOffer offer = TestFixtures.offer(entityManager, TestFixtures.recruiter(entityManager));
+        entityManager.persist(ApplicationEmbedding.builder().applicationId(42L).offerId(offer.getId())
+                .cvChecksum("a".repeat(64)).modelName("modele").vector(new byte[]{0, 0, 0, 0}).build());
+        entityManager.flush();
+        entityManager.clear();
+
+        jobOfferService.deleteOffer(offer.getId(), TestFixtures.RECRUITER_EMAIL);
+        entityManager.flush();
+        entityManager.clear();
+
+        assertNull(entityManager.find(ApplicationEmbedding.class, 42L));
+        assertNull(entityManager.find(JobOffer.class, offer.getId()));
+    }
+}
@@ -0,0 +1,72 @@
+package com.smarthire.api.service;
+
+import com.smarthire.api.dto.ScoringCandidate;
+import com.smarthire.api.model.CvText;
+import com.smarthire.api.model.JobOffer;
+import com.smarthire.api.repository.CvTextRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class LexicalPrescreenServiceTest {
+
+    private static final JobOffer OFFER = JobOffer.builder().title("Développeur Java")
+            .description("Microservices Spring Boot et Kafka").build();
+
+    @Test
+    void titleTermsWeighMoreThanDescriptionTerms() {
+        // Même longueur et même rareté : seul le poids du terme dans la requête départage les deux CV
+        // (à égalité, le CV "Kafka", placé en premier, serait retenu)
+        LexicalPrescreenService.Decision decision = prescreen(Map.of(
+                "a-kafka", "Consultant Kafka confirmé",
+                "b-java", "Consultant Java confirmé",
+                "c-autre", "Comptable confirmé paie"), 1, 0.1);
+
+        assertEquals(Set.of(id("b-java")), decision.toLlm());
+        assertTrue(decision.provisionalScores().get(id("a-kafka")) > 0);
+        assertEquals(0, decision.provisionalScores().get(id("c-autre")));
+    }
+
+    @Test
+    void relevantCvsGoToTheLlmAndOthersGetAProvisionalScore() {
+        LexicalPrescreenService.Decision decision = prescreen(Map.of(
+                "senior", "Développeur Java senior : Spring Boot, microservices, Kafka",
+                "junior", "Développeur Java junior, Spring",
+                "design", "Designer graphique, Photoshop, Illustrator"), 2, 0.5);
+
+        assertEquals(Set.of(id("senior"), id("junior")), decision.toLlm());
+        assertEquals(Map.of(id("design"), 0), decision.provisionalScores());
+    }
+
+    private static LexicalPrescreenService.Decision prescreen(Map<String, String> texts, int minCandidates, double llmFraction) {
+        CvTextRepository repository = mock(CvTextRepository.class);
+        when(repository.findAllById(any())).thenReturn(texts.entrySet().stream()
+                .map(text -> CvText.builder().contentHash(text.getKey()).text(text.getValue()).build())
+                .toList());
+        LexicalPrescreenService service = new LexicalPrescreenService(repository);
+        ReflectionTestUtils.setField(service, "enabled", true);
+        ReflectionTestUtils.setField(service, "minCandidates", minCandidates);
+        ReflectionTestUtils.setField(service, "llmFraction", llmFraction);
+        ReflectionTestUtils.setField(service, "minRelevance", 0.15);
+        ReflectionTestUtils.setField(service, "provisionalMaxScore", 40);
+
+        List<ScoringCandidate> candidates = texts.keySet().stream()
+                .sorted()
+                .map(checksum -> new ScoringCandidate(id(checksum), checksum, null))
+                .toList();
+        return service.prescreen(OFFER, candidates, candidates);
+    }
+
+    private static Long id(String checksum) {
+        return (long) Math.abs(checksum.hashCode());
+    }
+}
@@ -0,0 +1,132 @@
+package com.smarthire.api.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.smarthire.api.dto.ApplicationPageRequest;
+import com.smarthire.api.dto.ApplicationResponse;
+import com.smarthire.api.dto.JobOfferResponse;
+import com.smarthire.api.model.JobOffer;
+import com.smarthire.api.model.User;
+import com.smarthire.api.model.enums.ContractType;
+import com.smarthire.api.model.enums.OfferStatus;
+import com.smarthire.api.storage.CvStorage;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Nombre de requêtes SQL par appel des listes (candidatures et offres) :
+ * il ne doit pas dépendre du nombre de lignes retournées (pas de N+1 sur le candidat, l'offre ou le recruteur).
+ */
+@JpaSliceTest
+@TestPropertySource(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import({ApplicationService.class, JobOfferService.class})
+class ListEndpointsStatementCountTest {
+
+    private static final int CANDIDATES = 25;
+
+    @Autowired
+    private ApplicationService applicationService;
+
+    @Autowired
+    private JobOfferService jobOfferService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    // Dépendances non utilisées par les listes
+    @MockitoBean private ObjectMapper objectMapper;
+    @MockitoBean private CvStorage cvStorage;
+    @MockitoBean private CvTextService cvTextService;
+    @MockitoBean private CvTextExtractionQueue cvTextExtractionQueue;
+    @MockitoBean private CandidateSimilarityService candidateSimilarityService;
+    @MockitoBean private AiGenerationCoordinator aiGenerationCoordinator;
+    @MockitoBean private MeterRegistry meterRegistry;
+    @MockitoBean private AIService aiService;
+    @MockitoBean private N8nService n8nService;
+    @MockitoBean private ScoringCascadePolicy scoringCascadePolicy;
+    @MockitoBean private ImageService imageService;
+    @MockitoBean(name = "aiGenerationExecutor") private Executor aiGenerationExecutor;
+
+    private Long offerId;
+
+    @BeforeEach
+    void setUp() {
+        User recruiter = TestFixtures.recruiter(entityManager);
+        JobOffer offer = TestFixtures.offer(entityManager, recruiter);
+        entityManager.persist(JobOffer.builder().title("Data engineer").description("Spark").location("Rabat")
+                .contractType(ContractType.CDD).status(OfferStatus.PUBLISHED).createdBy(recruiter).build());
+        offerId = offer.getId();
+
+        User firstCandidate = null;
+        for (int i = 0; i < CANDIDATES; i++) {
+            User candidate = TestFixtures.candidate(entityManager, "candidat" + i + "@test.com");
+            if (firstCandidate == null) {
+                firstCandidate = candidate;
+            }
+            entityManager.persist(TestFixtures.application(candidate, offer).cvScore(i % 2 == 0 ? i : null).build());
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void applicationsForOfferUseTwoStatements() {
+        List<ApplicationResponse> applications = countStatements(2,
+                () -> applicationService.getApplicationsForOffer(offerId, "rh@test.com"));
+        assertEquals(CANDIDATES, applications.size());
+    }
+
+    @Test
+    void applicationsPageUsesAtMostThreeStatements() {
+        // Contrôle d'accès, candidatures notées, puis non notées pour compléter la page
+        var page = countStatements(3, () -> applicationService.getApplicationsPage(offerId, "rh@test.com",
+                new ApplicationPageRequest("score", "desc", null, null, null, 20, null)));
+        assertEquals(20, page.items().size());
+    }
+
+    @Test
+    void applicationsForCandidateUseTwoStatements() {
+        List<ApplicationResponse> applications = countStatements(2,
+                () -> applicationService.getApplicationsForCandidate("candidat0@test.com"));
+        assertEquals(1, applications.size());
+    }
+
+    @Test
+    void publicOffersUseOneStatement() {
+        List<JobOfferResponse> offers = countStatements(1, () -> jobOfferService.getAllPublicOffers(null));
+        assertEquals(2, offers.size());
+
+        countStatements(1, () -> jobOfferService.getAllPublicOffers("java"));
+    }
+
+    @Test
+    void offersByRecruiterUseTwoStatements() {
+        List<JobOfferResponse> offers = countStatements(2, () -> jobOfferService.getOffersByRecruiter("rh@test.com"));
+        assertEquals(2, offers.size());
+    }
+
+    private <T> T countStatements(long expected, Supplier<T> call) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        T result = call.get();
+        assertEquals(expected, statistics.getPrepareStatementCount(), "Nombre de requêtes SQL");
+        return result;
+    }
+}
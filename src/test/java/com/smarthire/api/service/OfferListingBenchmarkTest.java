@@ -0,0 +1,106 @@
+package com.smarthire.api.service;
+
+import com.smarthire.api.dto.JobOfferResponse;
+import com.smarthire.api.model.JobOffer;
+import com.smarthire.api.model.JobOfferImage;
+import com.smarthire.api.model.User;
+import com.smarthire.api.model.enums.ContractType;
+import com.smarthire.api.model.enums.OfferStatus;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Latence de la liste publique des offres (GET /api/offers) avec 500 offres illustrées d'une image de 200 Ko :
+ * liste actuelle (métadonnées seulement) comparée à une lecture qui ramène l'image avec chaque offre,
+ * comme lorsque l'image était une colonne de "job_offers".
+ * Exclu de "mvn test" (tag "benchmark").
+ */
+@JpaSliceTest
+@Import(JobOfferService.class)
+@Tag("benchmark")
+class OfferListingBenchmarkTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(OfferListingBenchmarkTest.class);
+
+    private static final int OFFERS = 500;
+    private static final int IMAGE_SIZE = 200 * 1024;
+    private static final int RUNS = 7;
+
+    @Autowired
+    private JobOfferService jobOfferService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @MockitoBean
+    private ScoringCascadePolicy scoringCascadePolicy;
+
+    @MockitoBean
+    private ImageService imageService;
+
+    @Test
+    void benchmark500OffersWithImages() {
+        Random random = new Random(42);
+        User recruiter = TestFixtures.recruiter(entityManager);
+        for (int i = 0; i < OFFERS; i++) {
+            JobOffer offer = JobOffer.builder().title("Offre " + i).description("Description de l'offre " + i)
+                    .location("Casablanca").contractType(ContractType.CDI).status(OfferStatus.PUBLISHED)
+                    .createdBy(recruiter).hasImage(true).build();
+            entityManager.persist(offer);
+            byte[] image = new byte[IMAGE_SIZE];
+            random.nextBytes(image);
+            entityManager.persist(JobOfferImage.builder().offerId(offer.getId()).contentType("image/jpeg").data(image).build());
+            if (i % 50 == 49) {
+                entityManager.flush();
+                entityManager.clear();
+                recruiter = entityManager.find(User.class, recruiter.getId());
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        List<JobOfferResponse> offers = jobOfferService.getAllPublicOffers(null);
+        assertEquals(OFFERS, offers.size());
+        assertTrue(offers.stream().allMatch(JobOfferResponse::hasImage));
+
+        double listingMillis = medianMillis(() -> jobOfferService.getAllPublicOffers(null).size());
+        double withImagesMillis = medianMillis(() -> jdbcTemplate.query(
+                "SELECT o.id, o.title, o.description, o.location, i.data FROM job_offers o " +
+                        "LEFT JOIN job_offer_images i ON i.offer_id = o.id WHERE o.status = 'PUBLISHED'",
+                (rs, rowNum) -> rs.getBytes("data")).size());
+
+        logger.info("Liste de {} offres avec image : {} ms (métadonnées) contre {} ms (image lue avec l'offre)",
+                OFFERS, String.format("%.1f", listingMillis), String.format("%.1f", withImagesMillis));
+        assertTrue(listingMillis < withImagesMillis, "La liste ne doit pas lire les images");
+    }
+
+    private double medianMillis(Supplier<Integer> call) {
+        double[] timings = new double[RUNS];
+        for (int i = 0; i < RUNS; i++) {
+            long start = System.nanoTime();
+            assertEquals(OFFERS, call.get());
+            timings[i] = (System.nanoTime() - start) / 1e6;
+            entityManager.clear();
+        }
+        Arrays.sort(timings);
+        return timings[RUNS / 2];
+    }
+}
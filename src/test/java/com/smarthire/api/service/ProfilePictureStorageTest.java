@@ -0,0 +1,96 @@
+package com.smarthire.api.service;
+
+import com.smarthire.api.dto.ProfileViewDTO;
+import com.smarthire.api.model.ProfilePicture;
+import com.smarthire.api.model.User;
+import com.smarthire.api.model.enums.ImageVariantType;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+/**
+ * Photo de profil stockée à part (table profile_pictures) :
+ * le profil ne lit jamais la photo, et la photo est servie sans charger l'utilisateur.
+ */
+@JpaSliceTest
+@TestPropertySource(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import(UserService.class)
+class ProfilePictureStorageTest {
+
+    private static final byte[] PICTURE = {1, 2, 3, 4};
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @MockitoBean
+    private ImageService imageService;
+
+    private Long userId;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        when(imageService.store(any())).thenReturn(new ImageService.ProcessedImage("a".repeat(64), 200, 100));
+        when(imageService.findVariant(any(), any())).thenReturn(Optional.empty());
+
+        User user = TestFixtures.candidate(entityManager, "candidat@test.com");
+        userId = user.getId();
+        assertFalse(userService.getUserProfile("candidat@test.com").isHasProfilePicture());
+
+        userService.uploadProfilePicture("candidat@test.com",
+                new MockMultipartFile("file", "photo.png", "image/png", PICTURE));
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void profileUsesThePresenceFlagWithoutReadingThePicture() {
+        Statistics statistics = statistics();
+
+        ProfileViewDTO profile = userService.getUserProfile("candidat@test.com");
+
+        assertTrue(profile.isHasProfilePicture());
+        assertEquals(ImageVariantType.THUMBNAIL.url("a".repeat(64)), profile.getProfilePictureThumbnailUrl());
+        assertEquals(0, statistics.getEntityStatistics(ProfilePicture.class.getName()).getLoadCount());
+    }
+
+    @Test
+    void pictureIsServedWithoutLoadingTheUser() {
+        Statistics statistics = statistics();
+
+        assertTrue(userService.getProfilePictureVariant(userId, ImageVariantType.FULL).isEmpty());
+        ProfilePicture picture = userService.getOriginalProfilePicture(userId);
+
+        assertArrayEquals(PICTURE, picture.getData());
+        assertEquals("image/png", picture.getContentType());
+        assertEquals(0, statistics.getEntityStatistics(User.class.getName()).getLoadCount());
+    }
+
+    private Statistics statistics() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        return statistics;
+    }
+}
@@ -0,0 +1,127 @@
+package com.smarthire.api.service;
+
+import com.smarthire.api.dto.ScoringJobResponse;
+import com.smarthire.api.model.Application;
+import com.smarthire.api.model.JobOffer;
+import com.smarthire.api.model.User;
+import com.smarthire.api.model.enums.ScoringJobStatus;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+/**
+ * Lancement d'une analyse : la requête n'enregistre que l'en-tête, la sélection des candidatures
+ * (pré-sélection lexicale, notes provisoires, éléments de travail) est faite par ScoringRunPreparer.
+ * Un lancement sans candidature à noter reste consultable et annulable.
+ */
+@JpaSliceTest
+@Import({ScoringJobService.class, ScoringRunPreparer.class, NodeIdentity.class})
+class ScoringJobServiceTest {
+
+    @Autowired
+    private ScoringJobService scoringJobService;
+
+    @Autowired
+    private ScoringRunPreparer scoringRunPreparer;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @MockitoBean
+    private AIService aiService;
+
+    @MockitoBean
+    private LexicalPrescreenService lexicalPrescreenService;
+
+    private Long offerId;
+
+    @BeforeEach
+    void setUp() {
+        JobOffer offer = TestFixtures.offer(entityManager, TestFixtures.recruiter(entityManager));
+        offerId = offer.getId();
+        entityManager.flush();
+
+        when(lexicalPrescreenService.prescreen(any(), any(), any()))
+                .thenReturn(new LexicalPrescreenService.Decision(Set.of(), Map.of()));
+    }
+
+    @Test
+    void emptyRunCanBeQueriedAndCancelled() {
+        ScoringJobResponse started = scoringJobService.startJob(offerId, "rh@test.com", false);
+        assertEquals(ScoringJobStatus.RUNNING.name(), started.status());
+
+        assertTrue(scoringRunPreparer.prepare(started.jobId()));
+        entityManager.clear();
+
+        ScoringJobResponse fetched = scoringJobService.getJob(started.jobId(), "rh@test.com");
+        assertEquals(ScoringJobStatus.COMPLETED.name(), fetched.status());
+        assertEquals(offerId, fetched.offerId());
+        assertEquals(0, fetched.total());
+        assertNotNull(fetched.finishedAt());
+
+        ScoringJobResponse cancelled = scoringJobService.cancelJob(started.jobId(), "rh@test.com");
+        assertEquals(ScoringJobStatus.COMPLETED.name(), cancelled.status());
+
+        assertThrows(AccessDeniedException.class, () -> scoringJobService.getJob(started.jobId(), "autre@test.com"));
+    }
+
+    @Test
+    void preparationWritesProvisionalScoresAndQueuesTheRest() {
+        JobOffer offer = entityManager.find(JobOffer.class, offerId);
+        List<Long> applicationIds = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            User candidate = TestFixtures.candidate(entityManager, "c" + i + "@test.com");
+            Application application = TestFixtures.persist(entityManager,
+                    TestFixtures.application(candidate, offer).cvChecksum("cv" + i).build());
+            applicationIds.add(application.getId());
+        }
+        entityManager.flush();
+        when(aiService.scoringFingerprint(any(), any())).thenReturn("empreinte");
+        when(lexicalPrescreenService.prescreen(any(), any(), any())).thenReturn(new LexicalPrescreenService.Decision(
+                Set.of(applicationIds.get(0), applicationIds.get(1)), Map.of(applicationIds.get(2), 12)));
+
+        ScoringJobResponse started = scoringJobService.startJob(offerId, "rh@test.com", false);
+        // Déjà en préparation : le même lancement est retourné
+        assertEquals(started.jobId(), scoringJobService.startJob(offerId, "rh@test.com", false).jobId());
+
+        assertTrue(scoringRunPreparer.prepare(started.jobId()));
+        assertFalse(scoringRunPreparer.prepare(started.jobId()));
+        entityManager.clear();
+
+        ScoringJobResponse fetched = scoringJobService.getJob(started.jobId(), "rh@test.com");
+        assertEquals(ScoringJobStatus.RUNNING.name(), fetched.status());
+        assertEquals(2, fetched.total());
+        assertEquals(2, fetched.remaining());
+
+        Application provisional = entityManager.find(Application.class, applicationIds.get(2));
+        assertEquals(12, provisional.getCvScore());
+        assertEquals(Boolean.TRUE, provisional.getCvScoreProvisional());
+    }
+
+    @Test
+    void cancellingDuringPreparationDiscardsTheSelection() {
+        ScoringJobResponse started = scoringJobService.startJob(offerId, "rh@test.com", false);
+
+        ScoringJobResponse cancelled = scoringJobService.cancelJob(started.jobId(), "rh@test.com");
+        assertEquals(ScoringJobStatus.CANCELLED.name(), cancelled.status());
+
+        assertFalse(scoringRunPreparer.prepare(started.jobId()));
+    }
+}
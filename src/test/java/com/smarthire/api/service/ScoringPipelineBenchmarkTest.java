@@ -0,0 +1,110 @@
+package com.smarthire.api.service;
+
+import com.smarthire.api.model.ScoringJob;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Mesure du pipeline de notation avec des étapes simulées (pauses) :
+ * préparation 2 ms par CV, appel au LLM 50 ms par lot de 5, écriture 5 ms par lot de résultats.
+ * Le temps total est comparé à un traitement séquentiel et le taux d'occupation de chaque étape est journalisé :
+ * l'étape LLM, la plus lente, doit rester occupée.
+ * Exclu de "mvn test" (tag "benchmark").
+ */
+@Tag("benchmark")
+class ScoringPipelineBenchmarkTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(ScoringPipelineBenchmarkTest.class);
+
+    private static final int ITEMS = 200;
+    private static final int GROUP_SIZE = 20;
+    private static final int BATCH_SIZE = 5;
+    private static final int LLM_THREADS = 4;
+    private static final int FLUSH_SIZE = 20;
+
+    private static final long PREPARE_MILLIS_PER_ITEM = 2;
+    private static final long LLM_MILLIS_PER_CALL = 50;
+    private static final long PERSIST_MILLIS_PER_FLUSH = 5;
+
+    @Test
+    void benchmark() throws Exception {
+        CountDownLatch persisted = new CountDownLatch(ITEMS);
+        AtomicInteger failed = new AtomicInteger();
+
+        ScoringPipeline.Stages stages = new ScoringPipeline.Stages() {
+            @Override
+            public void prepare(List<ScoringJob> group, ScoringPipeline.Output out) throws InterruptedException {
+                for (int i = 0; i < group.size(); i += BATCH_SIZE) {
+                    List<ScoringJob> items = group.subList(i, Math.min(i + BATCH_SIZE, group.size()));
+                    Thread.sleep(PREPARE_MILLIS_PER_ITEM * items.size());
+                    out.toLlm(new ScoringPipeline.LlmUnit(items, items.stream().map(item -> prepared(item)).toList()));
+                }
+            }
+
+            @Override
+            public void score(ScoringPipeline.LlmUnit unit, ScoringPipeline.Output out) throws InterruptedException {
+                Thread.sleep(LLM_MILLIS_PER_CALL);
+                for (int i = 0; i < unit.items().size(); i++) {
+                    out.done(new ScoringPipeline.ScoredItem(unit.items().get(i), unit.prepared().get(i), null));
+                }
+            }
+
+            @Override
+            public void persist(List<ScoringPipeline.ScoredItem> results) throws InterruptedException {
+                Thread.sleep(PERSIST_MILLIS_PER_FLUSH);
+                results.forEach(result -> persisted.countDown());
+            }
+
+            @Override
+            public void failed(ScoringJob item, Exception error) {
+                failed.incrementAndGet();
+            }
+        };
+
+        ScoringPipeline pipeline = new ScoringPipeline(stages, 2, LLM_THREADS, 16, FLUSH_SIZE,
+                Duration.ofMillis(20), new SimpleMeterRegistry());
+        try {
+            long start = System.nanoTime();
+            for (int i = 0; i < ITEMS; i += GROUP_SIZE) {
+                List<ScoringJob> group = new ArrayList<>();
+                for (long id = i; id < i + GROUP_SIZE; id++) {
+                    group.add(ScoringJob.builder().id(id).applicationId(id).build());
+                }
+                pipeline.submit(group);
+            }
+            assertTrue(persisted.await(30, TimeUnit.SECONDS), "Tous les résultats doivent être enregistrés");
+            double pipelineMillis = (System.nanoTime() - start) / 1e6;
+            Map<ScoringPipeline.Stage, Double> utilization = pipeline.utilization();
+
+            long sequentialMillis = ITEMS * PREPARE_MILLIS_PER_ITEM
+                    + (long) ITEMS / BATCH_SIZE * LLM_MILLIS_PER_CALL
+                    + (long) ITEMS / FLUSH_SIZE * PERSIST_MILLIS_PER_FLUSH;
+            logger.info("ScoringPipeline {} CV : {} ms (séquentiel {} ms), occupation {}",
+                    ITEMS, Math.round(pipelineMillis), sequentialMillis, utilization);
+
+            assertEquals(0, failed.get());
+            assertTrue(pipelineMillis < sequentialMillis, "Le pipeline doit être plus rapide que le traitement séquentiel");
+            assertTrue(utilization.get(ScoringPipeline.Stage.LLM) > 0.5, "L'étape LLM ne doit pas attendre les autres étapes");
+        } finally {
+            pipeline.shutdown();
+        }
+    }
+
+    private static AIService.PreparedScoring prepared(ScoringJob item) {
+        return new AIService.PreparedScoring(item.getApplicationId(), null, "cv", "prompt", "fingerprint", null, null, false);
+    }
+}
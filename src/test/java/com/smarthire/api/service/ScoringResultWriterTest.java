@@ -0,0 +1,70 @@
+package com.smarthire.api.service;
+
+import com.smarthire.api.dto.ScoringResult;
+import com.smarthire.api.model.Application;
+import com.smarthire.api.model.JobOffer;
+import com.smarthire.api.model.ScoringJob;
+import com.smarthire.api.model.enums.ScoringItemStatus;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Enregistrement d'un lot : une instance qui a perdu le bail d'un élément (repris par une autre
+ * après expiration) n'écrit ni la fin de l'élément ni la note de la candidature.
+ */
+@JpaSliceTest
+@Import(ScoringResultWriter.class)
+class ScoringResultWriterTest {
+
+    @Autowired
+    private ScoringResultWriter scoringResultWriter;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    void writesOnlyItemsStillLeasedByThisNode() {
+        JobOffer offer = TestFixtures.offer(entityManager, TestFixtures.recruiter(entityManager));
+        Application kept = application(offer, "c1@test.com");
+        Application lost = application(offer, "c2@test.com");
+        ScoringJob keptItem = item(offer, kept, "noeud-a");
+        ScoringJob lostItem = item(offer, lost, "noeud-b");
+        entityManager.flush();
+
+        scoringResultWriter.write(List.of(scored(keptItem, kept, 80), scored(lostItem, lost, 30)), "noeud-a");
+        entityManager.clear();
+
+        assertEquals(80, entityManager.find(Application.class, kept.getId()).getCvScore());
+        assertEquals(ScoringItemStatus.DONE, entityManager.find(ScoringJob.class, keptItem.getId()).getStatus());
+        assertNull(entityManager.find(Application.class, lost.getId()).getCvScore());
+        assertEquals(ScoringItemStatus.RUNNING, entityManager.find(ScoringJob.class, lostItem.getId()).getStatus());
+    }
+
+    private Application application(JobOffer offer, String email) {
+        return TestFixtures.persist(entityManager,
+                TestFixtures.application(TestFixtures.candidate(entityManager, email), offer).build());
+    }
+
+    private ScoringJob item(JobOffer offer, Application application, String leaseOwner) {
+        Instant now = Instant.now();
+        ScoringJob item = ScoringJob.builder().jobId("lancement").offerId(offer.getId()).applicationId(application.getId())
+                .requestedBy(TestFixtures.RECRUITER_EMAIL).status(ScoringItemStatus.RUNNING).attempts(1).availableAt(now)
+                .leaseOwner(leaseOwner).leaseExpiresAt(now.plusSeconds(300)).createdAt(now).build();
+        entityManager.persist(item);
+        return item;
+    }
+
+    private static ScoringPipeline.ScoredItem scored(ScoringJob item, Application application, int score) {
+        AIService.PreparedScoring prepared = new AIService.PreparedScoring(application.getId(), null, "cv", "prompt",
+                "empreinte", null, null, false);
+        return new ScoringPipeline.ScoredItem(item, prepared, new ScoringResult(score, "Analyse"));
+    }
+}
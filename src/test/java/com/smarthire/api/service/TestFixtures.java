@@ -0,0 +1,45 @@
+package com.smarthire.api.service;
+
+import com.smarthire.api.model.Application;
+import com.smarthire.api.model.JobOffer;
+import com.smarthire.api.model.User;
+import com.smarthire.api.model.enums.ApplicationStatus;
+import com.smarthire.api.model.enums.ContractType;
+import com.smarthire.api.model.enums.OfferStatus;
+import jakarta.persistence.EntityManager;
+
+/**
+ * Données communes des tests JPA : un recruteur, son offre publiée et des candidats.
+ */
+final class TestFixtures {
+
+    static final String RECRUITER_EMAIL = "rh@test.com";
+
+    private TestFixtures() {
+    }
+
+    static User recruiter(EntityManager entityManager) {
+        return persist(entityManager, User.builder().firstName("Rh").lastName("Test").email(RECRUITER_EMAIL).build());
+    }
+
+    static JobOffer offer(EntityManager entityManager, User recruiter) {
+        return persist(entityManager, JobOffer.builder().title("Développeur Java").description("Spring Boot")
+                .location("Casablanca").contractType(ContractType.CDI).status(OfferStatus.PUBLISHED)
+                .createdBy(recruiter).build());
+    }
+
+    static User candidate(EntityManager entityManager, String email) {
+        return persist(entityManager, User.builder().firstName("Candidat").lastName("Test").email(email).build());
+    }
+
+    // Candidature en attente avec un CV, à compléter (empreinte, note...) avant de l'enregistrer
+    static Application.ApplicationBuilder application(User candidate, JobOffer offer) {
+        return Application.builder().applicant(candidate).jobOffer(offer)
+                .status(ApplicationStatus.PENDING).cvFileName("cv.pdf").cvFileType("application/pdf");
+    }
+
+    static <T> T persist(EntityManager entityManager, T entity) {
+        entityManager.persist(entity);
+        return entity;
+    }
+}
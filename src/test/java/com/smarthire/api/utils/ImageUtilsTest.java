@@ -0,0 +1,63 @@
+package com.smarthire.api.utils;
+
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ImageUtilsTest {
+
+    @Test
+    void readDimensionsFromHeader() throws IOException {
+        byte[] png = png(new BufferedImage(1200, 800, BufferedImage.TYPE_INT_RGB));
+
+        ImageUtils.Dimensions dimensions = ImageUtils.readDimensions(png).orElseThrow();
+
+        assertEquals(1200, dimensions.width());
+        assertEquals(800, dimensions.height());
+        assertTrue(ImageUtils.readDimensions("pas une image".getBytes()).isEmpty());
+    }
+
+    @Test
+    void resizeKeepsAspectRatioAndNeverUpscales() {
+        BufferedImage large = new BufferedImage(3000, 2000, BufferedImage.TYPE_INT_RGB);
+        BufferedImage resized = ImageUtils.resizeToFit(large, 160);
+        assertEquals(160, resized.getWidth());
+        assertEquals(107, resized.getHeight());
+
+        BufferedImage small = new BufferedImage(100, 50, BufferedImage.TYPE_INT_RGB);
+        BufferedImage notUpscaled = ImageUtils.resizeToFit(small, 480);
+        assertEquals(100, notUpscaled.getWidth());
+        assertEquals(50, notUpscaled.getHeight());
+    }
+
+    @Test
+    void opaqueImagesBecomeJpegAndTransparentOnesPng() throws IOException {
+        BufferedImage opaque = ImageUtils.resizeToFit(new BufferedImage(400, 300, BufferedImage.TYPE_INT_RGB), 160);
+        BufferedImage transparent = ImageUtils.resizeToFit(new BufferedImage(400, 300, BufferedImage.TYPE_INT_ARGB), 160);
+
+        ImageUtils.Encoded jpeg = ImageUtils.encode(opaque, 0.85f);
+        ImageUtils.Encoded png = ImageUtils.encode(transparent, 0.85f);
+
+        assertEquals("image/jpeg", jpeg.contentType());
+        assertEquals("image/png", png.contentType());
+        assertEquals(160, ImageUtils.decode(jpeg.data()).getWidth());
+    }
+
+    @Test
+    void decodeRejectsUnknownContent() {
+        assertThrows(IOException.class, () -> ImageUtils.decode("pas une image".getBytes()));
+    }
+
+    private static byte[] png(BufferedImage image) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", out);
+        return out.toByteArray();
+    }
+}
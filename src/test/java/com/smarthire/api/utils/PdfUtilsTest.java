@@ -0,0 +1,56 @@
+package com.smarthire.api.utils;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.apache.pdfbox.pdmodel.font.Standard14Fonts;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class PdfUtilsTest {
+
+    @TempDir
+    private Path root;
+
+    @Test
+    void extractsOnlyTheFirstPages() throws Exception {
+        File pdf = pdf(3);
+
+        assertEquals("Page 1\nPage 2", PdfUtils.extractTextFromPdf(pdf, 2, 1024 * 1024, 10_000).replace("\r", ""));
+    }
+
+    @Test
+    void givesUpWhenTheDeadlineIsExceeded() throws Exception {
+        File pdf = pdf(200);
+
+        // Le délai est dépassé avant même la fin du chargement
+        assertThrows(PdfUtils.PdfExtractionTimeoutException.class,
+                () -> PdfUtils.extractTextFromPdf(pdf, 200, 1024 * 1024, 0));
+    }
+
+    private File pdf(int pages) throws Exception {
+        File file = root.resolve("cv-" + pages + ".pdf").toFile();
+        try (PDDocument document = new PDDocument()) {
+            for (int i = 1; i <= pages; i++) {
+                PDPage page = new PDPage();
+                document.addPage(page);
+                try (PDPageContentStream content = new PDPageContentStream(document, page)) {
+                    content.beginText();
+                    content.setFont(new PDType1Font(Standard14Fonts.FontName.HELVETICA), 12);
+                    content.newLineAtOffset(50, 700);
+                    content.showText("Page " + i);
+                    content.endText();
+                }
+            }
+            document.save(file);
+        }
+        return file;
+    }
+}
@@ -0,0 +1,32 @@
+package com.smarthire.api.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class TextTokenizerTest {
+
+    @Test
+    void foldsAccentsAndKeepsTechnicalTokens() {
+        List<String> tokens = TextTokenizer.tokenize("Développeur C++ / C# et .NET, expérience Node.js.");
+
+        assertEquals(List.of("developpeur", "c++", "c#", ".net", "experience", "node.js"), tokens);
+    }
+
+    @Test
+    void dropsStopWordsAndSingleCharacters() {
+        List<String> tokens = TextTokenizer.tokenize("Le chef de projet and the team : R a X");
+
+        assertEquals(List.of("chef", "projet", "team"), tokens);
+    }
+
+    @Test
+    void countsTermFrequencies() {
+        Map<String, Integer> frequencies = TextTokenizer.termFrequencies("Java, JAVA et Spring ; java");
+
+        assertEquals(Map.of("java", 3, "spring", 1), frequencies);
+    }
+}
@@ -0,0 +1,75 @@
+package com.smarthire.api.utils;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Mesure du temps de construction de l'index et de la latence d'une requête
+ * (vecteurs aléatoires de 384 dimensions, comme all-MiniLM-L6-v2).
+ * Exclu de "mvn test" (tag "benchmark").
+ */
+@Tag("benchmark")
+class VectorIndexBenchmarkTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(VectorIndexBenchmarkTest.class);
+
+    private static final int DIMENSION = 384;
+    private static final int QUERIES = 50;
+
+    @Test
+    void benchmark10k() {
+        benchmark(10_000);
+    }
+
+    @Test
+    void benchmark100k() {
+        benchmark(100_000);
+    }
+
+    private void benchmark(int size) {
+        Random random = new Random(42);
+        float[][] vectors = new float[size][];
+        for (int i = 0; i < size; i++) {
+            vectors[i] = randomVector(random);
+        }
+
+        long start = System.nanoTime();
+        VectorIndex index = new VectorIndex(DIMENSION, size);
+        for (int i = 0; i < size; i++) {
+            index.add(i, vectors[i]);
+        }
+        double buildMillis = (System.nanoTime() - start) / 1e6;
+
+        // Échauffement du JIT
+        for (int i = 0; i < 5; i++) {
+            index.search(vectors[i], 50);
+        }
+
+        start = System.nanoTime();
+        for (int i = 0; i < QUERIES; i++) {
+            int target = random.nextInt(size);
+            List<VectorIndex.Match> matches = index.search(vectors[target], 50);
+            // Un vecteur de l'index est son propre plus proche voisin
+            assertEquals(target, matches.get(0).id());
+        }
+        double queryMillis = (System.nanoTime() - start) / 1e6 / QUERIES;
+
+        logger.info("VectorIndex {} vecteurs : construction {} ms, requête top-50 {} ms",
+                size, String.format("%.1f", buildMillis), String.format("%.2f", queryMillis));
+    }
+
+    private float[] randomVector(Random random) {
+        float[] vector = new float[DIMENSION];
+        for (int d = 0; d < DIMENSION; d++) {
+            vector[d] = (float) random.nextGaussian();
+        }
+        return vector;
+    }
+}